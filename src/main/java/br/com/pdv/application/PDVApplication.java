@@ -6,6 +6,12 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
+import br.com.pdv.dao.IndiceProdutos;
+import br.com.pdv.dao.ReplicadorVendas;
+import br.com.pdv.util.DatabaseConnection;
+import br.com.pdv.util.LogUtil;
+import br.com.pdv.util.StartupTimeline;
+
 public class PDVApplication extends Application {
     
     @Override
@@ -26,9 +32,27 @@ public class PDVApplication extends Application {
         
         primaryStage.setMaximized(false);
         primaryStage.show();
+        StartupTimeline.marcar("tela principal exibida");
+        
+        // Carrega em segundo plano o índice de códigos usado na leitura dos produtos
+        IndiceProdutos.getInstance().iniciar();
+        
+        try {
+            // Envia ao banco as vendas que ficaram no diário local
+            ReplicadorVendas.getInstance().iniciar();
+        } catch (RuntimeException e) {
+            LogUtil.error(PDVApplication.class, "Erro ao abrir o diário de vendas", e);
+        }
     }
     
     public static void main(String[] args) {
+        StartupTimeline.marcar("main() iniciado");
+        try {
+            // Inicia o aquecimento do pool de conexões antes de carregar o JavaFX
+            DatabaseConnection.getInstance();
+        } catch (RuntimeException e) {
+            LogUtil.error(PDVApplication.class, "Erro ao inicializar a conexão com o banco de dados", e);
+        }
         launch(args);
     }
 }
\ No newline at end of file
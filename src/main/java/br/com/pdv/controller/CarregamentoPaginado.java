@@ -0,0 +1,147 @@
+package br.com.pdv.controller;
+
+import br.com.pdv.dao.Pagina;
+import br.com.pdv.util.AlertUtil;
+import br.com.pdv.util.ExecutorDAO;
+import br.com.pdv.util.LogUtil;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+
+import java.sql.SQLException;
+
+/**
+ * Preenche uma TableView página por página, à medida que o usuário rola a tabela.
+ *
+ * A primeira página é carregada ao iniciar; as seguintes quando a barra de rolagem chega
+ * perto do fim. As consultas rodam no {@link ExecutorDAO} e os itens são acrescentados
+ * à lista da tabela na thread do JavaFX.
+ *
+ * @param <T> Tipo das linhas da tabela
+ */
+final class CarregamentoPaginado<T> {
+
+    /**
+     * Busca a página seguinte ao último item já carregado
+     */
+    @FunctionalInterface
+    interface BuscaPagina<T> {
+        Pagina<T> buscar(T ultimo, int limite) throws SQLException;
+    }
+
+    // Fração da rolagem a partir da qual a próxima página é pedida
+    private static final double LIMIAR_ROLAGEM = 0.9;
+
+    private final TableView<T> tabela;
+    private final ObservableList<T> itens;
+    private final Runnable aoCarregar;
+
+    private BuscaPagina<T> busca;
+    private boolean temMais;
+    private boolean carregando;
+    // Descarta páginas de uma listagem anterior que cheguem depois de reiniciar
+    private int geracao;
+    private ScrollBar barraVertical;
+
+    /**
+     * @param tabela A tabela a ser preenchida
+     * @param itens A lista exibida pela tabela
+     * @param aoCarregar Executado na thread do JavaFX após cada página (ex.: atualizar contador)
+     */
+    CarregamentoPaginado(TableView<T> tabela, ObservableList<T> itens, Runnable aoCarregar) {
+        this.tabela = tabela;
+        this.itens = itens;
+        this.aoCarregar = aoCarregar;
+        tabela.skinProperty().addListener((obs, antiga, nova) -> Platform.runLater(this::observarRolagem));
+        observarRolagem();
+    }
+
+    /**
+     * Limpa a tabela e carrega a primeira página da listagem
+     */
+    void iniciar(BuscaPagina<T> busca) {
+        this.busca = busca;
+        geracao++;
+        itens.clear();
+        temMais = true;
+        carregando = false;
+        carregarProxima();
+    }
+
+    /**
+     * Interrompe a paginação, para quando a tabela exibe um resultado completo (ex.: pesquisa)
+     */
+    void parar() {
+        geracao++;
+        temMais = false;
+        carregando = false;
+    }
+
+    /**
+     * Verifica se ainda há páginas a carregar
+     */
+    boolean isTemMais() {
+        return temMais;
+    }
+
+    private void carregarProxima() {
+        if (!temMais || carregando || busca == null) {
+            return;
+        }
+        carregando = true;
+
+        int geracaoAtual = geracao;
+        BuscaPagina<T> buscaAtual = busca;
+        T ultimo = itens.isEmpty() ? null : itens.get(itens.size() - 1);
+
+        ExecutorDAO.naInterface(ExecutorDAO.executar("CarregamentoPaginado.carregarProxima",
+                () -> buscaAtual.buscar(ultimo, Pagina.TAMANHO_PADRAO)), pagina -> {
+            if (geracaoAtual != geracao) {
+                return;
+            }
+            carregando = false;
+            temMais = pagina.temMais();
+            itens.addAll(pagina.itens());
+            aoCarregar.run();
+            // Sem barra de rolagem visível o usuário não tem como pedir mais
+            if (temMais && barraVertical != null && !barraVertical.isVisible()) {
+                Platform.runLater(this::carregarProxima);
+            }
+        }, erro -> {
+            if (geracaoAtual != geracao) {
+                return;
+            }
+            carregando = false;
+            LogUtil.error(CarregamentoPaginado.class, "Erro ao carregar página: " + erro.getMessage(), erro);
+            AlertUtil.showError("Erro ao carregar dados", ExecutorDAO.mensagem(erro));
+        });
+    }
+
+    private void observarRolagem() {
+        if (barraVertical != null) {
+            return;
+        }
+        for (Node node : tabela.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                barraVertical = (ScrollBar) node;
+                barraVertical.valueProperty().addListener((obs, antigo, novo) -> {
+                    if (novo.doubleValue() >= barraVertical.getMax() * LIMIAR_ROLAGEM) {
+                        carregarProxima();
+                    }
+                });
+                barraVertical.visibleProperty().addListener((obs, antigo, visivel) -> {
+                    if (!visivel) {
+                        carregarProxima();
+                    }
+                });
+                if (!barraVertical.isVisible()) {
+                    carregarProxima();
+                }
+                return;
+            }
+        }
+    }
+}
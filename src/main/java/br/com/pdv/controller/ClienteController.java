@@ -2,7 +2,9 @@ package br.com.pdv.controller;
 
 import br.com.pdv.dao.ClienteDAO;
 import br.com.pdv.model.Cliente;
+import br.com.pdv.model.ClienteResumo;
 import br.com.pdv.util.AlertUtil;
+import br.com.pdv.util.ExecutorDAO;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -13,12 +15,10 @@ import javafx.fxml.Initializable;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import java.io.IOException;
 import java.net.URL;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
@@ -38,24 +38,25 @@ public class ClienteController implements Initializable {
     private Button backButton;
     
     @FXML
-    private TableView<Cliente> clientesTable;
+    private TableView<ClienteResumo> clientesTable;
     
     @FXML
-    private TableColumn<Cliente, String> nomeColumn;
+    private TableColumn<ClienteResumo, String> nomeColumn;
     
     @FXML
-    private TableColumn<Cliente, String> celularColumn;
+    private TableColumn<ClienteResumo, String> celularColumn;
     
     @FXML
-    private TableColumn<Cliente, String> emailColumn;
+    private TableColumn<ClienteResumo, String> emailColumn;
     
     @FXML
-    private TableColumn<Cliente, String> cpfColumn;
+    private TableColumn<ClienteResumo, String> cpfColumn;
     
     @FXML
-    private TableColumn<Cliente, Void> actionsColumn;
+    private TableColumn<ClienteResumo, Void> actionsColumn;
     
-    private ObservableList<Cliente> clientesList;
+    private ObservableList<ClienteResumo> clientesList;
+    private CarregamentoPaginado<ClienteResumo> carregamento;
     private ClienteDAO clienteDAO;
     private Scene mainScene;
     private Stage stage;
@@ -65,6 +66,8 @@ public class ClienteController implements Initializable {
         // Inicializar DAO e lista de clientes
         clienteDAO = ClienteDAO.getInstance();
         clientesList = FXCollections.observableArrayList();
+        clientesTable.setItems(clientesList);
+        carregamento = new CarregamentoPaginado<>(clientesTable, clientesList, clientesTable::refresh);
         
         // Configurar colunas da tabela
         configurarColunas();
@@ -84,20 +87,20 @@ public class ClienteController implements Initializable {
      */
     private void configurarColunas() {
         // Configurar colunas básicas
-        nomeColumn.setCellValueFactory(new PropertyValueFactory<>("nome"));
+        nomeColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().nome()));
         
         celularColumn.setCellValueFactory(cellData -> {
-            String telefone = cellData.getValue().getTelefone();
+            String telefone = cellData.getValue().telefone();
             return new SimpleStringProperty(telefone != null ? telefone : "");
         });
         
         emailColumn.setCellValueFactory(cellData -> {
-            String email = cellData.getValue().getEmail();
+            String email = cellData.getValue().email();
             return new SimpleStringProperty(email != null ? email : "");
         });
         
         cpfColumn.setCellValueFactory(cellData -> {
-            String cpfCnpj = cellData.getValue().getCpfCnpj();
+            String cpfCnpj = cellData.getValue().cpfCnpj();
             return new SimpleStringProperty(cpfCnpj != null ? cpfCnpj : "");
         });
         
@@ -110,15 +113,26 @@ public class ClienteController implements Initializable {
      */
     private void configurarColunaAcoes() {
         actionsColumn.setCellFactory(col -> {
-            TableCell<Cliente, Void> cell = new TableCell<Cliente, Void>() {
+            TableCell<ClienteResumo, Void> cell = new TableCell<ClienteResumo, Void>() {
                 private final Button btn = new Button();
                 
                 {
                     btn.getStyleClass().add("edit-button");
                     btn.setText("✏️");
                     btn.setOnAction(event -> {
-                        Cliente cliente = getTableView().getItems().get(getIndex());
-                        editarCliente(cliente);
+                        ClienteResumo resumo = getTableView().getItems().get(getIndex());
+                        // A tabela exibe apenas o resumo; a edição precisa do cliente completo,
+                        // carregado fora da thread do JavaFX
+                        ExecutorDAO.executarNaInterface("ClienteController.editarCliente",
+                            () -> clienteDAO.findById(resumo.id()), cliente -> {
+                                if (cliente != null) {
+                                    editarCliente(cliente);
+                                } else {
+                                    AlertUtil.showWarning("Cliente não encontrado",
+                                        "O cliente '" + resumo.nome() + "' não existe mais.");
+                                    carregarClientes();
+                                }
+                            }, "Erro ao carregar cliente");
                     });
                 }
                 
@@ -146,19 +160,10 @@ public class ClienteController implements Initializable {
     }
     
     /**
-     * Carrega todos os clientes do banco de dados
+     * Carrega os clientes do banco de dados, uma página por vez conforme a tabela é rolada
      */
     private void carregarClientes() {
-        try {
-            // Usando o método readAll() disponível na classe ClienteDAO
-            List<Cliente> clientes = clienteDAO.readAll();
-            clientesList.clear();
-            clientesList.addAll(clientes);
-            clientesTable.setItems(clientesList);
-        } catch (SQLException e) {
-            AlertUtil.showError("Erro ao carregar clientes", 
-                "Ocorreu um erro ao carregar a lista de clientes: " + e.getMessage());
-        }
+        carregamento.iniciar(clienteDAO::findResumosAfter);
     }
     
     /**
@@ -168,41 +173,36 @@ public class ClienteController implements Initializable {
     private void pesquisarClientes() {
         String termo = searchField.getText().trim();
         
-        try {
-            List<Cliente> resultados;
-            
-            if (termo.isEmpty()) {
-                // Usando o método readAll() disponível na classe ClienteDAO
-                resultados = clienteDAO.readAll();
-            } else {
-                // Verificar se é um CPF/CNPJ ou nome
-                if (termo.matches("\\d+")) {
-                    // Verificar se é um CPF/CNPJ
-                    Cliente cliente = clienteDAO.findByCpfCnpj(termo);
-                    resultados = cliente != null ? List.of(cliente) : new ArrayList<>();
-                } else {
-                    // Usar busca por nome parcial em vez de exato
-                    // Verifique se o método findByNomeLike existe no ClienteDAO
-                    resultados = clienteDAO.findByNomeLike(termo);
-                    
-                    // Se findByNomeLike não existir, use findByNome como fallback
-                    if (resultados == null) {
-                        Cliente cliente = clienteDAO.findByNome(termo);
-                        resultados = cliente != null ? List.of(cliente) : new ArrayList<>();
-                    }
-                }
+        if (termo.isEmpty()) {
+            // Voltar à listagem paginada de todos os clientes
+            carregarClientes();
+            return;
+        }
+        
+        // A consulta roda fora da thread do JavaFX
+        ExecutorDAO.executarNaInterface("ClienteController.pesquisarClientes", () -> {
+            // Verificar se é um CPF/CNPJ ou nome
+            if (termo.matches("\\d+")) {
+                // Verificar se é um CPF/CNPJ
+                Cliente cliente = clienteDAO.findByCpfCnpj(termo);
+                return cliente != null ? List.of(ClienteResumo.de(cliente)) : new ArrayList<ClienteResumo>();
+            }
+            // Usar busca por nome parcial em vez de exato
+            return clienteDAO.findResumosByNomeLike(termo);
+        }, resultados -> {
+            // Descarta o resultado se o termo mudou enquanto a consulta rodava
+            if (!termo.equals(searchField.getText().trim())) {
+                return;
             }
             
+            // O resultado da pesquisa é exibido por inteiro
+            carregamento.parar();
             clientesList.clear();
             clientesList.addAll(resultados);
             
             // Atualizar a tabela explicitamente
             clientesTable.setItems(clientesList);
-            
-        } catch (SQLException e) {
-            AlertUtil.showError("Erro na pesquisa", 
-                "Ocorreu um erro ao pesquisar clientes: " + e.getMessage());
-        }
+        }, "Erro na pesquisa");
     }
     
     /**
@@ -3,6 +3,8 @@ package br.com.pdv.controller;
 import br.com.pdv.dao.*;
 import br.com.pdv.model.*;
 import br.com.pdv.util.AlertUtil;
+import br.com.pdv.util.ExecutorDAO;
+import br.com.pdv.util.LogUtil;
 
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
@@ -225,66 +227,99 @@ public class DashboardController implements Initializable {
     }
 
     /**
-     * Carrega todos os dados para exibição no dashboard
+     * Carrega todos os dados para exibição no dashboard. As consultas rodam fora da thread
+     * do JavaFX e a tela é atualizada quando todas terminam.
      */
     private void carregarDados() {
-        try {
-            // Atualizar os cards de informações
-            atualizarCards();
-            
-            // Carregar dados dos gráficos
-            carregarGraficos();
-            
-            // Carregar produtos mais vendidos
-            carregarTopProdutos();
-            
-            // Carregar produtos com estoque baixo
-            carregarProdutosEstoqueBaixo();
-            
-        } catch (Exception e) {
-            e.printStackTrace();
+        refreshButton.setDisable(true);
+        
+        // Clientes, usuários e produtos são carregados uma única vez em toda a carga
+        ExecutorDAO.naInterface(ExecutorDAO.executar("DashboardController.carregarDados",
+                () -> IdentityMap.emEscopo(this::consultarDados)), dados -> {
+            refreshButton.setDisable(false);
+            exibirDados(dados);
+        }, erro -> {
+            refreshButton.setDisable(false);
+            LogUtil.error(DashboardController.class, "Erro ao carregar dados do dashboard", erro);
             AlertUtil.showError("Erro ao carregar dados", 
-                "Ocorreu um erro ao carregar os dados do dashboard: " + e.getMessage());
-        }
+                "Ocorreu um erro ao carregar os dados do dashboard: " + ExecutorDAO.mensagem(erro));
+        });
     }
-
+    
     /**
-     * Atualiza os cards com informações de totais
+     * Dados exibidos no dashboard, consultados fora da thread do JavaFX
      */
-    private void atualizarCards() throws SQLException {
-        // Total de vendas
+    private record DadosDashboard(int totalVendas, int totalProdutos, int totalClientes, BigDecimal valorTotal,
+            int totalEstoque, int produtosAlerta, Map<Month, Integer> vendasPorMes,
+            Map<Month, BigDecimal> valorPorMes, List<ProdutoVendas> topProdutos,
+            List<Produto> produtosEstoqueBaixo) {
+    }
+    
+    /**
+     * Consulta os dados do dashboard; não acessa componentes da tela
+     */
+    private DadosDashboard consultarDados() throws SQLException {
+        // Totais dos cards
         int totalVendas = vendaDAO.contarVendasFinalizadas();
-        totalVendasLabel.setText(String.valueOf(totalVendas));
-        
-        // Total de produtos
         int totalProdutos = produtoDAO.contarProdutosAtivos();
-        totalProdutosLabel.setText(String.valueOf(totalProdutos));
-        
-        // Total de clientes
         int totalClientes = clienteDAO.contarClientesAtivos();
-        totalClientesLabel.setText(String.valueOf(totalClientes));
-        
-        // Valor total de vendas
         BigDecimal valorTotal = vendaDAO.calcularValorTotalVendas();
-        valorTotalLabel.setText("R$ " + valorTotal.toString().replace(".", ","));
-        
-        // Total de itens em estoque
         int totalEstoque = produtoDAO.calcularTotalItensEstoque();
-        totalEstoqueLabel.setText(String.valueOf(totalEstoque));
-        
-        // Produtos em alerta de estoque
         int produtosAlerta = produtoDAO.contarProdutosComEstoqueBaixo();
-        estoqueEmAlertaLabel.setText(String.valueOf(produtosAlerta));
+        
+        // Vendas do ano atual, agrupadas por mês (quantidade e valor) a partir de uma única consulta
+        LocalDate hoje = LocalDate.now();
+        LocalDate inicioAno = LocalDate.of(hoje.getYear(), 1, 1);
+        List<VendaResumo> vendas = vendaDAO.findResumosByPeriod(inicioAno.atStartOfDay(), hoje.atTime(23, 59, 59));
+        
+        Map<Month, Integer> vendasPorMes = new HashMap<>();
+        Map<Month, BigDecimal> valorPorMes = new HashMap<>();
+        for (VendaResumo venda : vendas) {
+            Month mes = venda.dataVenda().getMonth();
+            vendasPorMes.merge(mes, 1, Integer::sum);
+            valorPorMes.merge(mes, venda.valorTotal(), BigDecimal::add);
+        }
+        
+        // Obter os produtos mais vendidos
+        List<ProdutoVendas> topProdutos = itemPedidoDAO.obterProdutosMaisVendidos(10);
+        
+        LogUtil.debug(DashboardController.class, topProdutos.isEmpty()
+                ? "Nenhum produto vendido encontrado no banco de dados"
+                : "Produtos mais vendidos encontrados: " + topProdutos.size());
+        
+        // Obter produtos com estoque abaixo do mínimo
+        List<Produto> produtosEstoqueBaixo = produtoDAO.findWithLowStock();
+        
+        return new DadosDashboard(totalVendas, totalProdutos, totalClientes, valorTotal, totalEstoque,
+                produtosAlerta, vendasPorMes, valorPorMes, topProdutos, produtosEstoqueBaixo);
+    }
+    
+    /**
+     * Exibe os dados consultados; executado na thread do JavaFX
+     */
+    private void exibirDados(DadosDashboard dados) {
+        // Atualizar os cards de informações
+        totalVendasLabel.setText(String.valueOf(dados.totalVendas()));
+        totalProdutosLabel.setText(String.valueOf(dados.totalProdutos()));
+        totalClientesLabel.setText(String.valueOf(dados.totalClientes()));
+        valorTotalLabel.setText("R$ " + dados.valorTotal().toString().replace(".", ","));
+        totalEstoqueLabel.setText(String.valueOf(dados.totalEstoque()));
+        estoqueEmAlertaLabel.setText(String.valueOf(dados.produtosAlerta()));
+        
+        // Carregar dados dos gráficos
+        carregarGraficos(dados.vendasPorMes(), dados.valorPorMes());
+        
+        // Atualizar produtos mais vendidos
+        topProdutosList.setAll(dados.topProdutos());
+        
+        // Atualizar produtos com estoque baixo
+        estoqueBaixoList.setAll(dados.produtosEstoqueBaixo());
     }
 
     /**
      * Carrega os dados para os gráficos de vendas
      */
-    private void carregarGraficos() throws SQLException {
-        // Dados de vendas por mês
-        Map<Month, Integer> vendasPorMes = obterVendasPorMes();
-        Map<Month, BigDecimal> valorPorMes = obterValorVendasPorMes();
-        
+    private void carregarGraficos(Map<Month, Integer> vendasPorMes, Map<Month, BigDecimal> valorPorMes) {
         // Configurar gráfico de vendas mensais
         XYChart.Series<String, Number> seriesVendas = new XYChart.Series<>();
         seriesVendas.setName("Vendas");
@@ -356,83 +391,6 @@ public class DashboardController implements Initializable {
                 (int) (color.getBlue() * 255));
     }
 
-    /**
-     * Obtém o número de vendas agrupadas por mês
-     */
-    private Map<Month, Integer> obterVendasPorMes() throws SQLException {
-        Map<Month, Integer> vendasPorMes = new HashMap<>();
-        
-        // Obter data atual e calcular o início do ano
-        LocalDate hoje = LocalDate.now();
-        LocalDate inicioAno = LocalDate.of(hoje.getYear(), 1, 1);
-        
-        // Buscar vendas do ano atual
-        List<Venda> vendas = vendaDAO.findByPeriod(inicioAno.atStartOfDay(), hoje.atTime(23, 59, 59));
-        
-        // Agrupar por mês
-        for (Venda venda : vendas) {
-            Month mes = venda.getDataVenda().getMonth();
-            vendasPorMes.put(mes, vendasPorMes.getOrDefault(mes, 0) + 1);
-        }
-        
-        return vendasPorMes;
-    }
-
-    /**
-     * Obtém o valor total de vendas agrupadas por mês
-     */
-    private Map<Month, BigDecimal> obterValorVendasPorMes() throws SQLException {
-        Map<Month, BigDecimal> valorPorMes = new HashMap<>();
-        
-        // Obter data atual e calcular o início do ano
-        LocalDate hoje = LocalDate.now();
-        LocalDate inicioAno = LocalDate.of(hoje.getYear(), 1, 1);
-        
-        // Buscar vendas do ano atual
-        List<Venda> vendas = vendaDAO.findByPeriod(inicioAno.atStartOfDay(), hoje.atTime(23, 59, 59));
-        
-        // Agrupar por mês
-        for (Venda venda : vendas) {
-            Month mes = venda.getDataVenda().getMonth();
-            BigDecimal valorAtual = valorPorMes.getOrDefault(mes, BigDecimal.ZERO);
-            valorPorMes.put(mes, valorAtual.add(venda.getValorTotal()));
-        }
-        
-        return valorPorMes;
-    }
-
-    /**
-     * Carrega os dados dos top 5 produtos mais vendidos
-     */
-    private void carregarTopProdutos() throws SQLException {
-        // Obter os produtos mais vendidos (top 5)
-        List<ProdutoVendas> topProdutos = itemPedidoDAO.obterProdutosMaisVendidos(10);
-        
-        // Adicionar log para ver o tamanho da lista retornada
-        System.out.println("Produtos mais vendidos encontrados: " + topProdutos.size());
-        
-        // Se a lista estiver vazia, registrar isso também
-        if (topProdutos.isEmpty()) {
-            System.out.println("Nenhum produto vendido encontrado no banco de dados");
-        }
-        
-        // Atualizar lista
-        topProdutosList.clear();
-        topProdutosList.addAll(topProdutos);
-    }
-
-    /**
-     * Carrega os produtos com estoque baixo
-     */
-    private void carregarProdutosEstoqueBaixo() throws SQLException {
-        // Obter produtos com estoque abaixo do mínimo
-        List<Produto> produtosEstoqueBaixo = produtoDAO.findWithLowStock();
-        
-        // Atualizar lista
-        estoqueBaixoList.clear();
-        estoqueBaixoList.addAll(produtosEstoqueBaixo);
-    }
-
     /**
      * Armazena a referência à cena principal
      */
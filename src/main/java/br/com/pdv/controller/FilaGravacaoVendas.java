@@ -0,0 +1,51 @@
+package br.com.pdv.controller;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Grava as vendas finalizadas em segundo plano, para que o caixa possa iniciar a próxima
+ * venda sem esperar o banco de dados.
+ *
+ * A venda já está no diário local quando é enviada (ver ReplicadorVendas); aqui só se
+ * acompanha a gravação no banco. O número de vendas em gravação fica em
+ * {@link #pendentesProperty()}, para indicar o progresso na tela, e o resultado de cada
+ * venda é entregue na thread do JavaFX.
+ */
+final class FilaGravacaoVendas {
+
+    private final ReadOnlyIntegerWrapper pendentes = new ReadOnlyIntegerWrapper(this, "pendentes");
+
+    /**
+     * Acompanha a gravação de uma venda. Deve ser chamado na thread do JavaFX.
+     *
+     * @param gravacao O futuro da gravação no banco
+     * @param aoConcluir Recebe o resultado, na thread do JavaFX
+     * @param aoFalhar Recebe o erro da gravação, na thread do JavaFX
+     */
+    <T> void acompanhar(CompletableFuture<T> gravacao, Consumer<? super T> aoConcluir,
+            Consumer<Throwable> aoFalhar) {
+        pendentes.set(pendentes.get() + 1);
+        gravacao.whenComplete((resultado, erro) -> Platform.runLater(() -> {
+                    pendentes.set(pendentes.get() - 1);
+                    if (erro == null) {
+                        aoConcluir.accept(resultado);
+                    } else {
+                        aoFalhar.accept(erro instanceof CompletionException && erro.getCause() != null
+                                ? erro.getCause() : erro);
+                    }
+                }));
+    }
+
+    /**
+     * Número de vendas enviadas e ainda não concluídas
+     */
+    ReadOnlyIntegerProperty pendentesProperty() {
+        return pendentes.getReadOnlyProperty();
+    }
+}
@@ -1,15 +1,16 @@
 package br.com.pdv.controller;
 
 import br.com.pdv.dao.*;
-import br.com.pdv.exception.CpfCnpjDuplicadoException;
 import br.com.pdv.model.Pedido;
 import java.time.LocalDateTime;
 import br.com.pdv.model.Produto;
 import br.com.pdv.model.Usuario;
 import br.com.pdv.util.AlertUtil;
 import br.com.pdv.util.DatabaseConnection;
+import br.com.pdv.util.ExecutorDAO;
 import br.com.pdv.util.FormatUtil;
 import br.com.pdv.util.LogUtil;
+import br.com.pdv.util.StartupTimeline;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -35,6 +36,9 @@ import java.math.BigDecimal;
 import java.net.URL;
 import java.text.DecimalFormat;
 import java.util.ResourceBundle;
+import java.util.HashSet;
+import java.util.Set;
+import java.time.format.DateTimeFormatter;
 
 
 import javafx.collections.FXCollections;
@@ -103,6 +107,9 @@ public class MainController implements Initializable {
     @FXML
     private Button salvarButton;
     
+    @FXML
+    private Label gravacaoLabel;
+    
     
     @FXML
     private TableView<ItemPedido> pedidoTable;
@@ -137,6 +144,18 @@ public class MainController implements Initializable {
 
     // Pedido atual
     private Pedido pedidoAtual;
+    
+    // Último produto selecionado; o campo de produto mostra o nome dele
+    private Produto produtoSelecionado;
+    
+    // Vendas finalizadas sendo gravadas em segundo plano
+    private final FilaGravacaoVendas gravacaoVendas = new FilaGravacaoVendas();
+    
+    // Resultado da última gravação, exibido quando não há outra em andamento
+    private String ultimaGravacao;
+    
+    // Chaves das vendas cujo resultado a tela ainda aguarda
+    private final Set<String> vendasAguardando = new HashSet<>();
 
     // Método modificado initialize para configurar a tabela e o botão incluir
     
@@ -166,6 +185,21 @@ public class MainController implements Initializable {
         // Inicializar o pedido atual
         inicializarPedido();
         
+        // Mostrar o andamento das vendas gravadas em segundo plano
+        gravacaoVendas.pendentesProperty().addListener((obs, oldVal, newVal) -> atualizarStatusGravacao());
+        
+        // Avisar as vendas recusadas pelo banco depois que o caixa já seguiu em frente
+        try {
+            ReplicadorVendas.getInstance().adicionarOuvinteRejeicao(
+                rejeitada -> Platform.runLater(() -> avisarVendaRecusada(rejeitada)));
+        } catch (IllegalStateException e) {
+            LogUtil.error(MainController.class, "Erro ao abrir o diário de vendas", e);
+        }
+        if (gravacaoLabel != null) {
+            gravacaoLabel.setOnMouseClicked(event -> mostrarVendasRecusadas());
+        }
+        atualizarStatusGravacao();
+        
         // Configurar atalhos de teclado
         configurarAtalhosTeclado();
         
@@ -186,7 +220,7 @@ public class MainController implements Initializable {
         if (sellerComboBox.getItems().isEmpty()) {
             try {
                 UsuarioDAO usuarioDAO = UsuarioDAO.getInstance();
-                List<Usuario> vendedores = usuarioDAO.findByPerfil("VENDEDOR");
+                List<Usuario> vendedores = DiretorioVendedores.getInstance().getVendedores();
                 
                 if (vendedores.isEmpty()) {
                     // Não há vendedores cadastrados, criar um padrão para testes
@@ -319,67 +353,30 @@ public class MainController implements Initializable {
                 return;
             }
             
-            // Buscar o produto no banco de dados (em vez de criar um temporário)
-            Produto produto = null;
-            try {
-                ProdutoDAO produtoDAO = ProdutoDAO.getInstance();
-                
-                // Tentar buscar primeiro por nome exato
-                List<Produto> produtos = produtoDAO.findByNome(nomeProduto);
-                if (!produtos.isEmpty()) {
-                    produto = produtos.get(0);
-                } else {
-                    // Tentar buscar por código
-                    produto = produtoDAO.findByCodigo(nomeProduto);
-                }
-                
-                // Se não encontrou o produto
-                if (produto == null) {
-                    AlertUtil.showWarning("Produto não encontrado", 
-                        "O produto '" + nomeProduto + "' não foi encontrado no banco de dados.");
-                    return;
-                }
-            } catch (SQLException e) {
-                AlertUtil.showError("Erro ao buscar produto", 
-                    "Ocorreu um erro ao buscar o produto no banco de dados: " + e.getMessage());
+            // Produto já selecionado ou código lido no índice local, sem consultar o banco
+            Produto produto = produtoSelecionado != null && nomeProduto.trim().equals(produtoSelecionado.getNome())
+                    ? produtoSelecionado
+                    : IndiceProdutos.getInstance().buscarNoIndice(nomeProduto);
+            if (produto != null) {
+                incluirProdutoNoPedido(produto, quantidade, valorUnitario);
                 return;
             }
             
-            // Verificar se há estoque disponível
-            if (!verificarEstoqueDisponivel(produto, quantidade)) {
-                return; // Método vai mostrar mensagem adequada
-            }
-            
-            // Criar o item de pedido
-            ItemPedido item = new ItemPedido();
-            item.setProduto(produto);
-            item.setQuantidade(quantidade);
-            item.setValorUnitario(valorUnitario);
-            item.setValorTotal(valorUnitario.multiply(new BigDecimal(quantidade)));
-            
-            // Adicionar o item à lista de itens do pedido
-            itensPedido.add(item);
-            
-            // Adicionar à lista de itens do objeto pedido
-            if (pedidoAtual.getItens() == null) {
-                pedidoAtual.setItens(new ArrayList<>());
-            }
-            pedidoAtual.getItens().add(item);
-            
-            // Recalcular o valor total do pedido
-            recalcularValorTotalPedido();
-            
-            // Atualizar os totais exibidos
-            atualizarTotais();
-            
-            // Limpar os campos para o próximo item
-            productField.clear();
-            unitValueField.setText("0,00");
-            quantityField.setText("1");
-            totalValueField.setText("0,00");
-            
-            // Focar no campo de produto
-            productField.requestFocus();
+            // Buscar o produto no banco de dados (em vez de criar um temporário), fora da
+            // thread do JavaFX
+            ExecutorDAO.executarNaInterface("MainController.incluirItemPedido", () -> consultarProduto(nomeProduto),
+                encontrado -> {
+                    // Descarta o resultado se o campo mudou enquanto a consulta rodava
+                    if (!nomeProduto.equals(productField.getText())) {
+                        return;
+                    }
+                    if (encontrado == null) {
+                        AlertUtil.showWarning("Produto não encontrado", 
+                            "O produto '" + nomeProduto + "' não foi encontrado no banco de dados.");
+                        return;
+                    }
+                    incluirProdutoNoPedido(encontrado, quantidade, valorUnitario);
+                }, "Erro ao buscar produto");
             
         } catch (NumberFormatException e) {
             Alert alert = new Alert(Alert.AlertType.ERROR);
@@ -390,6 +387,49 @@ public class MainController implements Initializable {
         }
     }
     
+    /**
+     * Inclui o produto no pedido atual, se houver estoque, e limpa os campos para o
+     * próximo item
+     */
+    private void incluirProdutoNoPedido(Produto produto, int quantidade, BigDecimal valorUnitario) {
+        // Verificar se há estoque disponível
+        if (!verificarEstoqueDisponivel(produto, quantidade)) {
+            return; // Método vai mostrar mensagem adequada
+        }
+        
+        // Criar o item de pedido
+        ItemPedido item = new ItemPedido();
+        item.setProduto(produto);
+        item.setQuantidade(quantidade);
+        item.setValorUnitario(valorUnitario);
+        item.setValorTotal(valorUnitario.multiply(new BigDecimal(quantidade)));
+        
+        // Adicionar o item à lista de itens do pedido
+        itensPedido.add(item);
+        
+        // Adicionar à lista de itens do objeto pedido
+        if (pedidoAtual.getItens() == null) {
+            pedidoAtual.setItens(new ArrayList<>());
+        }
+        pedidoAtual.getItens().add(item);
+        
+        // Recalcular o valor total do pedido
+        recalcularValorTotalPedido();
+        
+        // Atualizar os totais exibidos
+        atualizarTotais();
+        
+        // Limpar os campos para o próximo item
+        produtoSelecionado = null;
+        productField.clear();
+        unitValueField.setText("0,00");
+        quantityField.setText("1");
+        totalValueField.setText("0,00");
+        
+        // Focar no campo de produto
+        productField.requestFocus();
+    }
+    
     
     /**
      * Busca um produto pelo código ou nome e preenche os campos
@@ -401,19 +441,23 @@ public class MainController implements Initializable {
             return; // Não fazer nada se o campo estiver vazio
         }
         
-        try {
-            ProdutoDAO produtoDAO = ProdutoDAO.getInstance();
-            Produto produto = null;
-            
-            // Tentar buscar primeiro por código exato
-            produto = produtoDAO.findByCodigo(codigoOuNome);
-            
-            // Se não encontrar por código, tentar por nome
-            if (produto == null) {
-                List<Produto> produtos = produtoDAO.findByNome(codigoOuNome);
-                if (!produtos.isEmpty()) {
-                    produto = produtos.get(0);
-                }
+        // O campo já mostra o produto selecionado
+        if (produtoSelecionado != null && codigoOuNome.equals(produtoSelecionado.getNome())) {
+            return;
+        }
+        
+        // Código ou código de barras no índice local: sem consulta ao banco
+        Produto doIndice = IndiceProdutos.getInstance().buscarNoIndice(codigoOuNome);
+        if (doIndice != null) {
+            selecionarProduto(doIndice);
+            return;
+        }
+        
+        // A consulta roda fora da thread do JavaFX; a interface segue respondendo
+        ExecutorDAO.executarNaInterface("MainController.buscarProdutoPorCodigo", () -> consultarProduto(codigoOuNome), produto -> {
+            // Descarta o resultado se o campo mudou enquanto a consulta rodava
+            if (!codigoOuNome.equals(productField.getText().trim())) {
+                return;
             }
             
             // Se encontrou o produto, preencher os campos
@@ -429,11 +473,21 @@ public class MainController implements Initializable {
                     abrirTelaProdutos();
                 }
             }
-            
-        } catch (SQLException e) {
-            AlertUtil.showError("Erro ao buscar produto", 
-                "Ocorreu um erro ao buscar o produto: " + e.getMessage());
+        }, "Erro ao buscar produto");
+    }
+    
+    /**
+     * Busca o produto no banco pelo código ou código de barras (que volta para o índice) e,
+     * se não encontrar, pelo nome; não deve ser chamado na thread do JavaFX
+     * @return O produto encontrado ou null
+     */
+    private static Produto consultarProduto(String codigoOuNome) throws SQLException {
+        Produto porCodigo = IndiceProdutos.getInstance().buscarPorCodigo(codigoOuNome);
+        if (porCodigo != null) {
+            return porCodigo;
         }
+        List<Produto> produtos = ProdutoDAO.getInstance().findByNome(codigoOuNome);
+        return produtos.isEmpty() ? null : produtos.get(0);
     }
     
     
@@ -470,204 +524,201 @@ public class MainController implements Initializable {
     
 
     /**
-     * Salva o pedido atual no banco de dados e dá baixa no estoque
-     * Implementa um mecanismo de retry para lidar com timeout de bloqueio
+     * Finaliza o pedido atual: registra a venda no diário local (ver DiarioVendas), que é
+     * gravado no disco na hora, e inicia imediatamente um novo pedido, para que o caixa
+     * continue atendendo mesmo com o banco lento ou fora do ar. O ReplicadorVendas grava
+     * cliente, vendedor, baixa de estoque, pedido e itens no banco em segundo plano; o andamento
+     * aparece abaixo dos botões e, se o banco recusar a venda, o pedido volta para a tela.
      */
     @FXML
     private void salvarPedido() {
-    	final int MAX_RETRIES = 3;
-        int tentativas = 0;
-        boolean sucesso = false;
+        // Validar o pedido (itens, cliente, vendedor)
+        if (!validarPedido()) {
+            return; // Se não for válido, o método de validação já mostra a mensagem apropriada
+        }
         
-        while (tentativas < MAX_RETRIES && !sucesso) {
-            Connection conn = null;
-            try {
-                tentativas++;
-                
-                // Validar o pedido (itens, cliente, vendedor)
-                if (!validarPedido()) {
-                    return; // Se não for válido, o método de validação já mostra a mensagem apropriada
-                }
-                
-                // Definir o vendedor selecionado
-                if (sellerComboBox.getSelectionModel().getSelectedItem() != null) {
-                    String nomeVendedor = sellerComboBox.getSelectionModel().getSelectedItem();
-                    
-                    // Buscar o usuário no banco de dados pelo nome
-                    try {
-                        UsuarioDAO usuarioDAO = UsuarioDAO.getInstance();
-                        Usuario vendedor = usuarioDAO.findByLogin(nomeVendedor);
-                        
-                        // Se não encontrou pelo login, tentar pelo nome
-                        if (vendedor == null) {
-                            vendedor = usuarioDAO.findByNome(nomeVendedor);
-                        }
-                        
-                        if (vendedor != null) {
-                            pedidoAtual.setUsuario(vendedor);
-                            // Adicionar o vendedor_id explicitamente - esta é a correção principal
-                            pedidoAtual.setVendedorId(vendedor.getId().longValue());
-                            pedidoAtual.setVendedor(vendedor); // Se o método setVendedor existe
-                            LogUtil.info(getClass(), "Vendedor associado ao pedido: " + vendedor.getNome() + ", ID: " + vendedor.getId());
-                        } else {
-                            // Não encontrou o vendedor - mostrar um erro
-                            AlertUtil.showError("Erro", "Vendedor '" + nomeVendedor + "' não encontrado no banco de dados");
-                            return; // Adicionado return para não continuar
-                        }
-                    } catch (SQLException e) {
-                        AlertUtil.showError("Erro ao buscar vendedor", 
-                            "Ocorreu um erro ao buscar o vendedor no banco de dados: " + e.getMessage());
-                        LogUtil.error(getClass(), "Erro ao buscar vendedor", e);
-                        return; // Adicionado return para não continuar
-                    }
-                } else {
-                    // Nenhum vendedor selecionado - mostrar um erro
-                    AlertUtil.showWarning("Vendedor Obrigatório", 
-                        "É necessário selecionar um vendedor para o pedido.");
-                    return; // Adicionado return para não continuar
-                }
-                
-                // Se não for a primeira tentativa, perguntar se o usuário quer tentar novamente
-                if (tentativas > 1) {
-                    boolean continuar = AlertUtil.showConfirmation(
-                        "Tentar novamente?", 
-                        "Ocorreu um erro ao salvar o pedido anteriormente. Deseja tentar novamente? (Tentativa " 
-                            + tentativas + " de " + MAX_RETRIES + ")");
-                    
-                    if (!continuar) {
-                        return;
-                    }
-                } else {
-                    // Primeira tentativa - Perguntar se o usuário confirma a venda
-                    boolean confirmado = AlertUtil.showConfirmation(
-                        "Confirmar Venda", 
-                        "Deseja finalizar a venda e dar baixa no estoque dos produtos?");
-                    
-                    if (!confirmado) {
-                        return;
-                    }
-                }
-                
-                // Iniciar transação
-                conn = DatabaseConnection.getInstance().getConnection();
-                conn.setAutoCommit(false);
-                
-                // Dar baixa no estoque dos produtos
-                boolean baixaRealizada = darBaixaEstoque(conn);
-                
-                if (!baixaRealizada) {
-                    // Reverter transação se a baixa de estoque falhar
-                    conn.rollback();
-                    return; // A mensagem de erro já foi exibida pelo método darBaixaEstoque
-                }
-                
-                // Atualizar data da venda para o momento atual
-                pedidoAtual.setDataPedido(LocalDateTime.now());
-                
-                // Configurar status como finalizado
-                pedidoAtual.setStatus("FINALIZADO");
-                
-                // Salvar o pedido e seus itens em uma única transação
-                PedidoDAO pedidoDAO = PedidoDAO.getInstance();
-                ItemPedidoDAO itemPedidoDAO = ItemPedidoDAO.getInstance();
-                
-                // Verificar se o vendedor_id está definido antes de salvar
-                if (pedidoAtual.getVendedorId() == null) {
-                    // Se o vendedor_id ainda não estiver definido, usar o ID do usuário como fallback
-                    if (pedidoAtual.getUsuario() != null && pedidoAtual.getUsuario().getId() != null) {
-                        pedidoAtual.setVendedorId(pedidoAtual.getUsuario().getId().longValue());
-                        LogUtil.info(getClass(), "Usando ID do usuário como vendedor_id: " + pedidoAtual.getVendedorId());
-                    } else {
-                        throw new SQLException("O ID do vendedor é obrigatório para criar um pedido");
-                    }
-                }
-                
-                // Salvar o pedido
-                Pedido pedidoSalvo = pedidoDAO.create(pedidoAtual, conn);
-                
-                // Salvar os itens do pedido
-                for (ItemPedido item : pedidoAtual.getItens()) {
-                    item.setPedido(pedidoSalvo);
-                    itemPedidoDAO.create(item, conn);
-                }
-                
-                // Commit da transação
-                conn.commit();
-                
-                // Operação concluída com sucesso
-                sucesso = true;
-                
-                // Mostrar mensagem de sucesso
-                Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                alert.setTitle("Sucesso");
-                alert.setHeaderText("Pedido Salvo");
-                alert.setContentText("O pedido foi salvo com sucesso e o estoque foi atualizado.");
-                alert.showAndWait();
-                
-                // Limpar o pedido atual e iniciar um novo
-                inicializarPedido();
-                
-            } catch (SQLException e) {
-                // Tentar reverter a transação
-                if (conn != null) {
-                    try {
-                        conn.rollback();
-                    } catch (SQLException ex) {
-                        LogUtil.error(MainController.class, "Erro ao reverter transação", ex);
-                    }
+        String nomeVendedor = sellerComboBox.getSelectionModel().getSelectedItem();
+        
+        // Perguntar se o usuário confirma a venda
+        boolean confirmado = AlertUtil.showConfirmation(
+            "Confirmar Venda", 
+            "Deseja finalizar a venda e dar baixa no estoque dos produtos?\n\n"
+            + "Cliente: " + pedidoAtual.getCliente().getNome()
+            + (pedidoAtual.getCliente().getId() == null ? " (será cadastrado se ainda não existir)" : ""));
+        
+        if (!confirmado) {
+            return;
+        }
+        
+        Pedido pedido = pedidoAtual;
+        List<ItemPedido> itensDaTela = new ArrayList<>(itensPedido);
+        
+        ReplicadorVendas.Envio envio;
+        try {
+            envio = ReplicadorVendas.getInstance().registrar(pedido, nomeVendedor);
+        } catch (IOException | IllegalStateException e) {
+            // Nada foi registrado: o pedido continua na tela
+            LogUtil.error(MainController.class, "Erro ao registrar venda no diário local", e);
+            AlertUtil.showError("Erro ao Salvar Pedido", 
+                "Não foi possível registrar a venda neste terminal: " + e.getMessage());
+            return;
+        }
+        
+        vendasAguardando.add(envio.chave());
+        gravacaoVendas.acompanhar(envio.resultado(), pedidoId -> {
+            vendasAguardando.remove(envio.chave());
+            StartupTimeline.marcar("primeira venda concluída");
+            LogUtil.info(MainController.class, "Pedido gravado: ID " + pedidoId);
+            ultimaGravacao = "Pedido nº " + pedidoId + " gravado e estoque atualizado";
+            atualizarStatusGravacao();
+        }, causa -> {
+            vendasAguardando.remove(envio.chave());
+            if (!ReplicadorVendas.isAdiada(causa)) {
+                // Recusada pelo banco: nada foi gravado. De volta à tela, o caixa pode gravar
+                // de novo e a rejeição está conferida; senão, fica entre as vendas recusadas.
+                ultimaGravacao = null;
+                if (devolverPedidoParaTela(pedido, itensDaTela, nomeVendedor)) {
+                    marcarVendaConferida(envio.chave());
                 }
-                
-                // Verificar se é o erro de timeout de bloqueio
-                if (e.getMessage().contains("Lock wait timeout exceeded") && tentativas < MAX_RETRIES) {
-                    // Erro de timeout - será tratado na próxima iteração
-                    LogUtil.info(MainController.class, "Erro de timeout de bloqueio - tentativa " + tentativas + " de " + MAX_RETRIES);
-                    
-                    // Aguardar um pouco antes da próxima tentativa (tempo crescente entre tentativas)
-                    try {
-                        Thread.sleep(1000 * tentativas);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                    }
-                    
-                    // Continuar para a próxima tentativa
-                    continue;
+                atualizarStatusGravacao();
+                if (causa instanceof IllegalStateException) {
+                    // Produto inexistente ou estoque insuficiente
+                    AlertUtil.showWarning("Estoque Insuficiente", causa.getMessage());
                 } else {
-                    // Outro tipo de erro SQL - mostrar mensagem
-                    AlertUtil.showError("Erro ao Salvar Pedido", 
-                        "Ocorreu um erro ao salvar o pedido no banco de dados: " + e.getMessage());
-                    e.printStackTrace();
-                    return;
-                }
-            } catch (Exception e) {
-                // Erro inesperado
-                Alert alert = new Alert(Alert.AlertType.ERROR);
-                alert.setTitle("Erro ao Salvar");
-                alert.setHeaderText("Erro ao salvar o pedido");
-                alert.setContentText("Ocorreu um erro ao tentar salvar o pedido: " + e.getMessage());
-                alert.showAndWait();
-                e.printStackTrace();
-                return;
-            } finally {
-                // Garantir que a conexão seja sempre devolvida ao pool
-                if (conn != null) {
-                    try {
-                        // Restaurar autocommit para seu estado padrão
-                        conn.setAutoCommit(true);
-                        // Devolver a conexão ao pool
-                        DatabaseConnection.getInstance().releaseConnection(conn);
-                    } catch (SQLException ex) {
-                        LogUtil.error(MainController.class, "Erro ao liberar conexão", ex);
-                    }
+                    AlertUtil.showError("Erro", ExecutorDAO.mensagem(causa));
                 }
+            } else {
+                // Banco indisponível: a venda está no diário e será reenviada automaticamente
+                LogUtil.warn(MainController.class, "Venda mantida no diário local: " + causa.getMessage());
+                ultimaGravacao = "Venda guardada neste terminal; será enviada ao banco automaticamente";
+                atualizarStatusGravacao();
             }
+        });
+        
+        // O caixa já pode registrar o próximo cliente
+        inicializarPedido();
+        productField.requestFocus();
+    }
+    
+    /**
+     * Devolve para a tela um pedido cuja gravação falhou, para que o caixa possa corrigir e
+     * salvar de novo. Se já houver outro pedido em andamento, pergunta antes de substituí-lo.
+     * 
+     * @return true se o pedido voltou para a tela
+     */
+    private boolean devolverPedidoParaTela(Pedido pedido, List<ItemPedido> itens, String nomeVendedor) {
+        if (!itensPedido.isEmpty() && !AlertUtil.showConfirmation("Pedido não gravado",
+                "O pedido de " + (pedido.getCliente() != null ? pedido.getCliente().getNome() : "cliente não informado")
+                + " não foi gravado. Deseja voltar para ele? O pedido em andamento será descartado.")) {
+            LogUtil.warn(MainController.class, "Pedido não gravado descartado pelo usuário: " + pedido);
+            return false;
         }
         
-        // Se chegou aqui sem sucesso após todas as tentativas
-        if (!sucesso && tentativas >= MAX_RETRIES) {
-            AlertUtil.showError("Erro ao Salvar Pedido", 
-                "Não foi possível salvar o pedido após " + MAX_RETRIES + " tentativas. " +
-                "O sistema está ocupado ou há um problema de conexão com o banco de dados.");
+        pedidoAtual = pedido;
+        itensPedido.setAll(itens);
+        clientField.setText(pedido.getCliente() != null ? pedido.getCliente().getNome() : "");
+        sellerComboBox.getSelectionModel().select(nomeVendedor);
+        atualizarTotais();
+        return true;
+    }
+    
+    /**
+     * Avisa uma venda recusada pelo banco. As vendas que a tela ainda aguarda já são
+     * tratadas em salvarPedido; as demais (reenviadas depois de uma falha do banco ou de um
+     * reinício) ganham um alerta.
+     */
+    private void avisarVendaRecusada(DiarioVendas.Rejeitada rejeitada) {
+        atualizarStatusGravacao();
+        if (vendasAguardando.contains(rejeitada.entrada().chave())) {
+            return;
+        }
+        AlertUtil.showWarning("Venda Recusada pelo Banco",
+            "Uma venda guardada neste terminal não pôde ser gravada e precisa ser refeita:\n\n"
+            + descreverVendaRecusada(rejeitada)
+            + "\n\nClique no aviso abaixo dos botões para conferir as vendas recusadas.");
+    }
+    
+    /**
+     * Lista as vendas recusadas pelo banco e permite marcá-las como conferidas
+     */
+    private void mostrarVendasRecusadas() {
+        List<DiarioVendas.Rejeitada> rejeitadas;
+        try {
+            rejeitadas = ReplicadorVendas.getInstance().getRejeitadas();
+        } catch (IllegalStateException e) {
+            return;
+        }
+        if (rejeitadas.isEmpty()) {
+            return;
+        }
+        
+        StringBuilder texto = new StringBuilder();
+        for (DiarioVendas.Rejeitada rejeitada : rejeitadas) {
+            texto.append(descreverVendaRecusada(rejeitada)).append("\n\n");
+        }
+        texto.append("Marcar estas vendas como conferidas?");
+        if (AlertUtil.showConfirmation("Vendas Recusadas pelo Banco", texto.toString())) {
+            for (DiarioVendas.Rejeitada rejeitada : rejeitadas) {
+                marcarVendaConferida(rejeitada.entrada().chave());
+            }
+            atualizarStatusGravacao();
+        }
+    }
+    
+    private void marcarVendaConferida(String chave) {
+        try {
+            ReplicadorVendas.getInstance().marcarConferida(chave);
+        } catch (IOException | IllegalStateException e) {
+            LogUtil.error(MainController.class, "Erro ao marcar venda recusada como conferida", e);
+            AlertUtil.showError("Erro", "Não foi possível atualizar o diário de vendas: " + e.getMessage());
+        }
+    }
+    
+    private String descreverVendaRecusada(DiarioVendas.Rejeitada rejeitada) {
+        DiarioVendas.Entrada entrada = rejeitada.entrada();
+        StringBuilder sb = new StringBuilder();
+        sb.append(entrada.dataVenda().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")))
+          .append(" - vendedor ").append(entrada.nomeVendedor())
+          .append(" - total ").append(FormatUtil.formatarMoeda(entrada.valorTotal()));
+        for (DiarioVendas.Entrada.Item item : entrada.itens()) {
+            sb.append("\n  ").append(item.quantidade()).append(" x ").append(item.nomeProduto());
+        }
+        sb.append("\nMotivo: ").append(rejeitada.motivo());
+        return sb.toString();
+    }
+    
+    /**
+     * Quantidade de vendas recusadas pelo banco ainda não conferidas
+     */
+    private int contarVendasRecusadas() {
+        try {
+            return ReplicadorVendas.getInstance().contarRejeitadas();
+        } catch (IllegalStateException e) {
+            return 0;
+        }
+    }
+    
+    /**
+     * Mostra abaixo dos botões quantas vendas estão sendo gravadas ou o resultado da última,
+     * e quantas foram recusadas pelo banco e ainda não foram conferidas
+     */
+    private void atualizarStatusGravacao() {
+        if (gravacaoLabel == null) {
+            return;
+        }
+        int pendentes = gravacaoVendas.pendentesProperty().get();
+        String texto = pendentes > 0
+                ? "Gravando " + pendentes + (pendentes == 1 ? " venda..." : " vendas...")
+                : ultimaGravacao;
+        int recusadas = contarVendasRecusadas();
+        if (recusadas > 0) {
+            String aviso = recusadas + (recusadas == 1 ? " venda recusada" : " vendas recusadas")
+                    + " pelo banco - clique para conferir";
+            texto = texto != null ? texto + " | " + aviso : aviso;
         }
+        gravacaoLabel.setText(texto);
+        gravacaoLabel.setVisible(texto != null);
+        gravacaoLabel.setManaged(texto != null);
     }
    
     
@@ -939,6 +990,7 @@ public class MainController implements Initializable {
      */
     public void selecionarProduto(Produto produto) {
         if (produto != null) {
+            produtoSelecionado = produto;
             productField.setText(produto.getNome());
             
             // Usar o DecimalFormat para formatar o valor como moeda
@@ -1469,121 +1521,8 @@ public class MainController implements Initializable {
     }
 
     
-    /**
-     * Dá baixa no estoque dos produtos incluídos no pedido atual
-     * 
-     * @param conn Conexão com o banco de dados a ser usada
-     * @return true se a baixa foi realizada com sucesso, false caso contrário
-     */
-    private boolean darBaixaEstoque(Connection conn) {
-        try {
-            ProdutoDAO produtoDAO = ProdutoDAO.getInstance();
-            
-            // Verificar novamente o estoque antes de confirmar a baixa
-            for (ItemPedido item : itensPedido) {
-                Produto produtoAtual = produtoDAO.findById(item.getProduto().getId(), conn);
-                
-                if (produtoAtual == null) {
-                    AlertUtil.showError("Erro ao Dar Baixa", 
-                        "Produto ID " + item.getProduto().getId() + " não encontrado no banco de dados.");
-                    return false;
-                }
-                
-                if (produtoAtual.getEstoqueAtual() < item.getQuantidade()) {
-                    AlertUtil.showWarning("Estoque Insuficiente", 
-                        "Estoque insuficiente para o produto '" + produtoAtual.getNome() + "'.\n" +
-                        "Estoque atual: " + produtoAtual.getEstoqueAtual() + "\n" +
-                        "Quantidade no pedido: " + item.getQuantidade() + "\n\n" +
-                        "O estoque pode ter sido alterado por outro usuário.");
-                    return false;
-                }
-                
-                // Atualizar o estoque do produto
-                produtoAtual.setEstoqueAtual(produtoAtual.getEstoqueAtual() - item.getQuantidade());
-                produtoDAO.update(produtoAtual, conn);
-                
-                LogUtil.info(MainController.class, "Baixa de estoque realizada: Produto = " + produtoAtual.getNome() + 
-                              ", Quantidade = " + item.getQuantidade() + 
-                              ", Novo estoque = " + produtoAtual.getEstoqueAtual());
-            }
-            
-            return true;
-        } catch (SQLException e) {
-            AlertUtil.showError("Erro ao Dar Baixa no Estoque", 
-                "Ocorreu um erro ao atualizar o estoque: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        } catch (Exception e) {
-            AlertUtil.showError("Erro Inesperado", 
-                "Ocorreu um erro inesperado ao dar baixa no estoque: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
-    }
-    
     
     
-    /**
-     * Inclui um cliente ao pedido atual com base no nome
-     * 
-     * @param nomeCliente Nome do cliente a ser associado ao pedido
-     * @return true se o cliente foi associado com sucesso, false caso contrário
-     */
-    private boolean associarClienteAoPedido(String nomeCliente) {
-        if (nomeCliente == null || nomeCliente.trim().isEmpty()) {
-            AlertUtil.showWarning("Cliente Obrigatório", 
-                "É necessário informar um cliente para o pedido.");
-            return false;
-        }
-        
-        try {
-            ClienteDAO clienteDAO = ClienteDAO.getInstance();
-            
-            // Buscar o cliente pelo nome
-            Cliente cliente = clienteDAO.findByNome(nomeCliente);
-            
-            // Se encontrou o cliente
-            if (cliente != null) {
-                pedidoAtual.setCliente(cliente);
-                return true;
-            }
-            
-            // Se não encontrou, perguntar se deseja criar um novo cliente
-            boolean criarCliente = AlertUtil.showConfirmation(
-                "Cliente não encontrado", 
-                "O cliente '" + nomeCliente + "' não foi encontrado. Deseja cadastrar um novo cliente?");
-            
-            if (criarCliente) {
-                // Criar um novo cliente
-                Cliente novoCliente = new Cliente();
-                novoCliente.setNome(nomeCliente);
-                novoCliente.setAtivo(true);
-                novoCliente.setData(LocalDateTime.now());
-                
-                try {
-                    // Salvar o novo cliente no banco de dados
-                    Cliente clienteCriado = clienteDAO.create(novoCliente);
-                    
-                    // Associar ao pedido
-                    pedidoAtual.setCliente(clienteCriado);
-                    return true;
-                } catch (CpfCnpjDuplicadoException e) {
-                    // Tratamento específico para CPF/CNPJ duplicado
-                    AlertUtil.showWarning("CPF/CNPJ Duplicado", 
-                        "Não foi possível criar o cliente pois já existe um cliente com este CPF/CNPJ.");
-                    return false;
-                }
-            } else {
-                return false;
-            }
-            
-        } catch (SQLException e) {
-            AlertUtil.showError("Erro ao Buscar Cliente", 
-                "Ocorreu um erro ao buscar o cliente no banco de dados: " + e.getMessage());
-            return false;
-        }
-    }
-
     /**
      * Verifica se o pedido está pronto para ser salvo
      * 
@@ -1597,12 +1536,18 @@ public class MainController implements Initializable {
             return false;
         }
         
-        // Verificar se tem cliente associado
-        if (pedidoAtual.getCliente() == null) {
-            String nomeCliente = clientField.getText().trim();
-            if (!associarClienteAoPedido(nomeCliente)) {
-                return false;
-            }
+        // Verificar se o cliente foi informado. Ele é localizado pelo nome (ou cadastrado)
+        // quando a venda é gravada no banco, para que o registro da venda não dependa do banco.
+        String nomeCliente = clientField.getText().trim();
+        if (nomeCliente.isEmpty()) {
+            AlertUtil.showWarning("Cliente Obrigatório", 
+                "É necessário informar um cliente para o pedido.");
+            return false;
+        }
+        if (pedidoAtual.getCliente() == null || !nomeCliente.equals(pedidoAtual.getCliente().getNome())) {
+            Cliente cliente = new Cliente();
+            cliente.setNome(nomeCliente);
+            pedidoAtual.setCliente(cliente);
         }
         
         // Verificar se tem vendedor selecionado
@@ -498,8 +498,8 @@ public class NovoProdutoController implements Initializable {
 	        if (modoEdicao && produtoAtual.getId() != null) {
 	            System.out.println("Atualizando produto com ID: " + produtoAtual.getId());
 	            
-	            // Usar o método update com Connection que aceita valores nulos corretamente
-	            produtoDAO.update(produtoAtual, produtoDAO.getConnection());
+	            // O update trata marca, categoria e subcategoria nulas
+	            produtoDAO.update(produtoAtual);
 	            
 	            AlertUtil.showInfo("Sucesso", "Produto atualizado com sucesso!");
 	        } else {
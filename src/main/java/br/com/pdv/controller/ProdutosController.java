@@ -7,11 +7,14 @@ import br.com.pdv.dao.SubcategoriaDAO;
 import br.com.pdv.model.Categoria;
 import br.com.pdv.model.Marca;
 import br.com.pdv.model.Produto;
+import br.com.pdv.model.ProdutoResumo;
 import br.com.pdv.model.Subcategoria;
 import br.com.pdv.util.AlertUtil;
+import br.com.pdv.util.ExecutorDAO;
 import br.com.pdv.util.FormatUtil;
 
 import javafx.application.Platform;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -23,7 +26,6 @@ import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Modality;
@@ -39,6 +41,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.function.Consumer;
 
 /**
  * Controlador para a visualização de produtos.
@@ -59,37 +62,37 @@ public class ProdutosController implements Initializable {
     private Button backButton;
     
     @FXML
-    private TableView<Produto> productsTable;
+    private TableView<ProdutoResumo> productsTable;
     
     @FXML
-    private TableColumn<Produto, Integer> idColumn;
+    private TableColumn<ProdutoResumo, Integer> idColumn;
     
     @FXML
-    private TableColumn<Produto, String> nameColumn;
+    private TableColumn<ProdutoResumo, String> nameColumn;
     
     @FXML
-    private TableColumn<Produto, String> colorColumn;
+    private TableColumn<ProdutoResumo, String> colorColumn;
     
     @FXML
-    private TableColumn<Produto, String> sizeColumn;
+    private TableColumn<ProdutoResumo, String> sizeColumn;
     
     @FXML
-    private TableColumn<Produto, String> priceColumn;
+    private TableColumn<ProdutoResumo, String> priceColumn;
     
     @FXML
-    private TableColumn<Produto, String> stockColumn;
+    private TableColumn<ProdutoResumo, String> stockColumn;
     
     @FXML
-    private TableColumn<Produto, String> inputColumn;
+    private TableColumn<ProdutoResumo, String> inputColumn;
     
     @FXML
-    private TableColumn<Produto, Void> actionsColumn;
+    private TableColumn<ProdutoResumo, Void> actionsColumn;
     
     @FXML
-    private TableColumn<Produto, String> vencimentoColumn;
+    private TableColumn<ProdutoResumo, String> vencimentoColumn;
     
     @FXML
-    private TableColumn<Produto, String> alertaColumn;
+    private TableColumn<ProdutoResumo, String> alertaColumn;
     
     @FXML
     private Label totalProductsLabel;
@@ -134,7 +137,8 @@ public class ProdutosController implements Initializable {
     private SubcategoriaDAO subcategoriaDAO;
     
     // Lista para a tabela
-    private ObservableList<Produto> produtos;
+    private ObservableList<ProdutoResumo> produtos;
+    private CarregamentoPaginado<ProdutoResumo> carregamento;
     
     // Estado atual
     private boolean editMode = false;
@@ -178,16 +182,20 @@ public class ProdutosController implements Initializable {
         
         produtos = FXCollections.observableArrayList();
         productsTable.setItems(produtos);
+        carregamento = new CarregamentoPaginado<>(productsTable, produtos, () -> {
+            atualizarContadorProdutos();
+            productsTable.refresh();
+        });
     }
     
     /**
      * Configura as colunas da tabela
      */
     private void configurarColunas() {
-        idColumn.setCellValueFactory(new PropertyValueFactory<>("id"));
-        nameColumn.setCellValueFactory(new PropertyValueFactory<>("nome"));
-        colorColumn.setCellValueFactory(new PropertyValueFactory<>("cor"));
-        sizeColumn.setCellValueFactory(new PropertyValueFactory<>("tamanho"));
+        idColumn.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().id()));
+        nameColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().nome()));
+        colorColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().cor()));
+        sizeColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().tamanho()));
         
         configurarColunaPreco();
         configurarColunaEstoque();
@@ -219,10 +227,39 @@ public class ProdutosController implements Initializable {
         System.out.println("  - Diretório /views/: " + (diretorioUrl != null ? "ENCONTRADO" : "NÃO ENCONTRADO"));
     }
     
+    /**
+     * Carrega o produto completo a partir do resumo exibido na tabela, fora da thread do
+     * JavaFX, e o entrega na thread do JavaFX. Se o produto não existe mais ou houve erro,
+     * o usuário é avisado e aoCarregar não é chamado.
+     * 
+     * @param resumo O resumo selecionado
+     * @param aoCarregar Recebe o produto, na thread do JavaFX
+     */
+    private void carregarProduto(ProdutoResumo resumo, Consumer<Produto> aoCarregar) {
+        ExecutorDAO.executarNaInterface("ProdutosController.carregarProduto", () -> produtoDAO.findById(resumo.id()),
+            produto -> {
+                if (produto == null) {
+                    AlertUtil.showWarning("Produto não encontrado", "O produto '" + resumo.nome() + "' não existe mais.");
+                    carregarProdutos();
+                    return;
+                }
+                aoCarregar.accept(produto);
+            }, "Erro ao carregar produto");
+    }
+    
     /**
      * Abre a tela de edição de produto quando o botão de ações é clicado
      * 
-     * @param produto O produto selecionado para edição
+     * @param resumo O produto selecionado para edição
+     */
+    private void abrirTelaEdicaoProduto(ProdutoResumo resumo) {
+        carregarProduto(resumo, this::abrirTelaEdicaoProduto);
+    }
+    
+    /**
+     * Abre a tela de edição com o produto completo
+     * 
+     * @param produto O produto a editar
      */
     private void abrirTelaEdicaoProduto(Produto produto) {
         System.out.println("Abrindo tela externa para edição do produto: " + produto.getNome());
@@ -267,7 +304,7 @@ public class ProdutosController implements Initializable {
      */
     private void configurarColunaAcoes() {
         actionsColumn.setCellFactory(col -> {
-            TableCell<Produto, Void> cell = new TableCell<Produto, Void>() {
+            TableCell<ProdutoResumo, Void> cell = new TableCell<ProdutoResumo, Void>() {
                 private final Button editBtn = new Button("✏️");
                 
                 {
@@ -276,10 +313,10 @@ public class ProdutosController implements Initializable {
                     editBtn.setOnAction(event -> {
                         // Verificar se a célula não está vazia e tem um índice válido
                         if (getIndex() >= 0 && getIndex() < getTableView().getItems().size()) {
-                            Produto produto = getTableView().getItems().get(getIndex());
+                            ProdutoResumo produto = getTableView().getItems().get(getIndex());
                             // Garantir que o produto não seja nulo antes de chamar o método
                             if (produto != null) {
-                                System.out.println("Botão de edição clicado para produto: " + produto.getNome());
+                                System.out.println("Botão de edição clicado para produto: " + produto.nome());
                                 abrirTelaEdicaoProduto(produto);
                             }
                         }
@@ -320,7 +357,7 @@ public class ProdutosController implements Initializable {
      */
     private void configurarColunaPreco() {
         priceColumn.setCellValueFactory(cellData -> {
-            BigDecimal preco = cellData.getValue().getPreco();
+            BigDecimal preco = cellData.getValue().preco();
             return new SimpleStringProperty("R$ " + FormatUtil.formatarValor(preco));
         });
     }
@@ -330,7 +367,7 @@ public class ProdutosController implements Initializable {
      */
     private void configurarColunaEstoque() {
         stockColumn.setCellValueFactory(cellData -> {
-            Integer estoque = cellData.getValue().getEstoqueAtual();
+            int estoque = cellData.getValue().estoqueAtual();
             String texto = (estoque <= 0) ? "0 - UN" : estoque + " - UN";
             return new SimpleStringProperty(texto);
         });
@@ -341,7 +378,7 @@ public class ProdutosController implements Initializable {
      */
     private void configurarColunaVencimento() {
         vencimentoColumn.setCellValueFactory(cellData -> {
-            LocalDate dataVencimento = cellData.getValue().getDataVencimento();
+            LocalDate dataVencimento = cellData.getValue().dataVencimento();
             if (dataVencimento == null) {
                 return new SimpleStringProperty("N/A");
             }
@@ -371,7 +408,7 @@ public class ProdutosController implements Initializable {
      */
     private void configurarColunaAlerta() {
         alertaColumn.setCellValueFactory(cellData -> {
-            LocalDate dataVencimento = cellData.getValue().getDataVencimento();
+            LocalDate dataVencimento = cellData.getValue().dataVencimento();
             if (dataVencimento == null) {
                 return new SimpleStringProperty("");
             }
@@ -395,7 +432,7 @@ public class ProdutosController implements Initializable {
     private void configurarColunaEntrada() {
         inputColumn.setCellValueFactory(cellData -> new SimpleStringProperty("+"));
         inputColumn.setCellFactory(col -> {
-            TableCell<Produto, String> cell = new TableCell<Produto, String>() {
+            TableCell<ProdutoResumo, String> cell = new TableCell<ProdutoResumo, String>() {
                 final Button btn = new Button("+");
                 
                 @Override
@@ -405,10 +442,8 @@ public class ProdutosController implements Initializable {
                         setGraphic(null);
                     } else {
                         btn.setStyle("-fx-background-color: #3498db; -fx-text-fill: white;");
-                        btn.setOnAction(event -> {
-                            Produto produto = getTableView().getItems().get(getIndex());
-                            adicionarEstoque(produto);
-                        });
+                        btn.setOnAction(event -> carregarProduto(getTableView().getItems().get(getIndex()),
+                                produto -> adicionarEstoque(produto)));
                         setGraphic(btn);
                     }
                 }
@@ -440,13 +475,13 @@ public class ProdutosController implements Initializable {
     /**
      * Aplica o estilo apropriado à linha com base nas condições do produto
      */
-    private void aplicarEstiloProduto(TableRow<Produto> row, Produto produto) {
+    private void aplicarEstiloProduto(TableRow<ProdutoResumo> row, ProdutoResumo produto) {
         // Verificar estoque
-        int estoque = produto.getEstoqueAtual();
-        int estoqueMinimo = produto.getEstoqueMinimo();
+        int estoque = produto.estoqueAtual();
+        int estoqueMinimo = produto.estoqueMinimo();
         
         // Verificar data de vencimento
-        LocalDate dataVencimento = produto.getDataVencimento();
+        LocalDate dataVencimento = produto.dataVencimento();
         LocalDate hoje = LocalDate.now();
         
         // Aplicar estilos de acordo com as condições (prioridade: vencimento > estoque)
@@ -491,9 +526,9 @@ public class ProdutosController implements Initializable {
 
     private void configurarEstilosLinhas() {
         productsTable.setRowFactory(tv -> {
-            TableRow<Produto> row = new TableRow<Produto>() {
+            TableRow<ProdutoResumo> row = new TableRow<ProdutoResumo>() {
                 @Override
-                protected void updateItem(Produto produto, boolean empty) {
+                protected void updateItem(ProdutoResumo produto, boolean empty) {
                     super.updateItem(produto, empty);
                     if (produto == null || empty) {
                         setStyle("");
@@ -506,7 +541,7 @@ public class ProdutosController implements Initializable {
             // Adicionar o evento de duplo clique aqui
             row.setOnMouseClicked(event -> {
                 if (event.getClickCount() == 2 && !row.isEmpty()) {
-                    editarProduto(row.getItem());
+                    carregarProduto(row.getItem(), produto -> editarProduto(produto));
                 }
             });
             
@@ -515,33 +550,19 @@ public class ProdutosController implements Initializable {
     }
     
     /**
-     * Carrega os produtos do banco de dados
+     * Carrega os produtos do banco de dados, uma página por vez conforme a tabela é rolada
      */
     private void carregarProdutos() {
-        try {
-            // Limpar a lista existente
-            produtos.clear();
-            
-            // Carregar produtos ativos do banco
-            List<Produto> lista = produtoDAO.findAll();
-            produtos.addAll(lista);
-            
-            // Atualizar o contador de produtos
-            atualizarContadorProdutos();
-            
-            // Garantir que a tabela seja atualizada na thread da UI
-            Platform.runLater(() -> productsTable.refresh());
-            
-        } catch (SQLException e) {
-            AlertUtil.showError("Erro ao carregar produtos", e.getMessage());
-        }
+        carregamento.iniciar(produtoDAO::findResumosAfter);
+        atualizarContadorProdutos();
     }
     
     /**
      * Atualiza o contador de produtos no rodapé
      */
     private void atualizarContadorProdutos() {
-        totalProductsLabel.setText("Total de produtos: " + produtos.size());
+        // "+" indica que há mais produtos a carregar ao rolar a tabela
+        totalProductsLabel.setText("Total de produtos: " + produtos.size() + (carregamento.isTemMais() ? "+" : ""));
     }
     
     /**
@@ -550,42 +571,42 @@ public class ProdutosController implements Initializable {
     private void buscarProdutos() {
         String termo = searchField.getText().trim();
         
-        try {
-            // Limpar a lista atual
-            produtos.clear();
-            
-            List<Produto> resultados;
-            
-            // Se o termo estiver vazio, carregar todos os produtos
-            if (termo.isEmpty()) {
-                resultados = produtoDAO.findAll();
-            } else {
-                // Verifica se é um número (possível código) ou texto (possível nome)
-                if (termo.matches("\\d+")) {
-                    Produto produto = produtoDAO.findById(Integer.parseInt(termo));
-                    resultados = produto != null ? List.of(produto) : new ArrayList<>();
-                } else {
-                    // Pode ser um código não numérico
-                    Produto produtoPorCodigo = produtoDAO.findByCodigo(termo);
-                    if (produtoPorCodigo != null) {
-                        resultados = List.of(produtoPorCodigo);
-                    } else {
-                        resultados = produtoDAO.findByNome(termo);
-                    }
-                }
+        // Se o termo estiver vazio, voltar à listagem paginada de todos os produtos
+        if (termo.isEmpty()) {
+            carregarProdutos();
+            return;
+        }
+        
+        // O resultado da pesquisa é exibido por inteiro
+        carregamento.parar();
+        
+        // A consulta roda fora da thread do JavaFX
+        ExecutorDAO.executarNaInterface("ProdutosController.buscarProdutos", () -> {
+            // Verifica se é um número (possível código) ou texto (possível nome)
+            if (termo.matches("\\d+")) {
+                Produto produto = produtoDAO.findById(Integer.parseInt(termo));
+                return produto != null ? List.of(ProdutoResumo.de(produto)) : new ArrayList<ProdutoResumo>();
+            }
+            // Pode ser um código não numérico
+            Produto produtoPorCodigo = produtoDAO.findByCodigo(termo);
+            if (produtoPorCodigo != null) {
+                return List.of(ProdutoResumo.de(produtoPorCodigo));
+            }
+            return produtoDAO.findResumosByNome(termo);
+        }, resultados -> {
+            // Descarta o resultado se o termo mudou enquanto a consulta rodava
+            if (!termo.equals(searchField.getText().trim())) {
+                return;
             }
             
-            produtos.addAll(resultados);
+            // Substituir a lista atual
+            produtos.setAll(resultados);
             
             // Atualizar o contador
             atualizarContadorProdutos();
             
-            // Garantir que a tabela seja atualizada na thread da UI
-            Platform.runLater(() -> productsTable.refresh());
-            
-        } catch (SQLException e) {
-            AlertUtil.showError("Erro na pesquisa", "Erro ao pesquisar produtos: " + e.getMessage());
-        }
+            productsTable.refresh();
+        }, "Erro na pesquisa");
     }
     
     /**
@@ -6,6 +6,7 @@ import br.com.pdv.model.Usuario;
 import br.com.pdv.model.Venda;
 import br.com.pdv.util.DatabaseConnection;
 import br.com.pdv.util.LogUtil;
+import br.com.pdv.util.RetryPolicy;
 
 import java.math.BigDecimal;
 import java.sql.Connection;
@@ -81,6 +82,19 @@ public class CaixaDAO {
         LogUtil.info(CaixaDAO.class, String.format("[%s] Iniciando criação de caixa para o operador ID: %d", 
                 transactionId, caixa.getOperador().getId()));
         
+        try {
+            return RetryPolicy.PADRAO.executar("CaixaDAO.create", () -> inserir(caixa, transactionId));
+        } catch (SQLException e) {
+            String errorMsg = String.format("[%s] Erro ao criar caixa: %s", transactionId, e.getMessage());
+            LogUtil.error(CaixaDAO.class, errorMsg, e);
+            throw new SQLException(errorMsg, e);
+        }
+    }
+    
+    /**
+     * Uma tentativa de inserção do caixa
+     */
+    private Caixa inserir(Caixa caixa, UUID transactionId) throws SQLException {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -126,10 +140,6 @@ public class CaixaDAO {
             } else {
                 throw new SQLException("Falha ao criar caixa, nenhum ID gerado");
             }
-        } catch (SQLException e) {
-            String errorMsg = String.format("[%s] Erro ao criar caixa: %s", transactionId, e.getMessage());
-            LogUtil.error(CaixaDAO.class, errorMsg, e);
-            throw new SQLException(errorMsg, e);
         } finally {
             if (rs != null) try { rs.close(); } catch (SQLException e) { }
             if (stmt != null) try { stmt.close(); } catch (SQLException e) { }
@@ -137,196 +147,6 @@ public class CaixaDAO {
         }
     }
     
-    
-    
-    /*
-    public Caixa create(Caixa caixa) throws SQLException {
-        Objects.requireNonNull(caixa, "Caixa não pode ser nulo");
-        Objects.requireNonNull(caixa.getOperador(), "Operador do caixa não pode ser nulo");
-        
-        UUID transactionId = UUID.randomUUID();
-        LogUtil.info(CaixaDAO.class, String.format("[%s] Iniciando criação de caixa para o operador ID: %d", 
-                transactionId, caixa.getOperador().getId()));
-        
-        int maxRetries = 3;
-        long initialRetryDelay = 2000; // 2 segundos
-        long maxRetryDelay = 10000; // 10 segundos
-        
-        for (int i = 0; i < maxRetries; i++) {
-            Connection conn = null;
-            PreparedStatement stmt = null;
-            ResultSet rs = null;
-            
-            try {
-                // Exponential backoff com jitter para tentativas subsequentes
-                if (i > 0) {
-                    long delay = Math.min(initialRetryDelay * (1L << i), maxRetryDelay);
-                    delay = delay + (long)(delay * 0.2 * Math.random()); // Adiciona até 20% de jitter
-                    LogUtil.info(CaixaDAO.class, String.format("[%s] Aguardando %d ms antes da tentativa %d", 
-                            transactionId, delay, (i+1)));
-                    try {
-                        Thread.sleep(delay);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        throw new SQLException("Interrompido durante espera entre tentativas", e);
-                    }
-                }
-                
-                conn = databaseConnection.getConnection();
-                
-                // Configurar timeout mais alto para essa conexão específica
-                try (Statement timeoutStmt = conn.createStatement()) {
-                    timeoutStmt.execute("SET innodb_lock_wait_timeout = 180");
-                    timeoutStmt.execute("SET SESSION transaction_isolation = 'READ-COMMITTED'");
-                }
-                
-                conn.setAutoCommit(false);
-                
-                // Verifica se já existe um caixa aberto - sem usar FOR UPDATE inicialmente para evitar bloqueios
-                String checkSql = "SELECT id FROM fluxo_caixa WHERE status = 'ABERTO'";
-                try (PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
-                    try (ResultSet checkRs = checkStmt.executeQuery()) {
-                        if (checkRs.next()) {
-                            conn.rollback();
-                            String errorMsg = String.format("[%s] Já existe um caixa aberto. ID: %d", 
-                                    transactionId, checkRs.getInt("id"));
-                            LogUtil.error(CaixaDAO.class, errorMsg, null);
-                            throw new SQLException(errorMsg);
-                        }
-                    }
-                }
-                
-                stmt = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS);
-                
-                LocalDateTime dataAbertura = caixa.getDataAbertura();
-                
-                // Seta a data (apenas a parte da data, sem horário)
-                stmt.setDate(1, Date.valueOf(dataAbertura.toLocalDate()));
-                // Seta data_abertura (data e hora)
-                stmt.setTimestamp(2, Timestamp.valueOf(dataAbertura));
-                
-                // data_fechamento pode ser null
-                if (caixa.getDataFechamento() != null) {
-                    stmt.setTimestamp(3, Timestamp.valueOf(caixa.getDataFechamento()));
-                } else {
-                    stmt.setNull(3, java.sql.Types.TIMESTAMP);
-                }
-                
-                stmt.setBigDecimal(4, caixa.getSaldoInicial());
-                stmt.setBigDecimal(5, caixa.getSaldoFinal());
-                stmt.setString(6, caixa.getStatus());
-                stmt.setInt(7, caixa.getOperador().getId()); // usuario_abertura_id
-                
-                // usuario_fechamento_id pode ser null
-                stmt.setNull(8, java.sql.Types.INTEGER); // Inicialmente null, preenchido no fechamento
-                
-                // observacoes pode ser null
-                if (caixa.getObservacao() != null && !caixa.getObservacao().isEmpty()) {
-                    stmt.setString(9, caixa.getObservacao());
-                } else {
-                    stmt.setNull(9, java.sql.Types.VARCHAR);
-                }
-                
-                int affectedRows = stmt.executeUpdate();
-                
-                if (affectedRows == 0) {
-                    conn.rollback();
-                    String errorMsg = String.format("[%s] Falha ao criar caixa, nenhuma linha afetada.", transactionId);
-                    LogUtil.error(CaixaDAO.class, errorMsg, null);
-                    throw new SQLException(errorMsg);
-                }
-                
-                rs = stmt.getGeneratedKeys();
-                if (rs.next()) {
-                    caixa.setId(rs.getInt(1));
-                    
-                    conn.commit();
-                    LogUtil.info(CaixaDAO.class, String.format("[%s] Caixa criado com sucesso. ID: %d", 
-                            transactionId, caixa.getId()));
-                    return caixa;
-                } else {
-                    conn.rollback();
-                    String errorMsg = String.format("[%s] Falha ao criar caixa, nenhum ID obtido.", transactionId);
-                    LogUtil.error(CaixaDAO.class, errorMsg, null);
-                    throw new SQLException(errorMsg);
-                }
-            } catch (SQLException e) {
-                if (conn != null) {
-                    try {
-                        conn.rollback();
-                    } catch (SQLException ex) {
-                        LogUtil.error(CaixaDAO.class, "Erro ao realizar rollback", ex);
-                    }
-                }
-                
-                // Se for timeout e ainda temos tentativas, tentamos novamente
-                if (e.getMessage().contains("Lock wait timeout") && i < maxRetries - 1) {
-                    LogUtil.warn(CaixaDAO.class, String.format("[%s] Lock timeout, tentativa %d de %d falhou. Tentando novamente.", 
-                            transactionId, (i + 1), maxRetries));
-                    continue; // Continua para a próxima iteração do loop
-                } else {
-                    // Outros erros ou esgotaram as tentativas
-                    String errorMsg = String.format("[%s] Erro ao criar caixa: %s", transactionId, e.getMessage());
-                    LogUtil.error(CaixaDAO.class, errorMsg, e);
-                    throw new SQLException(errorMsg, e);
-                }
-            } finally {
-                // Garante que os recursos sejam sempre fechados usando o método closeResources melhorado
-                if (rs != null) {
-                    try {
-                        rs.close();
-                    } catch (SQLException e) {
-                        LogUtil.warn(CaixaDAO.class, "Erro ao fechar ResultSet: " + e.getMessage());
-                    }
-                }
-                
-                if (stmt != null) {
-                    try {
-                        stmt.close();
-                    } catch (SQLException e) {
-                        LogUtil.warn(CaixaDAO.class, "Erro ao fechar Statement: " + e.getMessage());
-                    }
-                }
-                
-                if (conn != null) {
-                    try {
-                        // Tentar fazer rollback se a transação estiver ativa
-                        try {
-                            if (!conn.getAutoCommit() && !conn.isClosed()) {
-                                conn.rollback();
-                            }
-                        } catch (SQLException e) {
-                            // Apenas log do erro
-                            LogUtil.warn(CaixaDAO.class, "Erro ao fazer rollback: " + e.getMessage());
-                        }
-                        
-                        // Restaurar autoCommit para true
-                        try {
-                            if (!conn.isClosed()) {
-                                conn.setAutoCommit(true);
-                            }
-                        } catch (SQLException e) {
-                            // Apenas log do erro
-                            LogUtil.warn(CaixaDAO.class, "Erro ao restaurar autoCommit: " + e.getMessage());
-                        }
-                        
-                        // Finalmente fechar a conexão
-                        conn.close();
-                        LogUtil.info(CaixaDAO.class, "Conexão fechada com sucesso");
-                    } catch (SQLException e) {
-                        LogUtil.warn(CaixaDAO.class, "Erro ao fechar Connection: " + e.getMessage());
-                    }
-                }
-            }
-        }
-        
-        // Só chega aqui se todas as tentativas falharem
-        String errorMsg = String.format("[%s] Falha após %d tentativas de criar caixa", transactionId, maxRetries);
-        LogUtil.error(CaixaDAO.class, errorMsg, null);
-        throw new SQLException(errorMsg);
-    }
-    */
-    
     /**
      * Busca um caixa pelo ID.
      * 
@@ -421,122 +241,104 @@ public class CaixaDAO {
         LogUtil.info(CaixaDAO.class, String.format("[%s] Iniciando atualização de caixa. ID: %d", 
                 transactionId, caixa.getId()));
         
-        int maxRetries = 3;
-        int retryDelay = 2000; // 2 segundos
+        try {
+            return RetryPolicy.PADRAO.executar("CaixaDAO.update", () -> executarUpdate(caixa, transactionId));
+        } catch (SQLException e) {
+            String errorMsg = String.format("[%s] Erro ao atualizar caixa: %s", transactionId, e.getMessage());
+            LogUtil.error(CaixaDAO.class, errorMsg, e);
+            throw new SQLException(errorMsg, e);
+        }
+    }
+    
+    /**
+     * Uma tentativa de atualização do caixa, em transação própria
+     */
+    private boolean executarUpdate(Caixa caixa, UUID transactionId) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
         
-        for (int i = 0; i < maxRetries; i++) {
-            Connection conn = null;
-            PreparedStatement stmt = null;
+        try {
+            conn = databaseConnection.getConnection();
             
-            try {
-                conn = databaseConnection.getConnection();
-                
-                // Configurar um timeout maior para essa conexão específica
-                try (Statement timeoutStmt = conn.createStatement()) {
-                    timeoutStmt.execute("SET innodb_lock_wait_timeout = 120");
-                }
-                
-                conn.setAutoCommit(false);
-                
-                // Verificar se o caixa existe antes de atualizar - usando FOR UPDATE para lock exclusivo
-                try (PreparedStatement checkStmt = conn.prepareStatement(
-                        "SELECT id FROM fluxo_caixa WHERE id = ? FOR UPDATE")) {
-                    checkStmt.setInt(1, caixa.getId());
-                    try (ResultSet checkRs = checkStmt.executeQuery()) {
-                        if (!checkRs.next()) {
-                            conn.rollback();
-                            String errorMsg = String.format("[%s] Caixa ID %d não encontrado para atualização", 
-                                    transactionId, caixa.getId());
-                            LogUtil.error(CaixaDAO.class, errorMsg, null);
-                            throw new SQLException(errorMsg);
-                        }
-                    }
-                }
-                
-                stmt = conn.prepareStatement(SQL_UPDATE);
-                
-                stmt.setDate(1, Date.valueOf(caixa.getDataAbertura().toLocalDate())); // data
-                stmt.setTimestamp(2, Timestamp.valueOf(caixa.getDataAbertura())); // data_abertura
-                
-                if (caixa.getDataFechamento() != null) {
-                    stmt.setTimestamp(3, Timestamp.valueOf(caixa.getDataFechamento())); // data_fechamento
-                } else {
-                    stmt.setNull(3, java.sql.Types.TIMESTAMP);
-                }
-                
-                stmt.setBigDecimal(4, caixa.getSaldoInicial()); // saldo_inicial
-                stmt.setBigDecimal(5, caixa.getSaldoFinal()); // saldo_final
-                stmt.setString(6, caixa.getStatus()); // status
-                stmt.setInt(7, caixa.getOperador().getId()); // usuario_abertura_id
-                
-                // usuario_fechamento_id pode ser null
-                if (caixa.getStatus().equals("FECHADO") && caixa.getOperador() != null) {
-                    stmt.setInt(8, caixa.getOperador().getId()); // Mesmo operador para fechamento
-                } else {
-                    stmt.setNull(8, java.sql.Types.INTEGER);
-                }
-                
-                // Observações
-                if (caixa.getObservacao() != null && !caixa.getObservacao().isEmpty()) {
-                    stmt.setString(9, caixa.getObservacao());
-                } else {
-                    stmt.setNull(9, java.sql.Types.VARCHAR);
-                }
-                
-                stmt.setInt(10, caixa.getId()); // id na cláusula WHERE
-                
-                int affectedRows = stmt.executeUpdate();
-                conn.commit();
-                
-                if (affectedRows > 0) {
-                    LogUtil.info(CaixaDAO.class, String.format("[%s] Caixa atualizado com sucesso. ID: %d", 
-                            transactionId, caixa.getId()));
-                    return true;
-                } else {
-                    LogUtil.warn(CaixaDAO.class, String.format("[%s] Nenhum caixa atualizado - ID: %d", 
-                            transactionId, caixa.getId()));
-                    return false;
-                }
-            } catch (SQLException e) {
-                if (conn != null) {
-                    try {
+            // Configurar um timeout maior para essa conexão específica
+            try (Statement timeoutStmt = conn.createStatement()) {
+                timeoutStmt.execute("SET innodb_lock_wait_timeout = 120");
+            }
+            
+            conn.setAutoCommit(false);
+            
+            // Verificar se o caixa existe antes de atualizar - usando FOR UPDATE para lock exclusivo
+            try (PreparedStatement checkStmt = conn.prepareStatement(
+                    "SELECT id FROM fluxo_caixa WHERE id = ? FOR UPDATE")) {
+                checkStmt.setInt(1, caixa.getId());
+                try (ResultSet checkRs = checkStmt.executeQuery()) {
+                    if (!checkRs.next()) {
                         conn.rollback();
-                    } catch (SQLException ex) {
-                        LogUtil.error(CaixaDAO.class, "Erro ao realizar rollback", ex);
+                        String errorMsg = String.format("[%s] Caixa ID %d não encontrado para atualização", 
+                                transactionId, caixa.getId());
+                        LogUtil.error(CaixaDAO.class, errorMsg, null);
+                        throw new SQLException(errorMsg);
                     }
                 }
-                
-                // Se for timeout e ainda temos tentativas, tentamos novamente
-                if (e.getMessage().contains("Lock wait timeout") && i < maxRetries - 1) {
-                    LogUtil.warn(CaixaDAO.class, String.format("[%s] Lock timeout, tentativa %d de %d. Tentando novamente após %d ms", 
-                            transactionId, (i + 1), maxRetries, retryDelay));
-                    
-                    try {
-                        Thread.sleep(retryDelay);
-                        retryDelay *= 2; // Tempo de espera exponencial
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new SQLException("Operação interrompida durante retry", ie);
-                    }
-                    
-                    // Continua para próxima iteração do loop
-                    continue;
-                } else {
-                    // Outros erros ou esgotaram as tentativas
-                    String errorMsg = String.format("[%s] Erro ao atualizar caixa: %s", transactionId, e.getMessage());
-                    LogUtil.error(CaixaDAO.class, errorMsg, e);
-                    throw new SQLException(errorMsg, e);
+            }
+            
+            stmt = conn.prepareStatement(SQL_UPDATE);
+            
+            stmt.setDate(1, Date.valueOf(caixa.getDataAbertura().toLocalDate())); // data
+            stmt.setTimestamp(2, Timestamp.valueOf(caixa.getDataAbertura())); // data_abertura
+            
+            if (caixa.getDataFechamento() != null) {
+                stmt.setTimestamp(3, Timestamp.valueOf(caixa.getDataFechamento())); // data_fechamento
+            } else {
+                stmt.setNull(3, java.sql.Types.TIMESTAMP);
+            }
+            
+            stmt.setBigDecimal(4, caixa.getSaldoInicial()); // saldo_inicial
+            stmt.setBigDecimal(5, caixa.getSaldoFinal()); // saldo_final
+            stmt.setString(6, caixa.getStatus()); // status
+            stmt.setInt(7, caixa.getOperador().getId()); // usuario_abertura_id
+            
+            // usuario_fechamento_id pode ser null
+            if (caixa.getStatus().equals("FECHADO") && caixa.getOperador() != null) {
+                stmt.setInt(8, caixa.getOperador().getId()); // Mesmo operador para fechamento
+            } else {
+                stmt.setNull(8, java.sql.Types.INTEGER);
+            }
+            
+            // Observações
+            if (caixa.getObservacao() != null && !caixa.getObservacao().isEmpty()) {
+                stmt.setString(9, caixa.getObservacao());
+            } else {
+                stmt.setNull(9, java.sql.Types.VARCHAR);
+            }
+            
+            stmt.setInt(10, caixa.getId()); // id na cláusula WHERE
+            
+            int affectedRows = stmt.executeUpdate();
+            conn.commit();
+            
+            if (affectedRows > 0) {
+                LogUtil.info(CaixaDAO.class, String.format("[%s] Caixa atualizado com sucesso. ID: %d", 
+                        transactionId, caixa.getId()));
+                return true;
+            } else {
+                LogUtil.warn(CaixaDAO.class, String.format("[%s] Nenhum caixa atualizado - ID: %d", 
+                        transactionId, caixa.getId()));
+                return false;
+            }
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    LogUtil.error(CaixaDAO.class, "Erro ao realizar rollback", ex);
                 }
-            } finally {
-                // Garante que os recursos sejam sempre fechados
-                closeResources(conn, stmt, null);
             }
+            throw e;
+        } finally {
+            // Garante que os recursos sejam sempre fechados
+            closeResources(conn, stmt, null);
         }
-        
-        // Só chega aqui se todas as tentativas falharem com timeout
-        String errorMsg = String.format("[%s] Falha após %d tentativas de atualizar caixa", transactionId, maxRetries);
-        LogUtil.error(CaixaDAO.class, errorMsg, null);
-        throw new SQLException(errorMsg);
     }
     
     
@@ -564,110 +366,92 @@ public class CaixaDAO {
         // Fecha o caixa no modelo
         caixa.fechar(observacao);
         
-        int maxRetries = 3;
-        int retryDelay = 2000; // 2 segundos
+        try {
+            return RetryPolicy.PADRAO.executar("CaixaDAO.fecharCaixa", () -> executarFechamento(caixa, observacao, transactionId));
+        } catch (SQLException e) {
+            String errorMsg = String.format("[%s] Erro ao fechar caixa: %s", transactionId, e.getMessage());
+            LogUtil.error(CaixaDAO.class, errorMsg, e);
+            throw new SQLException(errorMsg, e);
+        }
+    }
+    
+    /**
+     * Uma tentativa de fechamento do caixa, em transação própria
+     */
+    private boolean executarFechamento(Caixa caixa, String observacao, UUID transactionId) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
         
-        for (int i = 0; i < maxRetries; i++) {
-            Connection conn = null;
-            PreparedStatement stmt = null;
+        try {
+            conn = databaseConnection.getConnection();
             
-            try {
-                conn = databaseConnection.getConnection();
-                
-                // Configurar um timeout maior para essa conexão específica
-                try (Statement timeoutStmt = conn.createStatement()) {
-                    timeoutStmt.execute("SET innodb_lock_wait_timeout = 120");
-                }
-                
-                conn.setAutoCommit(false);
-                
-                // Verificar se o caixa ainda existe e está aberto - usando FOR UPDATE para lock exclusivo
-                try (PreparedStatement checkStmt = conn.prepareStatement(
-                        "SELECT id, status FROM fluxo_caixa WHERE id = ? FOR UPDATE")) {
-                    checkStmt.setInt(1, caixa.getId());
-                    try (ResultSet checkRs = checkStmt.executeQuery()) {
-                        if (!checkRs.next()) {
-                            conn.rollback();
-                            String errorMsg = String.format("[%s] Caixa ID %d não encontrado", 
-                                    transactionId, caixa.getId());
-                            LogUtil.error(CaixaDAO.class, errorMsg, null);
-                            throw new SQLException(errorMsg);
-                        }
-                        
-                        String status = checkRs.getString("status");
-                        if (!"ABERTO".equals(status)) {
-                            conn.rollback();
-                            String errorMsg = String.format("[%s] Caixa ID %d já está fechado", 
-                                    transactionId, caixa.getId());
-                            LogUtil.error(CaixaDAO.class, errorMsg, null);
-                            throw new IllegalStateException(errorMsg);
-                        }
-                    }
-                }
-                
-                stmt = conn.prepareStatement(SQL_CLOSE);
-                
-                stmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
-                stmt.setBigDecimal(2, caixa.getSaldoFinal());
-                
-                // Adiciona o ID do operador que está fechando o caixa (mesmo do operador de abertura)
-                stmt.setInt(3, caixa.getOperador().getId());
-                
-                stmt.setString(4, observacao);
-                stmt.setInt(5, caixa.getId());
-                
-                int affectedRows = stmt.executeUpdate();
-                conn.commit();
-                
-                if (affectedRows > 0) {
-                    LogUtil.info(CaixaDAO.class, String.format("[%s] Caixa fechado com sucesso. ID: %d", 
-                            transactionId, caixa.getId()));
-                    return true;
-                } else {
-                    LogUtil.warn(CaixaDAO.class, String.format("[%s] Nenhum caixa fechado - ID: %d", 
-                            transactionId, caixa.getId()));
-                    return false;
-                }
-            } catch (SQLException e) {
-                if (conn != null) {
-                    try {
+            // Configurar um timeout maior para essa conexão específica
+            try (Statement timeoutStmt = conn.createStatement()) {
+                timeoutStmt.execute("SET innodb_lock_wait_timeout = 120");
+            }
+            
+            conn.setAutoCommit(false);
+            
+            // Verificar se o caixa ainda existe e está aberto - usando FOR UPDATE para lock exclusivo
+            try (PreparedStatement checkStmt = conn.prepareStatement(
+                    "SELECT id, status FROM fluxo_caixa WHERE id = ? FOR UPDATE")) {
+                checkStmt.setInt(1, caixa.getId());
+                try (ResultSet checkRs = checkStmt.executeQuery()) {
+                    if (!checkRs.next()) {
                         conn.rollback();
-                    } catch (SQLException ex) {
-                        LogUtil.error(CaixaDAO.class, "Erro ao realizar rollback", ex);
+                        String errorMsg = String.format("[%s] Caixa ID %d não encontrado", 
+                                transactionId, caixa.getId());
+                        LogUtil.error(CaixaDAO.class, errorMsg, null);
+                        throw new SQLException(errorMsg);
                     }
-                }
-                
-                // Se for timeout e ainda temos tentativas, tentamos novamente
-                if (e.getMessage().contains("Lock wait timeout") && i < maxRetries - 1) {
-                    LogUtil.warn(CaixaDAO.class, String.format("[%s] Lock timeout, tentativa %d de %d. Tentando novamente após %d ms", 
-                            transactionId, (i + 1), maxRetries, retryDelay));
                     
-                    try {
-                        Thread.sleep(retryDelay);
-                        retryDelay *= 2; // Tempo de espera exponencial
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new SQLException("Operação interrompida durante retry", ie);
+                    String status = checkRs.getString("status");
+                    if (!"ABERTO".equals(status)) {
+                        conn.rollback();
+                        String errorMsg = String.format("[%s] Caixa ID %d já está fechado", 
+                                transactionId, caixa.getId());
+                        LogUtil.error(CaixaDAO.class, errorMsg, null);
+                        throw new IllegalStateException(errorMsg);
                     }
-                    
-                    // Continua para próxima iteração do loop
-                    continue;
-                } else {
-                    // Outros erros ou esgotaram as tentativas
-                    String errorMsg = String.format("[%s] Erro ao fechar caixa: %s", transactionId, e.getMessage());
-                    LogUtil.error(CaixaDAO.class, errorMsg, e);
-                    throw new SQLException(errorMsg, e);
                 }
-            } finally {
-                // Garante que os recursos sejam sempre fechados
-                closeResources(conn, stmt, null);
             }
+            
+            stmt = conn.prepareStatement(SQL_CLOSE);
+            
+            stmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setBigDecimal(2, caixa.getSaldoFinal());
+            
+            // Adiciona o ID do operador que está fechando o caixa (mesmo do operador de abertura)
+            stmt.setInt(3, caixa.getOperador().getId());
+            
+            stmt.setString(4, observacao);
+            stmt.setInt(5, caixa.getId());
+            
+            int affectedRows = stmt.executeUpdate();
+            conn.commit();
+            
+            if (affectedRows > 0) {
+                LogUtil.info(CaixaDAO.class, String.format("[%s] Caixa fechado com sucesso. ID: %d", 
+                        transactionId, caixa.getId()));
+                return true;
+            } else {
+                LogUtil.warn(CaixaDAO.class, String.format("[%s] Nenhum caixa fechado - ID: %d", 
+                        transactionId, caixa.getId()));
+                return false;
+            }
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    LogUtil.error(CaixaDAO.class, "Erro ao realizar rollback", ex);
+                }
+            }
+            throw e;
+        } finally {
+            // Garante que os recursos sejam sempre fechados
+            closeResources(conn, stmt, null);
         }
-        
-        // Só chega aqui se todas as tentativas falharem com timeout
-        String errorMsg = String.format("[%s] Falha após %d tentativas de fechar caixa", transactionId, maxRetries);
-        LogUtil.error(CaixaDAO.class, errorMsg, null);
-        throw new SQLException(errorMsg);
     }
     
     /**
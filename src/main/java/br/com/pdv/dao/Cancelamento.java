@@ -0,0 +1,60 @@
+package br.com.pdv.dao;
+
+import br.com.pdv.util.LogUtil;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Permite cancelar, de outra thread, uma consulta percorrida em fluxo
+ * ({@link JdbcTemplate#queryEmFluxo}).
+ *
+ * O cancelamento é verificado a cada linha; se a consulta ainda estiver aguardando o
+ * servidor, o statement em execução também é cancelado no MySQL. Em ambos os casos a
+ * consulta termina com {@link #SQLSTATE_CANCELADA} e a conexão é devolvida ao pool.
+ */
+public final class Cancelamento {
+
+    /** SQLState das consultas encerradas por cancelamento */
+    public static final String SQLSTATE_CANCELADA = "70100";
+
+    private volatile boolean cancelado;
+    private volatile Statement emExecucao;
+
+    /**
+     * Solicita o cancelamento. Pode ser chamado de qualquer thread, antes ou durante a consulta.
+     */
+    public void cancelar() {
+        cancelado = true;
+        Statement stmt = emExecucao;
+        if (stmt != null) {
+            try {
+                stmt.cancel();
+            } catch (SQLException e) {
+                LogUtil.warn(Cancelamento.class, "Erro ao cancelar consulta em execução: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Verifica se o cancelamento foi solicitado
+     */
+    public boolean isCancelado() {
+        return cancelado;
+    }
+
+    /**
+     * Verifica se o erro indica uma consulta encerrada por cancelamento
+     */
+    public static boolean isCancelada(SQLException erro) {
+        return SQLSTATE_CANCELADA.equals(erro.getSQLState());
+    }
+
+    void iniciar(Statement stmt) {
+        emExecucao = stmt;
+    }
+
+    void finalizar() {
+        emExecucao = null;
+    }
+}
@@ -1,6 +1,7 @@
 package br.com.pdv.dao;
 
 import br.com.pdv.model.Cliente;
+import br.com.pdv.model.ClienteResumo;
 import br.com.pdv.exception.CpfCnpjDuplicadoException;
 import br.com.pdv.util.DatabaseConnection;
 import br.com.pdv.util.DatabaseUtil;
@@ -15,8 +16,11 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 public class ClienteDAO {
@@ -32,7 +36,13 @@ public class ClienteDAO {
     	    "data_nascimento = ?, observacao = ? WHERE id = ?";
     private static final String SQL_DELETE = "DELETE FROM clientes WHERE id = ?";
     private static final String SQL_SELECT_BY_ID = "SELECT * FROM clientes WHERE id = ?";
+    private static final String SQL_SELECT_BY_IDS = "SELECT * FROM clientes WHERE id IN (" + JdbcTemplate.MARCADOR_IN + ")";
     private static final String SQL_SELECT_ALL = "SELECT * FROM clientes ORDER BY nome";
+    // Apenas as colunas das listagens
+    private static final String SQL_SELECT_RESUMO = "SELECT id, nome, cpf_cnpj, telefone, email FROM clientes ";
+    private static final String SQL_SELECT_PRIMEIRA_PAGINA = "SELECT * FROM clientes ORDER BY nome, id LIMIT ?";
+    private static final String SQL_SELECT_PAGINA_APOS =
+            "SELECT * FROM clientes WHERE nome > ? OR (nome = ? AND id > ?) ORDER BY nome, id LIMIT ?";
     private static final String SQL_SELECT_BY_CPF_CNPJ = "SELECT * FROM clientes WHERE cpf_cnpj = ?";
     private static final String SQL_SELECT_BY_NOME = "SELECT * FROM clientes WHERE nome = ?";
     
@@ -182,6 +192,10 @@ public class ClienteDAO {
     }
 
     public Cliente findById(Long id) throws SQLException {
+        return IdentityMap.buscar(Cliente.class, id, this::carregarPorId);
+    }
+
+    private Cliente carregarPorId(Long id) throws SQLException {
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(SQL_SELECT_BY_ID)) {
             
@@ -196,6 +210,28 @@ public class ClienteDAO {
         }
     }
     
+    /**
+     * Busca vários clientes de uma vez, em uma consulta IN por bloco de IDs
+     *
+     * @param ids IDs dos clientes (repetidos e nulos são ignorados)
+     * @return Mapa do ID para o cliente; IDs inexistentes não aparecem no mapa
+     * @throws SQLException Se ocorrer um erro de SQL
+     */
+    public Map<Long, Cliente> findByIds(Collection<Long> ids) throws SQLException {
+        return IdentityMap.buscarTodos(Cliente.class, ids, this::carregarPorIds);
+    }
+
+    private Map<Long, Cliente> carregarPorIds(Collection<Long> ids) throws SQLException {
+        Map<Long, Cliente> clientes = new HashMap<>();
+        if (ids.isEmpty()) {
+            return clientes;
+        }
+        for (Cliente cliente : JdbcTemplate.getInstance().queryIn(SQL_SELECT_BY_IDS, ids, this::mapResultSetToCliente)) {
+            clientes.put(cliente.getId(), cliente);
+        }
+        return clientes;
+    }
+    
     public List<Cliente> readAll() throws SQLException {
         List<Cliente> clientes = new ArrayList<>();
         
@@ -211,8 +247,57 @@ public class ClienteDAO {
         return clientes;
     }
     
+    /**
+     * Busca uma página de clientes em ordem de nome, a partir do último cliente da página
+     * anterior (paginação por chave nome + id)
+     *
+     * @param ultimo Último cliente da página anterior, ou null para a primeira página
+     * @param limite Quantidade máxima de clientes na página
+     * @return A página de clientes
+     * @throws SQLException Se ocorrer um erro de SQL
+     */
+    public Pagina<Cliente> findAfter(Cliente ultimo, int limite) throws SQLException {
+        Pagina.validarLimite(limite);
+        JdbcTemplate jdbcTemplate = JdbcTemplate.getInstance();
+        List<Cliente> linhas = ultimo == null
+                ? jdbcTemplate.query(SQL_SELECT_PRIMEIRA_PAGINA, this::mapResultSetToCliente, limite + 1)
+                : jdbcTemplate.query(SQL_SELECT_PAGINA_APOS, this::mapResultSetToCliente,
+                        ultimo.getNome(), ultimo.getNome(), ultimo.getId(), limite + 1);
+        return Pagina.de(linhas, limite);
+    }
+    
+    /**
+     * Busca uma página de resumos de clientes em ordem de nome, para as listagens
+     *
+     * @param ultimo Último resumo da página anterior, ou null para a primeira página
+     * @param limite Quantidade máxima de clientes na página
+     * @return A página de resumos
+     * @throws SQLException Se ocorrer um erro de SQL
+     */
+    public Pagina<ClienteResumo> findResumosAfter(ClienteResumo ultimo, int limite) throws SQLException {
+        Pagina.validarLimite(limite);
+        JdbcTemplate jdbcTemplate = JdbcTemplate.getInstance();
+        List<ClienteResumo> linhas = ultimo == null
+                ? jdbcTemplate.query(SQL_SELECT_RESUMO + "ORDER BY nome, id LIMIT ?", this::mapResultSetToResumo, limite + 1)
+                : jdbcTemplate.query(SQL_SELECT_RESUMO + "WHERE nome > ? OR (nome = ? AND id > ?) ORDER BY nome, id LIMIT ?",
+                        this::mapResultSetToResumo, ultimo.nome(), ultimo.nome(), ultimo.id(), limite + 1);
+        return Pagina.de(linhas, limite);
+    }
+    
+    /**
+     * Busca resumos de clientes pelo nome (busca parcial)
+     *
+     * @param nomeParcial O nome ou parte do nome
+     * @return Lista de resumos encontrados
+     * @throws SQLException Se ocorrer um erro de SQL
+     */
+    public List<ClienteResumo> findResumosByNomeLike(String nomeParcial) throws SQLException {
+        return JdbcTemplate.getInstance().query(SQL_SELECT_RESUMO + "WHERE nome LIKE ? ORDER BY nome",
+                this::mapResultSetToResumo, "%" + nomeParcial + "%");
+    }
+    
     public Long update(Cliente cliente) throws SQLException {
-    	
+        IdentityMap.remover(Cliente.class, cliente.getId());
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(SQL_UPDATE)) {
 
@@ -245,6 +330,7 @@ public class ClienteDAO {
     }
     
     public boolean delete(Long id) throws SQLException {
+        IdentityMap.remover(Cliente.class, id);
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(SQL_DELETE)) {
             
@@ -281,7 +367,7 @@ public class ClienteDAO {
         ResultSet rs = null;
         
         try {
-            conn = DatabaseConnection.getInstance().getConnection();
+            conn = DatabaseConnection.getInstance().getReadConnection();
             
             String sql = "SELECT COUNT(*) FROM clientes WHERE ativo = true";
             
@@ -318,6 +404,11 @@ public class ClienteDAO {
         return clientes;
     }
     
+    private ClienteResumo mapResultSetToResumo(ResultSet rs) throws SQLException {
+        return new ClienteResumo(rs.getLong("id"), rs.getString("nome"), rs.getString("cpf_cnpj"),
+                rs.getString("telefone"), rs.getString("email"));
+    }
+    
     private Cliente mapResultSetToCliente(ResultSet rs) throws SQLException {
         Cliente cliente = new Cliente(
             rs.getString("nome"),
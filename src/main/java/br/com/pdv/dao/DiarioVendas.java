@@ -0,0 +1,445 @@
+package br.com.pdv.dao;
+
+import br.com.pdv.model.Cliente;
+import br.com.pdv.model.ItemPedido;
+import br.com.pdv.model.Pedido;
+import br.com.pdv.util.LogUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Diário local das vendas finalizadas no terminal, gravado antes de qualquer acesso ao banco.
+ *
+ * Cada venda é acrescentada ao final do arquivo e sincronizada com o disco (fsync) antes de
+ * {@link #registrar(Pedido, String)} retornar: a partir daí ela não se perde, mesmo que o
+ * MySQL esteja lento ou fora do ar ou que o terminal seja desligado. O
+ * {@link ReplicadorVendas} envia as vendas pendentes ao banco, em ordem, e registra no diário
+ * a confirmação ou a rejeição de cada uma.
+ *
+ * Cada registro tem tamanho e CRC32; ao abrir, o diário é relido e um registro incompleto no
+ * final (gravação interrompida) é descartado. Uma venda rejeitada continua no diário até
+ * ser conferida no terminal ({@link #marcarConferida(String)}). Quando não há vendas
+ * pendentes nem rejeitadas por conferir, o arquivo é esvaziado. O arquivo é bloqueado para
+ * uso exclusivo desta instância do PDV.
+ *
+ * Local: pdv-diario-vendas.dat no diretório de trabalho, ou o arquivo indicado por
+ * -Dpdv.diario.arquivo / PDV_DIARIO_ARQUIVO.
+ */
+public final class DiarioVendas {
+
+    public static final String ARQUIVO_PADRAO = "pdv-diario-vendas.dat";
+
+    private static final byte TIPO_VENDA = 1;
+    private static final byte TIPO_CONFIRMADA = 2;
+    private static final byte TIPO_REJEITADA = 3;
+    private static final byte TIPO_CONFERIDA = 4;
+
+    // Tamanho do registro e CRC32 do conteúdo
+    private static final int TAMANHO_CABECALHO = 8;
+    private static final int TAMANHO_MAXIMO_REGISTRO = 1 << 20;
+    private static final int TAMANHO_MAXIMO_MOTIVO = 1000;
+
+    /**
+     * Uma venda registrada no diário
+     *
+     * @param chave Identificador único da venda, usado para aplicá-la uma única vez no banco
+     * @param dataVenda Momento em que a venda foi finalizada no caixa
+     * @param clienteId ID do cliente, ou null se ele ainda não foi localizado no banco
+     * @param nomeCliente Nome do cliente informado no caixa, ou null; usado para localizar
+     *        ou cadastrar o cliente quando não há clienteId
+     * @param nomeVendedor Login ou nome do vendedor selecionado
+     * @param valorTotal Valor total do pedido
+     * @param itens Itens do pedido
+     */
+    public record Entrada(String chave, LocalDateTime dataVenda, Long clienteId, String nomeCliente,
+            String nomeVendedor, BigDecimal valorTotal, List<Item> itens) {
+
+        /**
+         * Um item da venda
+         *
+         * @param produtoId ID do produto
+         * @param nomeProduto Nome do produto, para o log
+         * @param quantidade Quantidade vendida
+         * @param valorUnitario Preço unitário
+         */
+        public record Item(int produtoId, String nomeProduto, int quantidade, BigDecimal valorUnitario) {
+        }
+
+        /**
+         * Descrição da venda para o log
+         */
+        public String descrever() {
+            StringBuilder sb = new StringBuilder(String.format("venda %s de %s (cliente %s %s, vendedor %s, total %s):",
+                    chave, dataVenda, clienteId, nomeCliente, nomeVendedor, valorTotal));
+            for (Item item : itens) {
+                sb.append(String.format(" [produto %d %s x%d a %s]", item.produtoId(), item.nomeProduto(),
+                        item.quantidade(), item.valorUnitario()));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Uma venda recusada pelo banco, guardada até ser conferida no terminal
+     *
+     * @param entrada A venda registrada
+     * @param motivo Motivo da rejeição
+     */
+    public record Rejeitada(Entrada entrada, String motivo) {
+    }
+
+    private static DiarioVendas instance;
+
+    private final File arquivo;
+    private final FileChannel canal;
+    private final FileLock bloqueio;
+    // Vendas ainda não confirmadas nem rejeitadas, na ordem do diário
+    private final Map<String, Entrada> pendentes = new LinkedHashMap<>();
+    // Vendas rejeitadas ainda não conferidas, na ordem da rejeição
+    private final Map<String, Rejeitada> rejeitadas = new LinkedHashMap<>();
+
+    private DiarioVendas(File arquivo) throws IOException {
+        this.arquivo = arquivo;
+        this.canal = FileChannel.open(arquivo.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.bloqueio = canal.tryLock();
+        if (bloqueio == null) {
+            canal.close();
+            throw new IOException("Diário de vendas em uso por outra instância do PDV: " + arquivo.getAbsolutePath());
+        }
+        recuperar();
+    }
+
+    /**
+     * Retorna a instância única do diário, abrindo e relendo o arquivo na primeira chamada
+     * @return A instância do diário
+     * @throws IllegalStateException Se o arquivo não puder ser aberto
+     */
+    public static synchronized DiarioVendas getInstance() {
+        if (instance == null) {
+            File arquivo = localizarArquivo();
+            try {
+                instance = new DiarioVendas(arquivo);
+            } catch (IOException e) {
+                throw new IllegalStateException("Não foi possível abrir o diário de vendas "
+                        + arquivo.getAbsolutePath() + ": " + e.getMessage(), e);
+            }
+        }
+        return instance;
+    }
+
+    private static File localizarArquivo() {
+        String caminho = System.getProperty("pdv.diario.arquivo");
+        if (caminho == null) {
+            caminho = System.getenv("PDV_DIARIO_ARQUIVO");
+        }
+        return new File(caminho != null ? caminho : ARQUIVO_PADRAO);
+    }
+
+    /**
+     * Registra uma venda finalizada, com os itens do pedido, e a grava no disco
+     * @param pedido O pedido finalizado
+     * @param nomeVendedor Login ou nome do vendedor selecionado
+     * @return A entrada registrada
+     * @throws IOException Se a gravação falhar; a venda não foi registrada
+     */
+    public synchronized Entrada registrar(Pedido pedido, String nomeVendedor) throws IOException {
+        Objects.requireNonNull(nomeVendedor, "Vendedor não pode ser nulo");
+        List<Entrada.Item> itens = new ArrayList<>();
+        for (ItemPedido item : pedido.getItens()) {
+            Objects.requireNonNull(item.getProduto().getId(), "Produto do item sem ID");
+            itens.add(new Entrada.Item(item.getProduto().getId(), item.getProduto().getNome(),
+                    item.getQuantidade(), item.getValorUnitario()));
+        }
+        Cliente cliente = pedido.getCliente();
+        String nomeCliente = cliente != null && cliente.getNome() != null && !cliente.getNome().isBlank()
+                ? cliente.getNome().trim() : null;
+        Entrada entrada = new Entrada(UUID.randomUUID().toString(), LocalDateTime.now(),
+                cliente != null ? cliente.getId() : null, nomeCliente, nomeVendedor,
+                pedido.getValorTotal() != null ? pedido.getValorTotal() : BigDecimal.ZERO,
+                Collections.unmodifiableList(itens));
+
+        anexar(serializarVenda(entrada));
+        pendentes.put(entrada.chave(), entrada);
+        LogUtil.info(DiarioVendas.class, "Venda registrada no diário: " + entrada.chave()
+                + " (" + pendentes.size() + " pendentes)");
+        return entrada;
+    }
+
+    /**
+     * Registra que a venda foi gravada no banco
+     * @param chave Chave da venda
+     * @param pedidoId ID do pedido criado no banco
+     * @throws IOException Se a gravação falhar; a venda continua pendente e será reaplicada
+     *         sem duplicar o pedido
+     */
+    public synchronized void confirmar(String chave, int pedidoId) throws IOException {
+        if (!pendentes.containsKey(chave)) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(TIPO_CONFIRMADA);
+        out.writeUTF(chave);
+        out.writeInt(pedidoId);
+        anexar(bytes.toByteArray());
+        pendentes.remove(chave);
+        compactarSeVazio();
+    }
+
+    /**
+     * Registra que a venda foi recusada pelo banco (ex.: estoque insuficiente) e não será
+     * reenviada; ela fica entre as rejeitadas até ser conferida
+     * @param chave Chave da venda
+     * @param motivo Motivo da rejeição
+     * @return A venda rejeitada, ou null se ela não estava pendente
+     * @throws IOException Se a gravação falhar; a venda continua pendente
+     */
+    public synchronized Rejeitada rejeitar(String chave, String motivo) throws IOException {
+        Entrada entrada = pendentes.get(chave);
+        if (entrada == null) {
+            return null;
+        }
+        String texto = motivo != null ? motivo : "";
+        if (texto.length() > TAMANHO_MAXIMO_MOTIVO) {
+            texto = texto.substring(0, TAMANHO_MAXIMO_MOTIVO);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(TIPO_REJEITADA);
+        out.writeUTF(chave);
+        out.writeUTF(texto);
+        anexar(bytes.toByteArray());
+        pendentes.remove(chave);
+        Rejeitada rejeitada = new Rejeitada(entrada, texto);
+        rejeitadas.put(chave, rejeitada);
+        return rejeitada;
+    }
+
+    /**
+     * Registra que uma venda rejeitada foi conferida no terminal e pode sair do diário
+     * @param chave Chave da venda
+     * @throws IOException Se a gravação falhar; a venda continua entre as rejeitadas
+     */
+    public synchronized void marcarConferida(String chave) throws IOException {
+        if (!rejeitadas.containsKey(chave)) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(TIPO_CONFERIDA);
+        out.writeUTF(chave);
+        anexar(bytes.toByteArray());
+        rejeitadas.remove(chave);
+        compactarSeVazio();
+    }
+
+    /**
+     * Vendas rejeitadas pelo banco e ainda não conferidas, na ordem da rejeição
+     */
+    public synchronized List<Rejeitada> getRejeitadas() {
+        return new ArrayList<>(rejeitadas.values());
+    }
+
+    /**
+     * Número de vendas rejeitadas ainda não conferidas
+     */
+    public synchronized int contarRejeitadas() {
+        return rejeitadas.size();
+    }
+
+    /**
+     * Vendas ainda não gravadas no banco, na ordem em que foram registradas
+     */
+    public synchronized List<Entrada> getPendentes() {
+        return new ArrayList<>(pendentes.values());
+    }
+
+    /**
+     * Número de vendas ainda não gravadas no banco
+     */
+    public synchronized int contarPendentes() {
+        return pendentes.size();
+    }
+
+    /**
+     * Arquivo do diário
+     */
+    public File getArquivo() {
+        return arquivo;
+    }
+
+    /**
+     * Acrescenta um registro ao final do arquivo e o sincroniza com o disco
+     */
+    private void anexar(byte[] conteudo) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(conteudo);
+        ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_CABECALHO + conteudo.length);
+        buffer.putInt(conteudo.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(conteudo);
+        buffer.flip();
+
+        long inicio = canal.size();
+        canal.position(inicio);
+        try {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(false);
+        } catch (IOException e) {
+            // Não deixa um registro parcial antes dos próximos
+            try {
+                canal.truncate(inicio);
+            } catch (IOException ex) {
+                LogUtil.warn(DiarioVendas.class, "Erro ao descartar registro incompleto do diário: " + ex.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Esvazia o arquivo quando todas as vendas já foram confirmadas ou conferidas
+     */
+    private void compactarSeVazio() throws IOException {
+        if (pendentes.isEmpty() && rejeitadas.isEmpty() && canal.size() > 0) {
+            canal.truncate(0);
+            canal.force(true);
+        }
+    }
+
+    /**
+     * Relê o diário, reconstruindo as vendas pendentes, e descarta um registro incompleto
+     * no final do arquivo
+     */
+    private void recuperar() throws IOException {
+        long tamanho = canal.size();
+        if (tamanho == 0) {
+            return;
+        }
+        if (tamanho > Integer.MAX_VALUE) {
+            throw new IOException("Diário de vendas grande demais: " + tamanho + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) tamanho);
+        canal.position(0);
+        while (buffer.hasRemaining() && canal.read(buffer) >= 0) {
+            // lê o arquivo inteiro
+        }
+        buffer.flip();
+
+        int registros = 0;
+        long validos = 0;
+        while (buffer.remaining() >= TAMANHO_CABECALHO) {
+            int tamanhoRegistro = buffer.getInt();
+            int crcEsperado = buffer.getInt();
+            if (tamanhoRegistro <= 0 || tamanhoRegistro > TAMANHO_MAXIMO_REGISTRO || buffer.remaining() < tamanhoRegistro) {
+                break;
+            }
+            byte[] conteudo = new byte[tamanhoRegistro];
+            buffer.get(conteudo);
+            CRC32 crc = new CRC32();
+            crc.update(conteudo);
+            if ((int) crc.getValue() != crcEsperado) {
+                break;
+            }
+            aplicarRegistro(conteudo);
+            registros++;
+            validos = buffer.position();
+        }
+
+        if (validos < tamanho) {
+            LogUtil.warn(DiarioVendas.class, String.format(
+                    "Diário de vendas com registro incompleto no final: %d bytes descartados", tamanho - validos));
+            canal.truncate(validos);
+            canal.force(true);
+        }
+        LogUtil.info(DiarioVendas.class, String.format(
+                "Diário de vendas %s: %d registros, %d vendas pendentes, %d rejeitadas por conferir",
+                arquivo.getAbsolutePath(), registros, pendentes.size(), rejeitadas.size()));
+        compactarSeVazio();
+    }
+
+    private void aplicarRegistro(byte[] conteudo) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(conteudo));
+        byte tipo = in.readByte();
+        String chave = in.readUTF();
+        switch (tipo) {
+            case TIPO_VENDA:
+                pendentes.put(chave, lerVenda(chave, in));
+                break;
+            case TIPO_CONFIRMADA:
+                pendentes.remove(chave);
+                break;
+            case TIPO_REJEITADA:
+                Entrada rejeitada = pendentes.remove(chave);
+                if (rejeitada != null) {
+                    rejeitadas.put(chave, new Rejeitada(rejeitada, in.readUTF()));
+                }
+                break;
+            case TIPO_CONFERIDA:
+                rejeitadas.remove(chave);
+                break;
+            default:
+                throw new IOException("Tipo de registro desconhecido no diário de vendas: " + tipo);
+        }
+    }
+
+    private static byte[] serializarVenda(Entrada entrada) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(TIPO_VENDA);
+        out.writeUTF(entrada.chave());
+        out.writeUTF(entrada.dataVenda().toString());
+        out.writeBoolean(entrada.clienteId() != null);
+        out.writeLong(entrada.clienteId() != null ? entrada.clienteId() : 0L);
+        out.writeUTF(entrada.nomeVendedor());
+        out.writeUTF(entrada.valorTotal().toPlainString());
+        out.writeInt(entrada.itens().size());
+        for (Entrada.Item item : entrada.itens()) {
+            out.writeInt(item.produtoId());
+            out.writeUTF(item.nomeProduto() != null ? item.nomeProduto() : "");
+            out.writeInt(item.quantidade());
+            out.writeUTF(item.valorUnitario().toPlainString());
+        }
+        // Ao final do registro, para que as vendas gravadas antes deste campo continuem legíveis
+        out.writeUTF(entrada.nomeCliente() != null ? entrada.nomeCliente() : "");
+        return bytes.toByteArray();
+    }
+
+    private static Entrada lerVenda(String chave, DataInputStream in) throws IOException {
+        LocalDateTime dataVenda = LocalDateTime.parse(in.readUTF());
+        boolean temCliente = in.readBoolean();
+        long clienteId = in.readLong();
+        String nomeVendedor = in.readUTF();
+        BigDecimal valorTotal = new BigDecimal(in.readUTF());
+        int quantidadeItens = in.readInt();
+        List<Entrada.Item> itens = new ArrayList<>(quantidadeItens);
+        for (int i = 0; i < quantidadeItens; i++) {
+            itens.add(new Entrada.Item(in.readInt(), in.readUTF(), in.readInt(), new BigDecimal(in.readUTF())));
+        }
+        String nomeCliente = in.available() > 0 ? in.readUTF() : "";
+        return new Entrada(chave, dataVenda, temCliente ? clienteId : null,
+                nomeCliente.isEmpty() ? null : nomeCliente, nomeVendedor, valorTotal,
+                Collections.unmodifiableList(itens));
+    }
+}
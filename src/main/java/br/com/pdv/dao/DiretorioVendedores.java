@@ -0,0 +1,145 @@
+package br.com.pdv.dao;
+
+import br.com.pdv.model.Usuario;
+import br.com.pdv.util.LogUtil;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cadastro em memória dos vendedores ativos, por ID, login e nome, para preencher a seleção
+ * de vendedor e atribuir as vendas sem consultar o banco a cada venda.
+ *
+ * Os vendedores são lidos uma vez, na primeira busca, e relidos depois que o UsuarioDAO
+ * grava um usuário. Um login, nome ou ID que não está no cadastro (ex.: usuário com outro
+ * perfil) é buscado no banco, como antes. Os usuários retornados são compartilhados e não
+ * devem ser alterados por quem os recebe.
+ */
+public final class DiretorioVendedores {
+
+    private static final String PERFIL_VENDEDOR = "VENDEDOR";
+
+    /**
+     * Vendedores lidos em uma carga
+     */
+    private record Cadastro(List<Usuario> vendedores, Map<Integer, Usuario> porId, Map<String, Usuario> porLogin,
+            Map<String, Usuario> porNome) {
+    }
+
+    private static DiretorioVendedores instance;
+
+    private volatile Cadastro cadastro;
+    // Incrementada a cada invalidação, para não guardar uma carga feita antes dela
+    private final AtomicInteger versao = new AtomicInteger();
+
+    // Construtor privado (padrão Singleton)
+    private DiretorioVendedores() {
+    }
+
+    /**
+     * Retorna a instância única do cadastro (Padrão Singleton)
+     * @return A instância do cadastro
+     */
+    public static synchronized DiretorioVendedores getInstance() {
+        if (instance == null) {
+            instance = new DiretorioVendedores();
+        }
+        return instance;
+    }
+
+    /**
+     * Lista os vendedores ativos em ordem de nome
+     * @return Cópia da lista de vendedores
+     * @throws SQLException Se a carga do cadastro falhar
+     */
+    public List<Usuario> getVendedores() throws SQLException {
+        return new ArrayList<>(obterCadastro().vendedores());
+    }
+
+    /**
+     * Busca o vendedor pelo login e, se não encontrar, pelo nome
+     * @param loginOuNome Login ou nome exibido na seleção de vendedor
+     * @return O usuário encontrado ou null
+     * @throws SQLException Em caso de erro no banco de dados
+     */
+    public Usuario buscar(String loginOuNome) throws SQLException {
+        if (loginOuNome == null) {
+            return null;
+        }
+        Cadastro atual = obterCadastro();
+        Usuario vendedor = atual.porLogin().get(loginOuNome);
+        if (vendedor == null) {
+            vendedor = atual.porNome().get(loginOuNome);
+        }
+        if (vendedor != null) {
+            return vendedor;
+        }
+
+        UsuarioDAO usuarioDAO = UsuarioDAO.getInstance();
+        vendedor = usuarioDAO.findByLogin(loginOuNome);
+        return vendedor != null ? vendedor : usuarioDAO.findByNome(loginOuNome);
+    }
+
+    /**
+     * Busca o vendedor pelo ID
+     * @param id ID do usuário
+     * @return O usuário encontrado ou null
+     * @throws SQLException Em caso de erro no banco de dados
+     */
+    public Usuario buscarPorId(Integer id) throws SQLException {
+        if (id == null) {
+            return null;
+        }
+        Usuario vendedor = obterCadastro().porId().get(id);
+        return vendedor != null ? vendedor : UsuarioDAO.getInstance().findById(id);
+    }
+
+    /**
+     * Descarta o cadastro para que seja relido na próxima busca; chamado após gravar um
+     * usuário
+     */
+    public void invalidar() {
+        versao.incrementAndGet();
+        cadastro = null;
+    }
+
+    private Cadastro obterCadastro() throws SQLException {
+        Cadastro atual = cadastro;
+        if (atual == null) {
+            synchronized (this) {
+                atual = cadastro;
+                if (atual == null) {
+                    int versaoCarga = versao.get();
+                    atual = carregar();
+                    if (versaoCarga == versao.get()) {
+                        cadastro = atual;
+                    }
+                }
+            }
+        }
+        return atual;
+    }
+
+    private Cadastro carregar() throws SQLException {
+        List<Usuario> vendedores = UsuarioDAO.getInstance().findByPerfil(PERFIL_VENDEDOR);
+        Map<Integer, Usuario> porId = new HashMap<>();
+        Map<String, Usuario> porLogin = new HashMap<>();
+        Map<String, Usuario> porNome = new HashMap<>();
+        for (Usuario vendedor : vendedores) {
+            porId.put(vendedor.getId(), vendedor);
+            if (vendedor.getLogin() != null) {
+                porLogin.putIfAbsent(vendedor.getLogin(), vendedor);
+            }
+            if (vendedor.getNome() != null) {
+                porNome.putIfAbsent(vendedor.getNome(), vendedor);
+            }
+        }
+        LogUtil.info(DiretorioVendedores.class, "Cadastro de vendedores carregado: " + vendedores.size() + " vendedores");
+        return new Cadastro(Collections.unmodifiableList(vendedores), porId, porLogin, porNome);
+    }
+}
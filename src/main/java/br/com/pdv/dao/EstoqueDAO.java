@@ -0,0 +1,139 @@
+package br.com.pdv.dao;
+
+import br.com.pdv.model.ItemPedido;
+import br.com.pdv.model.Produto;
+import br.com.pdv.util.LogUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Classe DAO para a movimentação de estoque dos produtos.
+ *
+ * A baixa é feita por um UPDATE condicional por produto, que decrementa o estoque no
+ * próprio banco e só afeta a linha se houver estoque suficiente. Não há leitura do produto
+ * antes da alteração: dois terminais vendendo o mesmo produto não perdem atualizações nem
+ * deixam o estoque negativo. Os comandos de uma venda vão em um único lote, em ordem de ID
+ * do produto, para que transações concorrentes bloqueiem as linhas na mesma ordem e não
+ * entrem em deadlock.
+ */
+public class EstoqueDAO {
+    private static EstoqueDAO instance;
+
+    private static final String SQL_BAIXA = "UPDATE produtos SET estoque_atual = estoque_atual - ?, " +
+            "data_atualizacao = ? WHERE id = ? AND estoque_atual >= ?";
+    private static final String SQL_SELECT_ESTOQUE = "SELECT id, nome, estoque_atual FROM produtos WHERE id IN (%s)";
+
+    // Construtor privado (padrão Singleton)
+    private EstoqueDAO() {
+    }
+
+    /**
+     * Retorna a instância única do DAO (Padrão Singleton)
+     * @return A instância do DAO
+     */
+    public static synchronized EstoqueDAO getInstance() {
+        if (instance == null) {
+            instance = new EstoqueDAO();
+        }
+        return instance;
+    }
+
+    /**
+     * Dá baixa no estoque dos produtos dos itens de uma venda, somando as quantidades de
+     * itens do mesmo produto
+     * @param itens Itens da venda
+     * @param conn Conexão da transação da venda (não é fechada)
+     * @return O resultado da baixa, com os produtos sem estoque suficiente
+     * @throws SQLException em caso de erro no banco de dados
+     */
+    public ResultadoBaixaEstoque darBaixa(List<ItemPedido> itens, Connection conn) throws SQLException {
+        Map<Integer, Integer> quantidades = new HashMap<>();
+        for (ItemPedido item : itens) {
+            Objects.requireNonNull(item.getProduto(), "Item sem produto");
+            Objects.requireNonNull(item.getProduto().getId(), "Produto do item sem ID");
+            quantidades.merge(item.getProduto().getId(), item.getQuantidade(), Integer::sum);
+        }
+        return darBaixa(quantidades, conn);
+    }
+
+    /**
+     * Dá baixa no estoque dos produtos em um único lote, em ordem de ID do produto.
+     * Produtos sem estoque suficiente não são alterados e são retornados como faltas; com
+     * faltas, quem chamou deve reverter a transação.
+     * @param quantidades Quantidade a baixar por ID do produto
+     * @param conn Conexão da transação da venda (não é fechada)
+     * @return O resultado da baixa, com os produtos sem estoque suficiente
+     * @throws SQLException em caso de erro no banco de dados
+     */
+    public ResultadoBaixaEstoque darBaixa(Map<Integer, Integer> quantidades, Connection conn) throws SQLException {
+        SortedMap<Integer, Integer> emOrdem = new TreeMap<>(quantidades);
+        if (emOrdem.isEmpty()) {
+            return new ResultadoBaixaEstoque(0, Collections.emptyList());
+        }
+
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        List<Map.Entry<Integer, Integer>> linhas = new ArrayList<>(emOrdem.entrySet());
+        int[] afetadas = JdbcTemplate.getInstance().batchUpdate(conn, SQL_BAIXA, linhas,
+                e -> new Object[] { e.getValue(), agora, e.getKey(), e.getValue() });
+
+        // Um UPDATE sem linha afetada indica estoque insuficiente ou produto inexistente
+        SortedMap<Integer, Integer> semBaixa = new TreeMap<>();
+        for (int i = 0; i < linhas.size(); i++) {
+            Integer produtoId = linhas.get(i).getKey();
+            IdentityMap.remover(Produto.class, produtoId);
+            if (afetadas[i] == 0) {
+                semBaixa.put(produtoId, linhas.get(i).getValue());
+            }
+        }
+
+        List<ResultadoBaixaEstoque.Falta> faltas = semBaixa.isEmpty()
+                ? Collections.emptyList() : consultarFaltas(semBaixa, conn);
+        ResultadoBaixaEstoque resultado = new ResultadoBaixaEstoque(linhas.size() - semBaixa.size(), faltas);
+
+        if (resultado.isCompleta()) {
+            LogUtil.info(EstoqueDAO.class, "Baixa de estoque realizada: " + linhas.size() + " produtos");
+        } else {
+            LogUtil.warn(EstoqueDAO.class, "Baixa de estoque incompleta: " + resultado.descreverFaltas());
+        }
+        return resultado;
+    }
+
+    /**
+     * Lê o estoque atual dos produtos que não tiveram baixa, para informar as faltas
+     */
+    private List<ResultadoBaixaEstoque.Falta> consultarFaltas(SortedMap<Integer, Integer> semBaixa, Connection conn)
+            throws SQLException {
+        String sql = String.format(SQL_SELECT_ESTOQUE, String.join(",", Collections.nCopies(semBaixa.size(), "?")));
+        Map<Integer, ResultadoBaixaEstoque.Falta> existentes = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            JdbcTemplate.definirParametros(stmt, semBaixa.keySet().toArray());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt("id");
+                    existentes.put(id, new ResultadoBaixaEstoque.Falta(id, rs.getString("nome"),
+                            semBaixa.get(id), rs.getInt("estoque_atual")));
+                }
+            }
+        }
+
+        List<ResultadoBaixaEstoque.Falta> faltas = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> e : semBaixa.entrySet()) {
+            ResultadoBaixaEstoque.Falta falta = existentes.get(e.getKey());
+            faltas.add(falta != null ? falta : new ResultadoBaixaEstoque.Falta(e.getKey(), null, e.getValue(), null));
+        }
+        return faltas;
+    }
+}
@@ -0,0 +1,174 @@
+package br.com.pdv.dao;
+
+import br.com.pdv.util.LogUtil;
+import br.com.pdv.util.TransactionManager.TransactionWork;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mapa de identidade de uma unidade de trabalho, vinculado à thread atual.
+ *
+ * Dentro de {@link #emEscopo(TransactionWork)}, as buscas por ID de Usuario, Cliente e
+ * Produto consultam o mapa antes de ir ao banco: cada linha é lida no máximo uma vez por
+ * operação e todas as referências a ela compartilham a mesma instância. Também é lembrado
+ * que um ID não existe, para não repetir a consulta.
+ *
+ * Fora de um escopo os DAOs se comportam como antes, sem cache. O escopo é curto (uma
+ * listagem, um relatório, uma carga do dashboard) e termina ao final do trabalho, então
+ * não há dados antigos entre operações. Alterações feitas pelos DAOs durante o escopo
+ * removem a entidade do mapa.
+ */
+public final class IdentityMap {
+
+    /**
+     * Carrega uma entidade pelo ID
+     */
+    @FunctionalInterface
+    interface Carregador<K, T> {
+        T carregar(K id) throws SQLException;
+    }
+
+    /**
+     * Carrega várias entidades pelos IDs
+     */
+    @FunctionalInterface
+    interface CarregadorEmLote<K, T> {
+        Map<K, T> carregar(Collection<K> ids) throws SQLException;
+    }
+
+    // Marca IDs consultados que não existem no banco
+    private static final Object NAO_ENCONTRADO = new Object();
+
+    private static final ThreadLocal<Escopo> ESCOPO_ATUAL = new ThreadLocal<>();
+
+    private IdentityMap() {
+    }
+
+    /**
+     * Executa o trabalho com um mapa de identidade. Se já houver um escopo ativo na thread,
+     * o trabalho participa dele.
+     *
+     * @param trabalho O trabalho a executar
+     * @return O resultado do trabalho
+     * @throws SQLException Se o trabalho falhar
+     */
+    public static <T> T emEscopo(TransactionWork<T> trabalho) throws SQLException {
+        if (ESCOPO_ATUAL.get() != null) {
+            return trabalho.executar();
+        }
+
+        Escopo escopo = new Escopo();
+        ESCOPO_ATUAL.set(escopo);
+        try {
+            return trabalho.executar();
+        } finally {
+            ESCOPO_ATUAL.remove();
+            if (escopo.acertos > 0) {
+                LogUtil.debug(IdentityMap.class, String.format(
+                        "Mapa de identidade: %d entidades carregadas, %d buscas atendidas sem consulta",
+                        escopo.carregadas, escopo.acertos));
+            }
+        }
+    }
+
+    /**
+     * Verifica se há um escopo ativo na thread atual
+     */
+    public static boolean isAtivo() {
+        return ESCOPO_ATUAL.get() != null;
+    }
+
+    /**
+     * Busca a entidade no mapa ou, se ainda não foi consultada, pelo carregador
+     */
+    static <K, T> T buscar(Class<T> tipo, K id, Carregador<K, T> carregador) throws SQLException {
+        Escopo escopo = ESCOPO_ATUAL.get();
+        if (escopo == null || id == null) {
+            return carregador.carregar(id);
+        }
+
+        Map<Object, Object> entidades = escopo.entidades(tipo);
+        Object existente = entidades.get(id);
+        if (existente != null) {
+            escopo.acertos++;
+            return existente == NAO_ENCONTRADO ? null : tipo.cast(existente);
+        }
+
+        T carregada = carregador.carregar(id);
+        entidades.put(id, carregada != null ? carregada : NAO_ENCONTRADO);
+        escopo.carregadas++;
+        return carregada;
+    }
+
+    /**
+     * Busca as entidades no mapa e carrega em lote apenas os IDs ainda não consultados
+     *
+     * @return Mapa do ID para a entidade; IDs inexistentes não aparecem no mapa
+     */
+    static <K, T> Map<K, T> buscarTodos(Class<T> tipo, Collection<K> ids, CarregadorEmLote<K, T> carregador)
+            throws SQLException {
+        Escopo escopo = ESCOPO_ATUAL.get();
+        if (escopo == null) {
+            return carregador.carregar(ids);
+        }
+
+        Map<Object, Object> entidades = escopo.entidades(tipo);
+        Map<K, T> resultado = new HashMap<>();
+        Set<K> faltantes = new LinkedHashSet<>();
+        for (K id : ids) {
+            if (id == null) {
+                continue;
+            }
+            Object existente = entidades.get(id);
+            if (existente == null) {
+                faltantes.add(id);
+            } else {
+                escopo.acertos++;
+                if (existente != NAO_ENCONTRADO) {
+                    resultado.put(id, tipo.cast(existente));
+                }
+            }
+        }
+
+        if (!faltantes.isEmpty()) {
+            Map<K, T> carregadas = carregador.carregar(faltantes);
+            for (K id : faltantes) {
+                T carregada = carregadas.get(id);
+                entidades.put(id, carregada != null ? carregada : NAO_ENCONTRADO);
+                if (carregada != null) {
+                    resultado.put(id, carregada);
+                }
+            }
+            escopo.carregadas += faltantes.size();
+        }
+        return resultado;
+    }
+
+    /**
+     * Remove a entidade do mapa do escopo atual, se houver, após uma alteração no banco
+     */
+    static void remover(Class<?> tipo, Object id) {
+        Escopo escopo = ESCOPO_ATUAL.get();
+        if (escopo != null && id != null) {
+            escopo.entidades(tipo).remove(id);
+        }
+    }
+
+    /**
+     * Entidades de uma unidade de trabalho, por tipo e ID
+     */
+    private static final class Escopo {
+        private final Map<Class<?>, Map<Object, Object>> porTipo = new HashMap<>();
+        private int carregadas;
+        private int acertos;
+
+        private Map<Object, Object> entidades(Class<?> tipo) {
+            return porTipo.computeIfAbsent(tipo, k -> new HashMap<>());
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package br.com.pdv.dao;
+
+import br.com.pdv.model.Produto;
+import br.com.pdv.util.LogUtil;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Índice em memória dos produtos ativos por código e por código de barras, para que a
+ * leitura de um produto no caixa não precise consultar o banco.
+ *
+ * O índice é carregado em segundo plano ao iniciar o PDV e atualizado a cada
+ * {@link #INTERVALO_ATUALIZACAO_MS} ms com os produtos alterados desde a última leitura
+ * (data_atualizacao, com uma margem para diferenças de relógio entre os terminais) ou
+ * criados depois dela. As alterações de cadastro feitas por este terminal (ProdutoDAO)
+ * removem o produto do índice na hora; ele volta na próxima busca. A baixa de estoque
+ * não remove o produto, para que os itens mais vendidos continuem no índice.
+ *
+ * Um código que não está no índice é buscado no banco. Os produtos do índice são
+ * compartilhados e não devem ser alterados por quem os recebe; o estoque deles pode estar
+ * defasado e a verificação definitiva é a baixa na gravação da venda.
+ */
+public final class IndiceProdutos {
+
+    /** Intervalo entre as atualizações incrementais do índice */
+    public static final long INTERVALO_ATUALIZACAO_MS = 30_000;
+
+    // Produtos alterados até este tempo antes da última leitura são lidos de novo
+    private static final long MARGEM_ATUALIZACAO_SEGUNDOS = 120;
+
+    private static IndiceProdutos instance;
+
+    private final Map<String, Produto> porCodigo = new ConcurrentHashMap<>();
+    private final Map<String, Produto> porCodigoBarra = new ConcurrentHashMap<>();
+    private final Map<Integer, Produto> porId = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor;
+
+    private volatile boolean carregado;
+    private LocalDateTime ultimaLeitura;
+    private volatile int ultimoId;
+    private boolean iniciado;
+
+    // Construtor privado (padrão Singleton)
+    private IndiceProdutos() {
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pdv-indice-produtos");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Retorna a instância única do índice (Padrão Singleton)
+     * @return A instância do índice
+     */
+    public static synchronized IndiceProdutos getInstance() {
+        if (instance == null) {
+            instance = new IndiceProdutos();
+        }
+        return instance;
+    }
+
+    /**
+     * Agenda a carga do índice e as atualizações periódicas. Chamadas repetidas são ignoradas.
+     */
+    public synchronized void iniciar() {
+        if (iniciado) {
+            return;
+        }
+        iniciado = true;
+        executor.scheduleWithFixedDelay(this::sincronizar, 0, INTERVALO_ATUALIZACAO_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Busca um produto ativo no índice, sem acessar o banco; pode ser chamado na thread do
+     * JavaFX
+     * @param codigo O código ou código de barras lido
+     * @return O produto ou null se o código não estiver no índice
+     */
+    public Produto buscarNoIndice(String codigo) {
+        if (codigo == null || codigo.isBlank()) {
+            return null;
+        }
+        String chave = codigo.trim();
+        Produto produto = porCodigo.get(chave);
+        return produto != null ? produto : porCodigoBarra.get(chave);
+    }
+
+    /**
+     * Busca um produto pelo código ou código de barras, no índice e, se não estiver nele,
+     * no banco de dados
+     * @param codigo O código ou código de barras lido
+     * @return O produto encontrado ou null
+     * @throws SQLException Em caso de erro no banco de dados
+     */
+    public Produto buscarPorCodigo(String codigo) throws SQLException {
+        Produto produto = buscarNoIndice(codigo);
+        if (produto != null || codigo == null || codigo.isBlank()) {
+            return produto;
+        }
+        produto = ProdutoDAO.getInstance().findByCodigoOuCodigoBarra(codigo.trim());
+        if (produto != null && carregado) {
+            indexar(produto);
+        }
+        return produto;
+    }
+
+    /**
+     * Remove um produto do índice após uma alteração; ele é lido de novo na próxima busca
+     * @param produtoId ID do produto
+     */
+    public void invalidar(Integer produtoId) {
+        if (produtoId == null) {
+            return;
+        }
+        synchronized (porId) {
+            Produto anterior = porId.remove(produtoId);
+            if (anterior != null) {
+                removerChaves(anterior);
+            }
+        }
+    }
+
+    /**
+     * Número de produtos no índice
+     */
+    public int getTamanho() {
+        return porId.size();
+    }
+
+    /**
+     * Verifica se a carga inicial já terminou
+     */
+    public boolean isCarregado() {
+        return carregado;
+    }
+
+    /**
+     * Carrega o índice na primeira execução e depois lê só os produtos alterados. Um erro
+     * de banco é registrado e a leitura é repetida no próximo intervalo.
+     */
+    private void sincronizar() {
+        try {
+            if (!carregado) {
+                carregar();
+            } else {
+                atualizar();
+            }
+        } catch (SQLException | RuntimeException e) {
+            LogUtil.warn(IndiceProdutos.class, "Não foi possível atualizar o índice de produtos: " + e.getMessage());
+        }
+    }
+
+    private void carregar() throws SQLException {
+        long inicio = System.nanoTime();
+        LocalDateTime leitura = LocalDateTime.now();
+        List<Produto> produtos = ProdutoDAO.getInstance().findAllAtivos();
+        for (Produto produto : produtos) {
+            indexar(produto);
+        }
+        ultimaLeitura = leitura;
+        carregado = true;
+        LogUtil.info(IndiceProdutos.class, String.format("Índice de produtos carregado: %d produtos em %d ms",
+                porId.size(), (System.nanoTime() - inicio) / 1_000_000));
+    }
+
+    private void atualizar() throws SQLException {
+        LocalDateTime leitura = LocalDateTime.now();
+        List<Produto> alterados = ProdutoDAO.getInstance().findAlteradosDesde(
+                ultimaLeitura.minusSeconds(MARGEM_ATUALIZACAO_SEGUNDOS), ultimoId);
+        for (Produto produto : alterados) {
+            indexar(produto);
+        }
+        ultimaLeitura = leitura;
+        if (!alterados.isEmpty()) {
+            LogUtil.debug(IndiceProdutos.class, "Índice de produtos atualizado: " + alterados.size() + " produtos lidos");
+        }
+    }
+
+    /**
+     * Inclui ou substitui o produto no índice; produtos inativos são removidos
+     */
+    private void indexar(Produto produto) {
+        if (produto.getId() == null) {
+            return;
+        }
+        synchronized (porId) {
+            ultimoId = Math.max(ultimoId, produto.getId());
+            Produto anterior = produto.isAtivo() ? porId.put(produto.getId(), produto) : porId.remove(produto.getId());
+            if (anterior != null) {
+                removerChaves(anterior);
+            }
+            if (produto.isAtivo()) {
+                if (produto.getCodigo() != null && !produto.getCodigo().isBlank()) {
+                    porCodigo.put(produto.getCodigo().trim(), produto);
+                }
+                if (produto.getCodigoBarra() != null && !produto.getCodigoBarra().isBlank()) {
+                    porCodigoBarra.put(produto.getCodigoBarra().trim(), produto);
+                }
+            }
+        }
+    }
+
+    private void removerChaves(Produto produto) {
+        if (produto.getCodigo() != null) {
+            porCodigo.remove(produto.getCodigo().trim(), produto);
+        }
+        if (produto.getCodigoBarra() != null) {
+            porCodigoBarra.remove(produto.getCodigoBarra().trim(), produto);
+        }
+    }
+}
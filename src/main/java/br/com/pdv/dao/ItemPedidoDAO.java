@@ -2,6 +2,7 @@ package br.com.pdv.dao;
 
 import br.com.pdv.controller.DashboardController;
 import br.com.pdv.model.ItemPedido;
+import br.com.pdv.model.ItemPedidoResumo;
 import br.com.pdv.model.Pedido;
 import br.com.pdv.model.Produto;
 import br.com.pdv.util.DatabaseConnection;
@@ -14,8 +15,13 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ItemPedidoDAO {
     private static ItemPedidoDAO instance;
@@ -24,6 +30,9 @@ public class ItemPedidoDAO {
     private static final String SQL_INSERT = 
         "INSERT INTO itens_pedido (pedido_id, produto_id, quantidade, " +
         "preco_unitario, desconto) VALUES (?, ?, ?, ?, ?)";
+    // Mesmas colunas de create(item, conn)
+    private static final String SQL_INSERT_LOTE = 
+        "INSERT INTO itens_pedido (pedido_id, produto_id, quantidade, preco_unitario) VALUES (?, ?, ?, ?)";
         
     private static final String SQL_UPDATE = 
         "UPDATE itens_pedido SET quantidade = ?, preco_unitario = ?, " +
@@ -33,7 +42,17 @@ public class ItemPedidoDAO {
     private static final String SQL_DELETE_BY_PEDIDO = "DELETE FROM itens_pedido WHERE pedido_id = ?";
     private static final String SQL_SELECT_BY_ID = "SELECT * FROM itens_pedido WHERE id = ?";
     private static final String SQL_SELECT_BY_PEDIDO = "SELECT * FROM itens_pedido WHERE pedido_id = ?";
+    private static final String SQL_SELECT_BY_PEDIDOS =
+        "SELECT * FROM itens_pedido WHERE pedido_id IN (" + JdbcTemplate.MARCADOR_IN + ") ORDER BY pedido_id, id";
     private static final String SQL_SELECT_ALL = "SELECT * FROM itens_pedido ORDER BY id";
+    private static final String SQL_SELECT_RESUMO_BY_PERIODO =
+        "SELECT ip.id, v.id AS venda_id, v.data_venda, v.status, ip.produto_id, p.codigo, p.nome, " +
+        "ip.quantidade, ip.preco_unitario, ip.desconto " +
+        "FROM vendas v " +
+        "JOIN itens_pedido ip ON ip.pedido_id = v.pedido_id " +
+        "LEFT JOIN produtos p ON p.id = ip.produto_id " +
+        "WHERE v.data_venda BETWEEN ? AND ? " +
+        "ORDER BY v.data_venda, v.id, ip.id";
     
     private ItemPedidoDAO() {
         this.databaseConnection = DatabaseConnection.getInstance();
@@ -120,7 +139,7 @@ public class ItemPedidoDAO {
         ResultSet rs = null;
         
         try {
-            conn = DatabaseConnection.getInstance().getConnection();
+            conn = DatabaseConnection.getInstance().getReadConnection();
             
             String sql = "SELECT p.id, p.nome, " +
                          "SUM(ip.quantidade) as quantidade_total, " +
@@ -210,7 +229,93 @@ public class ItemPedidoDAO {
         }
     }
 
+    /**
+     * Busca os itens de vários pedidos de uma vez: uma consulta IN para os itens e
+     * outra para os produtos, em vez de uma consulta por pedido e por item.
+     *
+     * @param pedidos Os pedidos, que são associados aos seus itens
+     * @return Mapa do ID do pedido para os seus itens; pedidos sem itens não aparecem no mapa
+     * @throws SQLException Se ocorrer um erro de SQL
+     */
+    public Map<Integer, List<ItemPedido>> findByPedidos(Collection<Pedido> pedidos) throws SQLException {
+        Map<Integer, List<ItemPedido>> itensPorPedido = new HashMap<>();
+        if (pedidos.isEmpty()) {
+            return itensPorPedido;
+        }
+        
+        Map<Integer, Pedido> pedidosPorId = new HashMap<>();
+        for (Pedido pedido : pedidos) {
+            pedidosPorId.put(pedido.getId(), pedido);
+        }
+        
+        try {
+            List<LinhaItem> linhas = JdbcTemplate.getInstance().queryIn(SQL_SELECT_BY_PEDIDOS, pedidosPorId.keySet(),
+                rs -> new LinhaItem(rs.getInt("id"), rs.getInt("pedido_id"), rs.getInt("produto_id"),
+                    rs.getInt("quantidade"), rs.getBigDecimal("preco_unitario"), rs.getBigDecimal("desconto")));
+            
+            List<Integer> produtoIds = new ArrayList<>();
+            for (LinhaItem linha : linhas) {
+                produtoIds.add(linha.produtoId());
+            }
+            Map<Integer, Produto> produtos = ProdutoDAO.getInstance().findByIds(produtoIds);
+            
+            for (LinhaItem linha : linhas) {
+                Produto produto = produtos.get(linha.produtoId());
+                if (produto == null) {
+                    LogUtil.warn(ItemPedidoDAO.class, String.format(
+                        "Produto ID %d do item %d não encontrado; item ignorado", linha.produtoId(), linha.id()));
+                    continue;
+                }
+                ItemPedido itemPedido = new ItemPedido(produto, linha.quantidade());
+                itemPedido.setId(linha.id());
+                itemPedido.setPedido(pedidosPorId.get(linha.pedidoId()));
+                itemPedido.setValorUnitario(linha.precoUnitario());
+                itemPedido.setDesconto(linha.desconto());
+                itensPorPedido.computeIfAbsent(linha.pedidoId(), k -> new ArrayList<>()).add(itemPedido);
+            }
+            return itensPorPedido;
+        } catch (SQLException e) {
+            LogUtil.error(ItemPedidoDAO.class, "Erro ao buscar itens dos pedidos: " + e.getMessage(), e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Percorre em fluxo os itens de todas as vendas do período, em ordem de data da venda,
+     * sem manter os itens em memória. Usa a réplica de leitura quando configurada.
+     * Para exportações e relatórios de períodos longos.
+     *
+     * @param dataInicio Data de início do período
+     * @param dataFim Data de fim do período
+     * @param processador Recebe cada item; retorna false para encerrar
+     * @param cancelamento Permite cancelar a consulta (pode ser nulo)
+     * @return Número de itens processados
+     * @throws SQLException Em caso de erro no banco de dados ou cancelamento
+     */
+    public long percorrerResumosPorPeriodo(LocalDateTime dataInicio, LocalDateTime dataFim,
+            ProcessadorLinha<? super ItemPedidoResumo> processador, Cancelamento cancelamento) throws SQLException {
+        return JdbcTemplate.getLeitura().queryEmFluxo(SQL_SELECT_RESUMO_BY_PERIODO, rs -> {
+            Timestamp dataVenda = rs.getTimestamp("data_venda");
+            return new ItemPedidoResumo(rs.getInt("id"), rs.getInt("venda_id"),
+                dataVenda != null ? dataVenda.toLocalDateTime() : null, rs.getString("status"),
+                rs.getInt("produto_id"), rs.getString("codigo"), rs.getString("nome"), rs.getInt("quantidade"),
+                rs.getBigDecimal("preco_unitario"), rs.getBigDecimal("desconto"));
+        }, processador, cancelamento, dataInicio, dataFim);
+    }
+    
+    /**
+     * Colunas de uma linha de itens_pedido, lidas antes de os produtos serem carregados
+     */
+    private record LinhaItem(int id, int pedidoId, int produtoId, int quantidade,
+                             BigDecimal precoUnitario, BigDecimal desconto) {
+    }
+
     public List<ItemPedido> findAll() throws SQLException {
+        // O produto de cada linha é buscado uma única vez, mesmo que se repita em vários itens
+        return IdentityMap.emEscopo(this::carregarTodos);
+    }
+
+    private List<ItemPedido> carregarTodos() throws SQLException {
         List<ItemPedido> itens = new ArrayList<>();
         
         try (Connection conn = databaseConnection.getConnection();
@@ -285,6 +390,34 @@ public class ItemPedidoDAO {
     
     
     
+    /**
+     * Cria os itens de pedido em lote usando uma conexão fornecida: uma única ida ao banco
+     * por lote, em vez de uma por item. Os IDs gerados são definidos nos itens.
+     * 
+     * @param itens Os itens a criar, cada um com o seu pedido e produto
+     * @param conn A conexão com o banco de dados (normalmente a da transação)
+     * @return Os itens criados, com os IDs gerados
+     * @throws SQLException Se ocorrer um erro de SQL
+     */
+    public List<ItemPedido> createAll(List<ItemPedido> itens, Connection conn) throws SQLException {
+        try {
+            List<Long> ids = JdbcTemplate.getInstance().batchInsert(conn, SQL_INSERT_LOTE, itens, item -> new Object[] {
+                item.getPedido().getId(), item.getProduto().getId(), item.getQuantidade(), item.getValorUnitario()
+            });
+            for (int i = 0; i < itens.size(); i++) {
+                itens.get(i).setId(ids.get(i).intValue());
+            }
+            if (!itens.isEmpty()) {
+                LogUtil.info(ItemPedidoDAO.class, String.format("%d itens criados para o pedido ID: %d",
+                    itens.size(), itens.get(0).getPedido().getId()));
+            }
+            return itens;
+        } catch (SQLException e) {
+            LogUtil.error(ItemPedidoDAO.class, "Erro ao criar itens do pedido: " + e.getMessage(), e);
+            throw e;
+        }
+    }
+    
     public boolean update(ItemPedido itemPedido) throws SQLException {
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(SQL_UPDATE)) {
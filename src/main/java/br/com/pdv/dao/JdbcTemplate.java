@@ -0,0 +1,514 @@
+package br.com.pdv.dao;
+
+import br.com.pdv.util.DatabaseConnection;
+import br.com.pdv.util.LogUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Núcleo de execução de SQL compartilhado pelos DAOs.
+ *
+ * Centraliza a obtenção e devolução da conexão, a ligação dos parâmetros, o mapeamento
+ * das linhas, o tamanho de fetch, a execução em lote e a medição de tempo das consultas.
+ * Todos os statements são preparados com prepareStatement(sql), e portanto reaproveitados
+ * pelo cache de statements do pool.
+ *
+ * Parâmetros são ligados com setObject, com conversão de LocalDateTime para Timestamp,
+ * LocalDate para Date e enums para o nome da constante.
+ */
+public class JdbcTemplate {
+
+    /**
+     * Fornece a conexão usada por cada operação; a conexão é fechada ao final da operação
+     */
+    @FunctionalInterface
+    public interface ConnectionProvider {
+        Connection getConnection() throws SQLException;
+    }
+
+    // Consultas acima deste tempo são registradas no log como lentas
+    private static final long CONSULTA_LENTA_MS = 500;
+    private static final int TAMANHO_LOTE_PADRAO = 500;
+    // Linhas buscadas do servidor por vez nas consultas em fluxo (cursor do MySQL)
+    public static final int TAMANHO_FETCH_FLUXO = 1000;
+    // Máximo de valores por cláusula IN; listas maiores são divididas em blocos
+    private static final int TAMANHO_MAXIMO_IN = 512;
+    public static final String MARCADOR_IN = "{lista}";
+
+    private static JdbcTemplate instance;
+    private static JdbcTemplate leitura;
+
+    private final String nome;
+    private final ConnectionProvider connectionProvider;
+
+    // Métricas
+    private final AtomicLong totalConsultas = new AtomicLong();
+    private final AtomicLong totalAtualizacoes = new AtomicLong();
+    private final AtomicLong totalLotes = new AtomicLong();
+    private final AtomicLong totalLentas = new AtomicLong();
+    private final AtomicLong tempoTotalNanos = new AtomicLong();
+
+    JdbcTemplate(String nome, ConnectionProvider connectionProvider) {
+        this.nome = nome;
+        this.connectionProvider = connectionProvider;
+    }
+
+    /**
+     * Retorna o template que usa o banco primário
+     * @return Instância do template
+     */
+    public static synchronized JdbcTemplate getInstance() {
+        if (instance == null) {
+            instance = new JdbcTemplate("primario", () -> DatabaseConnection.getInstance().getConnection());
+        }
+        return instance;
+    }
+
+    /**
+     * Retorna o template para consultas pesadas somente leitura (relatórios, dashboard),
+     * que usa a réplica de leitura quando configurada
+     * @return Instância do template de leitura
+     */
+    public static synchronized JdbcTemplate getLeitura() {
+        if (leitura == null) {
+            leitura = new JdbcTemplate("leitura", () -> DatabaseConnection.getInstance().getReadConnection());
+        }
+        return leitura;
+    }
+
+    /**
+     * Executa uma consulta e mapeia todas as linhas
+     * @param sql SQL da consulta
+     * @param mapper Mapeador de linhas
+     * @param params Parâmetros da consulta
+     * @return Lista com as linhas mapeadas (vazia se não houver resultado)
+     * @throws SQLException em caso de erro no banco de dados
+     */
+    public <T> List<T> query(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        List<T> resultado = new ArrayList<>();
+        queryForEach(sql, 0, mapper, resultado::add, params);
+        return resultado;
+    }
+
+    /**
+     * Executa uma consulta e mapeia a primeira linha
+     * @param sql SQL da consulta
+     * @param mapper Mapeador de linhas
+     * @param params Parâmetros da consulta
+     * @return Objeto mapeado ou null se não houver resultado
+     * @throws SQLException em caso de erro no banco de dados
+     */
+    public <T> T queryForObject(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        long inicio = System.nanoTime();
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            definirParametros(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? mapper.mapRow(rs) : null;
+            }
+        } finally {
+            registrarTempo(totalConsultas, sql, inicio);
+        }
+    }
+
+    /**
+     * Executa uma consulta que retorna um único número (COUNT, SUM...)
+     * @return O valor da primeira coluna da primeira linha, ou 0 se for nulo
+     * @throws SQLException em caso de erro no banco de dados
+     */
+    public long queryForLong(String sql, Object... params) throws SQLException {
+        Long valor = queryForObject(sql, rs -> rs.getLong(1), params);
+        return valor != null ? valor : 0L;
+    }
+
+    /**
+     * Executa uma consulta entregando as linhas uma a uma ao consumidor, sem acumular o
+     * resultado em memória. Com fetchSize maior que zero, o driver busca as linhas do
+     * servidor em blocos desse tamanho.
+     * @param sql SQL da consulta
+     * @param fetchSize Número de linhas buscadas por vez (0 usa o padrão do driver)
+     * @param mapper Mapeador de linhas
+     * @param consumidor Recebe cada linha mapeada
+     * @param params Parâmetros da consulta
+     * @return Número de linhas processadas
+     * @throws SQLException em caso de erro no banco de dados
+     */
+    public <T> int queryForEach(String sql, int fetchSize, RowMapper<T> mapper, Consumer<? super T> consumidor,
+            Object... params) throws SQLException {
+        return (int) executarConsulta(sql, fetchSize, mapper, linha -> {
+            consumidor.accept(linha);
+            return true;
+        }, null, params);
+    }
+
+    /**
+     * Percorre o resultado de uma consulta em fluxo, com memória constante independente do
+     * número de linhas: o driver lê as linhas do servidor em blocos de
+     * {@link #TAMANHO_FETCH_FLUXO} por meio de um cursor (useCursorFetch), e cada linha é
+     * entregue ao processador e descartada. Usado em exportações e relatórios de períodos longos.
+     *
+     * A consulta termina quando as linhas acabam, quando o processador retorna false, quando o
+     * cancelamento é solicitado ou a thread é interrompida (SQLException com SQLState
+     * {@link Cancelamento#SQLSTATE_CANCELADA}). Em todos os casos o cursor e a conexão são
+     * fechados antes do retorno.
+     *
+     * @param sql SQL da consulta
+     * @param mapper Mapeador de linhas
+     * @param processador Recebe cada linha mapeada
+     * @param cancelamento Permite cancelar a consulta de outra thread (pode ser nulo)
+     * @param params Parâmetros da consulta
+     * @return Número de linhas processadas
+     * @throws SQLException em caso de erro no banco de dados, no processador ou cancelamento
+     */
+    public <T> long queryEmFluxo(String sql, RowMapper<T> mapper, ProcessadorLinha<? super T> processador,
+            Cancelamento cancelamento, Object... params) throws SQLException {
+        return executarConsulta(sql, TAMANHO_FETCH_FLUXO, mapper, processador, cancelamento, params);
+    }
+
+    private <T> long executarConsulta(String sql, int fetchSize, RowMapper<T> mapper,
+            ProcessadorLinha<? super T> processador, Cancelamento cancelamento, Object... params) throws SQLException {
+        long inicio = System.nanoTime();
+        long linhas = 0;
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            if (fetchSize > 0) {
+                stmt.setFetchSize(fetchSize);
+            }
+            definirParametros(stmt, params);
+            if (cancelamento != null) {
+                verificarCancelamento(cancelamento);
+                cancelamento.iniciar(stmt);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (cancelamento != null) {
+                        verificarCancelamento(cancelamento);
+                    }
+                    linhas++;
+                    if (!processador.processar(mapper.mapRow(rs))) {
+                        break;
+                    }
+                }
+            }
+            return linhas;
+        } catch (SQLException e) {
+            if (cancelamento != null && cancelamento.isCancelado() && !Cancelamento.isCancelada(e)) {
+                // Erro do driver provocado pelo cancelamento do statement
+                throw new SQLException("Consulta cancelada após " + linhas + " linhas",
+                        Cancelamento.SQLSTATE_CANCELADA, e);
+            }
+            throw e;
+        } finally {
+            if (cancelamento != null) {
+                cancelamento.finalizar();
+            }
+            registrarTempo(totalConsultas, sql, inicio);
+        }
+    }
+
+    private static void verificarCancelamento(Cancelamento cancelamento) throws SQLException {
+        // Task.cancel() do JavaFX interrompe a thread da consulta
+        if (cancelamento.isCancelado() || Thread.currentThread().isInterrupted()) {
+            throw new SQLException("Consulta cancelada", Cancelamento.SQLSTATE_CANCELADA);
+        }
+    }
+
+    /**
+     * Executa uma consulta para uma lista de valores em uma cláusula IN, usada para
+     * carregar em poucas consultas as associações de muitas linhas.
+     *
+     * O SQL deve conter {@link #MARCADOR_IN} dentro do IN, por exemplo
+     * {@code SELECT * FROM clientes WHERE id IN ({lista})}. Valores repetidos e nulos são
+     * descartados e listas grandes são divididas em blocos. O número de marcadores é
+     * arredondado para uma potência de dois (repetindo o último valor), para que poucos
+     * SQLs distintos sejam preparados e reaproveitados pelo cache de statements.
+     *
+     * @param sql SQL da consulta com o marcador da lista
+     * @param valores Valores da cláusula IN
+     * @param mapper Mapeador de linhas
+     * @param params Parâmetros adicionais, ligados depois dos valores da lista
+     * @return Lista com as linhas mapeadas de todos os blocos
+     * @throws SQLException em caso de erro no banco de dados
+     */
+    public <T> List<T> queryIn(String sql, Collection<?> valores, RowMapper<T> mapper, Object... params)
+            throws SQLException {
+        List<T> resultado = new ArrayList<>();
+        List<Object> distintos = new ArrayList<>(new LinkedHashSet<>(valores));
+        distintos.removeIf(Objects::isNull);
+
+        for (int inicio = 0; inicio < distintos.size(); inicio += TAMANHO_MAXIMO_IN) {
+            List<Object> bloco = distintos.subList(inicio, Math.min(inicio + TAMANHO_MAXIMO_IN, distintos.size()));
+            int marcadores = Integer.highestOneBit(bloco.size());
+            if (marcadores < bloco.size()) {
+                marcadores <<= 1;
+            }
+
+            Object[] todos = new Object[marcadores + (params != null ? params.length : 0)];
+            for (int i = 0; i < marcadores; i++) {
+                todos[i] = bloco.get(Math.min(i, bloco.size() - 1));
+            }
+            if (params != null) {
+                System.arraycopy(params, 0, todos, marcadores, params.length);
+            }
+
+            String lista = String.join(",", Collections.nCopies(marcadores, "?"));
+            queryForEach(sql.replace(MARCADOR_IN, lista), 0, mapper, resultado::add, todos);
+        }
+        return resultado;
+    }
+
+    /**
+     * Executa um INSERT, UPDATE ou DELETE
+     * @return Número de linhas afetadas
+     * @throws SQLException em caso de erro no banco de dados
+     */
+    public int update(String sql, Object... params) throws SQLException {
+        long inicio = System.nanoTime();
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            definirParametros(stmt, params);
+            return stmt.executeUpdate();
+        } finally {
+            registrarTempo(totalAtualizacoes, sql, inicio);
+        }
+    }
+
+    /**
+     * Executa um INSERT e retorna a chave gerada
+     * @return A chave gerada, ou null se o banco não gerou chave
+     * @throws SQLException em caso de erro no banco de dados
+     */
+    public Long insert(String sql, Object... params) throws SQLException {
+        long inicio = System.nanoTime();
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            definirParametros(stmt, params);
+            stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                return keys.next() ? keys.getLong(1) : null;
+            }
+        } finally {
+            registrarTempo(totalAtualizacoes, sql, inicio);
+        }
+    }
+
+    /**
+     * Executa o mesmo comando para cada item, em lotes (executeBatch)
+     * @param sql SQL do comando
+     * @param itens Itens a processar
+     * @param parametros Extrai os parâmetros do comando de cada item
+     * @return Número de linhas afetadas por item, na ordem dos itens
+     * @throws SQLException em caso de erro no banco de dados
+     */
+    public <T> int[] batchUpdate(String sql, Collection<T> itens, Function<? super T, Object[]> parametros)
+            throws SQLException {
+        if (itens.isEmpty()) {
+            return new int[0];
+        }
+        try (Connection conn = connectionProvider.getConnection()) {
+            return batchUpdate(conn, sql, itens, parametros);
+        }
+    }
+
+    /**
+     * Executa o mesmo comando para cada item, em lotes, na conexão informada (que não é
+     * fechada), para uso dentro de uma transação aberta pelo chamador
+     * @param conn Conexão a usar
+     * @param sql SQL do comando
+     * @param itens Itens a processar
+     * @param parametros Extrai os parâmetros do comando de cada item
+     * @return Número de linhas afetadas por item, na ordem dos itens; com o lote reescrito
+     *         pelo driver, o valor pode ser Statement.SUCCESS_NO_INFO
+     * @throws SQLException em caso de erro no banco de dados
+     */
+    public <T> int[] batchUpdate(Connection conn, String sql, Collection<T> itens,
+            Function<? super T, Object[]> parametros) throws SQLException {
+        int[] afetadas = new int[itens.size()];
+        if (itens.isEmpty()) {
+            return afetadas;
+        }
+        List<Object[]> linhas = montarLinhas(itens, parametros);
+        long inicio = System.nanoTime();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            try {
+                int posicao = 0;
+                int noLote = 0;
+                for (Object[] linha : linhas) {
+                    definirParametros(stmt, linha);
+                    stmt.addBatch();
+                    if (++noLote == TAMANHO_LOTE_PADRAO) {
+                        posicao = copiar(stmt.executeBatch(), afetadas, posicao);
+                        noLote = 0;
+                    }
+                }
+                if (noLote > 0) {
+                    copiar(stmt.executeBatch(), afetadas, posicao);
+                }
+                return afetadas;
+            } catch (SQLException | RuntimeException e) {
+                // O statement pode voltar ao cache da conexão: não deixa linhas no lote
+                stmt.clearBatch();
+                throw e;
+            }
+        } finally {
+            registrarTempo(totalLotes, sql, inicio);
+        }
+    }
+
+    /**
+     * Executa o mesmo INSERT para cada item, em lotes, retornando as chaves geradas
+     * @param sql SQL do INSERT
+     * @param itens Itens a inserir
+     * @param parametros Extrai os parâmetros do INSERT de cada item
+     * @return Chaves geradas, na ordem dos itens
+     * @throws SQLException em caso de erro no banco de dados
+     */
+    public <T> List<Long> batchInsert(String sql, Collection<T> itens, Function<? super T, Object[]> parametros)
+            throws SQLException {
+        if (itens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try (Connection conn = connectionProvider.getConnection()) {
+            return batchInsert(conn, sql, itens, parametros);
+        }
+    }
+
+    /**
+     * Executa o mesmo INSERT para cada item, em lotes, na conexão informada (que não é
+     * fechada), para uso dentro de uma transação aberta pelo chamador. Com
+     * rewriteBatchedStatements o driver envia cada lote como um único INSERT de várias linhas.
+     * @param conn Conexão a usar
+     * @param sql SQL do INSERT
+     * @param itens Itens a inserir
+     * @param parametros Extrai os parâmetros do INSERT de cada item
+     * @return Chaves geradas, uma por item, na ordem dos itens
+     * @throws SQLException em caso de erro no banco de dados ou se faltarem chaves geradas
+     */
+    public <T> List<Long> batchInsert(Connection conn, String sql, Collection<T> itens,
+            Function<? super T, Object[]> parametros) throws SQLException {
+        List<Long> chaves = new ArrayList<>(itens.size());
+        if (itens.isEmpty()) {
+            return chaves;
+        }
+        List<Object[]> linhas = montarLinhas(itens, parametros);
+        long inicio = System.nanoTime();
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            try {
+                int noLote = 0;
+                for (Object[] linha : linhas) {
+                    definirParametros(stmt, linha);
+                    stmt.addBatch();
+                    if (++noLote == TAMANHO_LOTE_PADRAO) {
+                        executarLoteComChaves(stmt, chaves);
+                        noLote = 0;
+                    }
+                }
+                if (noLote > 0) {
+                    executarLoteComChaves(stmt, chaves);
+                }
+            } catch (SQLException | RuntimeException e) {
+                // O statement pode voltar ao cache da conexão: não deixa linhas no lote
+                stmt.clearBatch();
+                throw e;
+            }
+            if (chaves.size() != itens.size()) {
+                throw new SQLException(String.format("Inserção em lote retornou %d chaves para %d linhas",
+                        chaves.size(), itens.size()));
+            }
+            return chaves;
+        } finally {
+            registrarTempo(totalLotes, sql, inicio);
+        }
+    }
+
+    /**
+     * Extrai os parâmetros de todos os itens antes do primeiro addBatch(), para que um erro
+     * na extração não deixe um lote pela metade
+     */
+    private static <T> List<Object[]> montarLinhas(Collection<T> itens, Function<? super T, Object[]> parametros) {
+        List<Object[]> linhas = new ArrayList<>(itens.size());
+        for (T item : itens) {
+            linhas.add(parametros.apply(item));
+        }
+        return linhas;
+    }
+
+    private static void executarLoteComChaves(PreparedStatement stmt, List<Long> chaves) throws SQLException {
+        stmt.executeBatch();
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+            while (keys.next()) {
+                chaves.add(keys.getLong(1));
+            }
+        }
+    }
+
+    private static int copiar(int[] origem, int[] destino, int posicao) {
+        System.arraycopy(origem, 0, destino, posicao, origem.length);
+        return posicao + origem.length;
+    }
+
+    /**
+     * Liga os parâmetros ao statement, na ordem
+     * @param stmt Statement preparado
+     * @param params Valores dos parâmetros (podem ser nulos)
+     * @throws SQLException em caso de erro ao definir os parâmetros
+     */
+    public static void definirParametros(PreparedStatement stmt, Object... params) throws SQLException {
+        if (params == null) {
+            return;
+        }
+        for (int i = 0; i < params.length; i++) {
+            Object valor = params[i];
+            if (valor == null) {
+                stmt.setNull(i + 1, Types.NULL);
+            } else if (valor instanceof LocalDateTime) {
+                stmt.setTimestamp(i + 1, Timestamp.valueOf((LocalDateTime) valor));
+            } else if (valor instanceof LocalDate) {
+                stmt.setDate(i + 1, java.sql.Date.valueOf((LocalDate) valor));
+            } else if (valor instanceof Enum) {
+                stmt.setString(i + 1, ((Enum<?>) valor).name());
+            } else {
+                stmt.setObject(i + 1, valor);
+            }
+        }
+    }
+
+    private void registrarTempo(AtomicLong contador, String sql, long inicio) {
+        long nanos = System.nanoTime() - inicio;
+        contador.incrementAndGet();
+        tempoTotalNanos.addAndGet(nanos);
+        long ms = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (ms >= CONSULTA_LENTA_MS) {
+            totalLentas.incrementAndGet();
+            LogUtil.warn(JdbcTemplate.class, String.format("SQL lento (%d ms) no template '%s': %s", ms, nome, sql));
+        }
+    }
+
+    /**
+     * Retorna um resumo das operações executadas pelo template, para logs e diagnóstico
+     */
+    public String getResumo() {
+        long total = totalConsultas.get() + totalAtualizacoes.get() + totalLotes.get();
+        long mediaMs = total == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(tempoTotalNanos.get() / total);
+        return String.format("JdbcTemplate '%s': consultas=%d, atualizacoes=%d, lotes=%d, lentas=%d, media %d ms",
+                nome, totalConsultas.get(), totalAtualizacoes.get(), totalLotes.get(), totalLentas.get(), mediaMs);
+    }
+}
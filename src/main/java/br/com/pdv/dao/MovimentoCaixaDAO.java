@@ -35,6 +35,11 @@ public class MovimentoCaixaDAO {
     private static final String SQL_SELECT_BY_CAIXA = 
             "SELECT * FROM movimentos_caixa WHERE fluxo_caixa_id = ? ORDER BY data_hora";
     private static final String SQL_SELECT_ALL = "SELECT * FROM movimentos_caixa ORDER BY data_hora";
+    private static final String SQL_SELECT_PRIMEIRA_PAGINA = 
+            "SELECT * FROM movimentos_caixa ORDER BY data_hora, id LIMIT ?";
+    private static final String SQL_SELECT_PAGINA_APOS = 
+            "SELECT * FROM movimentos_caixa WHERE data_hora > ? OR (data_hora = ? AND id > ?) " +
+            "ORDER BY data_hora, id LIMIT ?";
 
     private MovimentoCaixaDAO() {
         this.databaseConnection = DatabaseConnection.getInstance();
@@ -214,6 +219,32 @@ public class MovimentoCaixaDAO {
         }
     }
 
+    /**
+     * Busca uma página de movimentos em ordem cronológica, a partir do último movimento da
+     * página anterior (paginação por chave data_hora + id).
+     *
+     * @param ultimo Último movimento da página anterior, ou null para a primeira página
+     * @param limite Quantidade máxima de movimentos na página
+     * @return A página de movimentos
+     * @throws SQLException Se ocorrer algum erro de SQL
+     */
+    public Pagina<MovimentoCaixa> findAfter(MovimentoCaixa ultimo, int limite) throws SQLException {
+        Pagina.validarLimite(limite);
+        try {
+            // Operadores repetidos entre os movimentos são carregados uma única vez
+            List<MovimentoCaixa> linhas = IdentityMap.emEscopo(() -> ultimo == null
+                    ? JdbcTemplate.getInstance().query(SQL_SELECT_PRIMEIRA_PAGINA,
+                            rs -> construirMovimentoCaixa(rs, null), limite + 1)
+                    : JdbcTemplate.getInstance().query(SQL_SELECT_PAGINA_APOS, rs -> construirMovimentoCaixa(rs, null),
+                            ultimo.getDataHora(), ultimo.getDataHora(), ultimo.getId(), limite + 1));
+            return Pagina.de(linhas, limite);
+        } catch (SQLException e) {
+            String errorMsg = "Erro ao listar página de movimentos: " + e.getMessage();
+            LogUtil.error(MovimentoCaixaDAO.class, errorMsg, e);
+            throw new SQLException(errorMsg, e);
+        }
+    }
+
     public boolean update(MovimentoCaixa movimento) throws SQLException {
         Objects.requireNonNull(movimento, "Movimento não pode ser nulo");
         Objects.requireNonNull(movimento.getId(), "ID do movimento não pode ser nulo");
@@ -0,0 +1,44 @@
+package br.com.pdv.dao;
+
+import java.util.List;
+
+/**
+ * Uma página de uma listagem paginada por chave (keyset).
+ *
+ * A próxima página é pedida a partir do último item desta ({@link #ultimo()}), e não por
+ * deslocamento: o banco posiciona o índice direto na chave, sem ler e descartar as linhas
+ * anteriores, e inserções entre uma página e outra não causam itens repetidos ou perdidos.
+ *
+ * @param <T> Tipo dos itens
+ * @param itens Itens da página, na ordem da listagem
+ * @param temMais true se existem itens depois desta página
+ */
+public record Pagina<T>(List<T> itens, boolean temMais) {
+
+    /** Tamanho de página usado pelas telas */
+    public static final int TAMANHO_PADRAO = 100;
+
+    /**
+     * Último item da página, a chave para buscar a próxima; null se a página estiver vazia
+     */
+    public T ultimo() {
+        return itens.isEmpty() ? null : itens.get(itens.size() - 1);
+    }
+
+    /**
+     * Monta a página a partir de uma consulta feita com LIMIT limite + 1: a linha extra
+     * indica que há mais itens e é descartada
+     */
+    static <T> Pagina<T> de(List<T> linhas, int limite) {
+        if (linhas.size() > limite) {
+            return new Pagina<>(List.copyOf(linhas.subList(0, limite)), true);
+        }
+        return new Pagina<>(List.copyOf(linhas), false);
+    }
+
+    static void validarLimite(int limite) {
+        if (limite < 1) {
+            throw new IllegalArgumentException("Limite da página deve ser maior que zero");
+        }
+    }
+}
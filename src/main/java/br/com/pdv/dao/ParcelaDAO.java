@@ -13,7 +13,10 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -38,6 +41,9 @@ public class ParcelaDAO {
             "UPDATE parcelas SET data_pagamento = ?, status = 'PAGA' WHERE id = ?";
     private static final String SQL_CANCEL = 
             "UPDATE parcelas SET status = 'CANCELADA' WHERE id = ?";
+    private static final String SQL_CANCEL_BY_VENDA = 
+            "UPDATE parcelas SET status = 'CANCELADA' " +
+            "WHERE venda_id = ? AND status IN ('PENDENTE', 'ATRASADA')";
     private static final String SQL_UPDATE_STATUS = 
             "UPDATE parcelas SET status = 'ATRASADA' " +
             "WHERE data_vencimento < ? AND status = 'PENDENTE'";
@@ -45,6 +51,11 @@ public class ParcelaDAO {
             "SELECT * FROM parcelas WHERE id = ?";
     private static final String SQL_SELECT_BY_VENDA = 
             "SELECT * FROM parcelas WHERE venda_id = ? ORDER BY numero_parcela";
+    private static final String SQL_SELECT_BY_VENDAS = 
+            "SELECT * FROM parcelas WHERE venda_id IN (" + JdbcTemplate.MARCADOR_IN + ") " +
+            "ORDER BY venda_id, numero_parcela";
+    private static final String SQL_SELECT_BY_VENCIMENTO = 
+            "SELECT * FROM parcelas WHERE data_vencimento BETWEEN ? AND ? ORDER BY data_vencimento, id";
     private static final String SQL_SELECT_PENDING = 
             "SELECT * FROM parcelas WHERE status = 'PENDENTE' ORDER BY data_vencimento";
     
@@ -160,6 +171,40 @@ public class ParcelaDAO {
         }
     }
     
+    /**
+     * Insere as parcelas em lote usando uma conexão fornecida: uma única ida ao banco por
+     * lote, em vez de uma por parcela. Os IDs gerados são definidos nas parcelas.
+     * 
+     * @param parcelas As parcelas a serem inseridas, cada uma com a sua venda
+     * @param conn A conexão a ser usada (normalmente a da transação)
+     * @return As parcelas com os IDs gerados
+     * @throws SQLException Se ocorrer algum erro de SQL
+     */
+    public List<Parcela> createAll(List<Parcela> parcelas, Connection conn) throws SQLException {
+        for (Parcela parcela : parcelas) {
+            Objects.requireNonNull(parcela.getVenda(), "Venda da parcela não pode ser nula");
+        }
+        
+        try {
+            List<Long> ids = JdbcTemplate.getInstance().batchInsert(conn, SQL_INSERT, parcelas, parcela -> new Object[] {
+                    parcela.getVenda().getId(), parcela.getNumeroParcela(), parcela.getTotalParcelas(),
+                    parcela.getValor(), parcela.getDataVencimento(), parcela.getDataPagamento(), parcela.getStatus()
+            });
+            for (int i = 0; i < parcelas.size(); i++) {
+                parcelas.get(i).setId(ids.get(i).intValue());
+            }
+            if (!parcelas.isEmpty()) {
+                LogUtil.info(ParcelaDAO.class, String.format("%d parcelas criadas para a venda ID: %d",
+                        parcelas.size(), parcelas.get(0).getVenda().getId()));
+            }
+            return parcelas;
+        } catch (SQLException e) {
+            String errorMsg = "Erro ao criar parcelas: " + e.getMessage();
+            LogUtil.error(ParcelaDAO.class, errorMsg, e);
+            throw new SQLException(errorMsg, e);
+        }
+    }
+    
     /**
      * Atualiza uma parcela existente no banco de dados.
      * 
@@ -338,6 +383,37 @@ public class ParcelaDAO {
         }
     }
     
+    /**
+     * Cancela em um único UPDATE as parcelas em aberto (pendentes ou atrasadas) de uma venda,
+     * usando uma conexão fornecida. Parcelas pagas não são alteradas e as parcelas não
+     * precisam estar carregadas.
+     * 
+     * @param vendaId O ID da venda
+     * @param conn A conexão a ser usada
+     * @return O número de parcelas canceladas
+     * @throws SQLException Se ocorrer algum erro de SQL
+     */
+    public int cancelarPorVenda(int vendaId, Connection conn) throws SQLException {
+        UUID transactionId = UUID.randomUUID();
+        
+        try (PreparedStatement stmt = conn.prepareStatement(SQL_CANCEL_BY_VENDA)) {
+            stmt.setInt(1, vendaId);
+            
+            int affectedRows = stmt.executeUpdate();
+            
+            LogUtil.info(ParcelaDAO.class, 
+                    String.format("[%s] %d parcelas canceladas da venda ID: %d", 
+                            transactionId, affectedRows, vendaId));
+            return affectedRows;
+            
+        } catch (SQLException e) {
+            String errorMsg = String.format("[%s] Erro ao cancelar parcelas da venda: %s", 
+                    transactionId, e.getMessage());
+            LogUtil.error(ParcelaDAO.class, errorMsg, e);
+            throw new SQLException(errorMsg, e);
+        }
+    }
+    
     /**
      * Atualiza o status das parcelas que estão atrasadas.
      * 
@@ -463,6 +539,57 @@ public class ParcelaDAO {
         }
     }
     
+    /**
+     * Lista as parcelas de várias vendas de uma vez, em uma consulta IN por bloco de IDs.
+     * 
+     * @param vendaIds Os IDs das vendas
+     * @return Mapa do ID da venda para as suas parcelas, em ordem de número;
+     *         vendas sem parcelas não aparecem no mapa
+     * @throws SQLException Se ocorrer algum erro de SQL
+     */
+    public Map<Integer, List<Parcela>> findByVendas(Collection<Integer> vendaIds) throws SQLException {
+        Map<Integer, List<Parcela>> parcelas = new HashMap<>();
+        if (vendaIds.isEmpty()) {
+            return parcelas;
+        }
+        
+        try {
+            List<Map.Entry<Integer, Parcela>> linhas = JdbcTemplate.getInstance().queryIn(SQL_SELECT_BY_VENDAS, vendaIds,
+                    rs -> Map.entry(rs.getInt("venda_id"), construirParcela(rs)));
+            for (Map.Entry<Integer, Parcela> linha : linhas) {
+                parcelas.computeIfAbsent(linha.getKey(), k -> new ArrayList<>()).add(linha.getValue());
+            }
+            return parcelas;
+        } catch (SQLException e) {
+            String errorMsg = "Erro ao listar parcelas por vendas: " + e.getMessage();
+            LogUtil.error(ParcelaDAO.class, errorMsg, e);
+            throw new SQLException(errorMsg, e);
+        }
+    }
+    
+    /**
+     * Percorre em fluxo as parcelas com vencimento no período, em ordem de vencimento, sem
+     * manter as parcelas em memória. A venda de cada parcela traz apenas o ID. Usa a réplica
+     * de leitura quando configurada.
+     * 
+     * @param inicio Primeiro dia de vencimento
+     * @param fim Último dia de vencimento
+     * @param processador Recebe cada parcela; retorna false para encerrar
+     * @param cancelamento Permite cancelar a consulta (pode ser nulo)
+     * @return Número de parcelas processadas
+     * @throws SQLException Se ocorrer algum erro de SQL ou cancelamento
+     */
+    public long percorrerPorVencimento(LocalDate inicio, LocalDate fim, ProcessadorLinha<? super Parcela> processador,
+            Cancelamento cancelamento) throws SQLException {
+        return JdbcTemplate.getLeitura().queryEmFluxo(SQL_SELECT_BY_VENCIMENTO, rs -> {
+            Parcela parcela = construirParcela(rs);
+            Venda venda = new Venda();
+            venda.setId(rs.getInt("venda_id"));
+            parcela.setVenda(venda);
+            return parcela;
+        }, processador, cancelamento, inicio, fim);
+    }
+    
     /**
      * Lista as parcelas com pagamento pendente.
      * 
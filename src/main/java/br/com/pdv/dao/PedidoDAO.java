@@ -17,7 +17,9 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -41,9 +43,12 @@ public class PedidoDAO {
     private static final String SQL_INSERT = "INSERT INTO pedidos (cliente_id, usuario_id, vendedor_id, data_pedido, valor_total, status) VALUES (?, ?, ?, ?, ?, ?)";
     private static final String SQL_SELECT_BY_ID = "SELECT * FROM pedidos WHERE id = ?";
     private static final String SQL_SELECT_ALL = "SELECT * FROM pedidos";
+    private static final String SQL_SELECT_PRIMEIRA_PAGINA = "SELECT * FROM pedidos ORDER BY id DESC LIMIT ?";
+    private static final String SQL_SELECT_PAGINA_APOS = "SELECT * FROM pedidos WHERE id < ? ORDER BY id DESC LIMIT ?";
     private static final String SQL_UPDATE = "UPDATE pedidos SET cliente_id = ?, usuario_id = ?, vendedor_id = ?, data_pedido = ?, valor_total = ?, status = ? WHERE id = ?";
     private static final String SQL_DELETE = "DELETE FROM pedidos WHERE id = ?";
     private static final String SQL_SELECT_BY_STATUS = "SELECT * FROM pedidos WHERE status = ?";
+    private static final String SQL_SELECT_BY_IDS = "SELECT * FROM pedidos WHERE id IN (" + JdbcTemplate.MARCADOR_IN + ")";
     
     // Constantes para status
     public static final String STATUS_ABERTO = "ABERTO";
@@ -297,10 +302,21 @@ public class PedidoDAO {
     }
 
     /**
-     * Busca um pedido pelo ID.
+     * Busca um pedido pelo ID, com todas as associações.
      */
     public Pedido findById(Integer id) throws SQLException {
+        return findById(id, PlanoCarga.COMPLETO);
+    }
+
+    /**
+     * Busca um pedido pelo ID, carregando os itens apenas se incluídos no plano.
+     */
+    public Pedido findById(Integer id, PlanoCarga plano) throws SQLException {
         Objects.requireNonNull(id, "ID não pode ser nulo");
+        return IdentityMap.emEscopo(() -> carregarPorId(id, plano));
+    }
+
+    private Pedido carregarPorId(Integer id, PlanoCarga plano) throws SQLException {
 
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -352,9 +368,7 @@ public class PedidoDAO {
                 pedido.setStatus(status);
                 
                 // Buscar os itens do pedido
-                ItemPedidoDAO itemPedidoDAO = getItemPedidoDAO();
-                List<ItemPedido> itens = itemPedidoDAO.findByPedido(pedido);
-                pedido.setItens(itens);
+                carregarItens(pedido, plano);
                 
                 logger.info("Pedido encontrado - ID: " + id);
                 return pedido;
@@ -371,97 +385,167 @@ public class PedidoDAO {
     }
     
     /**
-     * Lista todos os pedidos do banco de dados.
+     * Busca vários pedidos de uma vez, já com cliente, usuário, vendedor e itens.
+     * O número de consultas não depende da quantidade de pedidos.
+     *
+     * @param ids IDs dos pedidos (repetidos e nulos são ignorados)
+     * @return Mapa do ID para o pedido, na ordem dos IDs; IDs inexistentes não aparecem no mapa
      */
-    public List<Pedido> findAll() throws SQLException {
-        List<Pedido> pedidos = new ArrayList<>();
-        Map<Integer, Integer> pedidoToClienteId = new HashMap<>();
-        Map<Integer, Integer> pedidoToUsuarioId = new HashMap<>();
-        Map<Integer, Integer> pedidoToVendedorId = new HashMap<>();
+    public Map<Integer, Pedido> findByIds(Collection<Integer> ids) throws SQLException {
+        return findByIds(ids, PlanoCarga.COMPLETO);
+    }
 
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
+    /**
+     * Busca vários pedidos de uma vez, carregando os itens apenas se incluídos no plano.
+     *
+     * @param ids IDs dos pedidos (repetidos e nulos são ignorados)
+     * @param plano Associações a carregar
+     * @return Mapa do ID para o pedido, na ordem dos IDs; IDs inexistentes não aparecem no mapa
+     */
+    public Map<Integer, Pedido> findByIds(Collection<Integer> ids, PlanoCarga plano) throws SQLException {
+        Map<Integer, Pedido> pedidos = new LinkedHashMap<>();
+        if (ids.isEmpty()) {
+            return pedidos;
+        }
 
         try {
-            conn = databaseConnection.getConnection();
-            stmt = conn.prepareStatement(SQL_SELECT_ALL);
-            rs = stmt.executeQuery();
-
-            // Primeira passagem: coletar IDs e dados básicos
-            while (rs.next()) {
-                Integer pedidoId = rs.getInt("id");
-                Integer clienteId = rs.getInt("cliente_id");
-                Integer usuarioId = rs.getInt("usuario_id");
-                Integer vendedorId = rs.getInt("vendedor_id");
-                LocalDateTime dataPedido = rs.getTimestamp("data_pedido").toLocalDateTime();
-                BigDecimal valorTotal = rs.getBigDecimal("valor_total");
-                String status = rs.getString("status");
-                
-                // Criar pedido básico
-                Pedido pedido = new Pedido();
-                pedido.setId(pedidoId);
-                pedido.setDataPedido(dataPedido);
-                pedido.setValorTotal(valorTotal);
-                pedido.setStatus(status);
-                
-                // Armazenar mapeamentos de IDs
-                pedidoToClienteId.put(pedidoId, clienteId);
-                pedidoToUsuarioId.put(pedidoId, usuarioId);
-                pedidoToVendedorId.put(pedidoId, vendedorId);
-                
-                // Adicionar à lista
-                pedidos.add(pedido);
+            List<Pedido> carregados = IdentityMap.emEscopo(() -> carregarAssociacoes(
+                    JdbcTemplate.getInstance().queryIn(SQL_SELECT_BY_IDS, ids, this::mapearLinha), plano));
+            Map<Integer, Pedido> porId = new HashMap<>();
+            for (Pedido pedido : carregados) {
+                porId.put(pedido.getId(), pedido);
             }
-            
-            // Fechar recursos antes de próximas consultas
-            closeResources(null, stmt, rs);
-            stmt = null;
-            rs = null;
-            
-            // Segunda passagem: buscar entidades relacionadas
-            ClienteDAO clienteDAO = ClienteDAO.getInstance();
-            UsuarioDAO usuarioDAO = getUsuarioDAO();
-            ItemPedidoDAO itemPedidoDAO = getItemPedidoDAO();
-            
-            for (Pedido pedido : pedidos) {
-                // Buscar cliente
-                Integer clienteId = pedidoToClienteId.get(pedido.getId());
-                if (clienteId != null) {
-                    Cliente cliente = clienteDAO.findById((long) clienteId);
-                    pedido.setCliente(cliente);
-                }
-                
-                // Buscar usuário
-                Integer usuarioId = pedidoToUsuarioId.get(pedido.getId());
-                if (usuarioId != null) {
-                    Usuario usuario = usuarioDAO.findById(usuarioId);
-                    pedido.setUsuario(usuario);
+            for (Integer id : ids) {
+                if (id != null && porId.containsKey(id)) {
+                    pedidos.put(id, porId.get(id));
                 }
-                
-                // Buscar vendedor
-                Integer vendedorId = pedidoToVendedorId.get(pedido.getId());
-                if (vendedorId != null) {
-                    if (vendedorId.equals(usuarioId)) {
-                        pedido.setVendedor(pedido.getUsuario());
-                    } else {
-                        Usuario vendedor = usuarioDAO.findById(vendedorId);
-                        pedido.setVendedor(vendedor);
-                    }
-                }
-                
-                // Buscar itens
-                List<ItemPedido> itens = itemPedidoDAO.findByPedido(pedido);
-                pedido.setItens(itens);
             }
-            
+            return pedidos;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao buscar pedidos por IDs: " + e.getMessage(), e);
+            throw new SQLException("Erro ao buscar pedidos por IDs: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Colunas de uma linha de pedidos: o pedido básico e as chaves das associações
+     */
+    private record LinhaPedido(Pedido pedido, Long clienteId, Integer usuarioId, Integer vendedorId) {
+    }
+
+    private LinhaPedido mapearLinha(ResultSet rs) throws SQLException {
+        Pedido pedido = new Pedido();
+        pedido.setId(rs.getInt("id"));
+        pedido.setDataPedido(rs.getTimestamp("data_pedido").toLocalDateTime());
+        pedido.setValorTotal(rs.getBigDecimal("valor_total"));
+        pedido.setStatus(rs.getString("status"));
+
+        long clienteId = rs.getLong("cliente_id");
+        Long cliente = rs.wasNull() ? null : clienteId;
+        int usuarioId = rs.getInt("usuario_id");
+        Integer usuario = rs.wasNull() ? null : usuarioId;
+        int vendedorId = rs.getInt("vendedor_id");
+        Integer vendedor = rs.wasNull() ? null : vendedorId;
+        return new LinhaPedido(pedido, cliente, usuario, vendedor);
+    }
+
+    /**
+     * Resolve as associações das linhas com uma consulta IN para clientes, uma para usuários
+     * e vendedores e, se o plano incluir os itens, uma para os itens (mais uma para os
+     * produtos dos itens). Sem os itens no plano, cada pedido os busca no primeiro acesso.
+     *
+     * Cada cliente e usuário é carregado uma única vez e a mesma instância é compartilhada
+     * por todos os pedidos que o referenciam; um vendedor que também é o usuário do pedido
+     * é o mesmo objeto nos dois papéis. Dentro de um {@link IdentityMap}, entidades já
+     * carregadas pela operação não são consultadas de novo.
+     *
+     * @return Os pedidos, na ordem das linhas
+     */
+    private List<Pedido> carregarAssociacoes(List<LinhaPedido> linhas, PlanoCarga plano) throws SQLException {
+        List<Pedido> pedidos = new ArrayList<>(linhas.size());
+        if (linhas.isEmpty()) {
+            return pedidos;
+        }
+
+        List<Long> clienteIds = new ArrayList<>();
+        List<Integer> usuarioIds = new ArrayList<>();
+        for (LinhaPedido linha : linhas) {
+            clienteIds.add(linha.clienteId());
+            usuarioIds.add(linha.usuarioId());
+            usuarioIds.add(linha.vendedorId());
+            pedidos.add(linha.pedido());
+        }
+
+        Map<Long, Cliente> clientes = ClienteDAO.getInstance().findByIds(clienteIds);
+        Map<Integer, Usuario> usuarios = getUsuarioDAO().findByIds(usuarioIds);
+        Map<Integer, List<ItemPedido>> itens = plano.incluiItens() ? getItemPedidoDAO().findByPedidos(pedidos) : null;
+
+        for (LinhaPedido linha : linhas) {
+            Pedido pedido = linha.pedido();
+            pedido.setCliente(clientes.get(linha.clienteId()));
+            pedido.setUsuario(usuarios.get(linha.usuarioId()));
+            pedido.setVendedor(usuarios.get(linha.vendedorId()));
+            if (itens != null) {
+                pedido.setItens(itens.getOrDefault(pedido.getId(), new ArrayList<>()));
+            } else {
+                carregarItens(pedido, plano);
+            }
+        }
+        return pedidos;
+    }
+
+    /**
+     * Carrega os itens do pedido agora, se incluídos no plano, ou no primeiro getItens()
+     */
+    private void carregarItens(Pedido pedido, PlanoCarga plano) throws SQLException {
+        if (plano.incluiItens()) {
+            pedido.setItens(getItemPedidoDAO().findByPedido(pedido));
+        } else {
+            pedido.setItensLazy(() -> getItemPedidoDAO().findByPedido(pedido));
+        }
+    }
+    
+    /**
+     * Busca uma página de pedidos, dos mais recentes para os mais antigos, a partir do
+     * último pedido da página anterior (paginação por chave id).
+     *
+     * @param ultimo Último pedido da página anterior, ou null para a primeira página
+     * @param limite Quantidade máxima de pedidos na página
+     * @return A página de pedidos, com as associações carregadas em lote
+     */
+    public Pagina<Pedido> findAfter(Pedido ultimo, int limite) throws SQLException {
+        Pagina.validarLimite(limite);
+        try {
+            List<Pedido> linhas = IdentityMap.emEscopo(() -> carregarAssociacoes(ultimo == null
+                    ? JdbcTemplate.getInstance().query(SQL_SELECT_PRIMEIRA_PAGINA, this::mapearLinha, limite + 1)
+                    : JdbcTemplate.getInstance().query(SQL_SELECT_PAGINA_APOS, this::mapearLinha,
+                            ultimo.getId(), limite + 1), PlanoCarga.COMPLETO));
+            return Pagina.de(linhas, limite);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Erro ao listar página de pedidos: " + e.getMessage(), e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Lista todos os pedidos do banco de dados, com todas as associações.
+     */
+    public List<Pedido> findAll() throws SQLException {
+        return findAll(PlanoCarga.COMPLETO);
+    }
+    
+    /**
+     * Lista todos os pedidos do banco de dados, carregando os itens apenas se incluídos no plano.
+     */
+    public List<Pedido> findAll(PlanoCarga plano) throws SQLException {
+        try {
+            List<Pedido> pedidos = IdentityMap.emEscopo(() -> carregarAssociacoes(
+                    JdbcTemplate.getInstance().query(SQL_SELECT_ALL, this::mapearLinha), plano));
             logger.info("Total de pedidos encontrados: " + pedidos.size());
             return pedidos;
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Erro ao listar pedidos: " + e.getMessage(), e);
             throw e;
-        } finally {
-            closeResources(conn, stmt, rs);
         }
     }
     
@@ -569,106 +653,26 @@ public class PedidoDAO {
     }
 
     /**
-     * Busca pedidos por status.
+     * Busca pedidos por status, com todas as associações.
      */
     public List<Pedido> findByStatus(String status) throws SQLException {
-        Objects.requireNonNull(status, "Status não pode ser nulo");
-
-        List<Pedido> pedidos = new ArrayList<>();
-        Map<Integer, Integer> pedidoToClienteId = new HashMap<>();
-        Map<Integer, Integer> pedidoToUsuarioId = new HashMap<>();
-        Map<Integer, Integer> pedidoToVendedorId = new HashMap<>();
+        return findByStatus(status, PlanoCarga.COMPLETO);
+    }
 
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
+    /**
+     * Busca pedidos por status, carregando os itens apenas se incluídos no plano.
+     */
+    public List<Pedido> findByStatus(String status, PlanoCarga plano) throws SQLException {
+        Objects.requireNonNull(status, "Status não pode ser nulo");
 
         try {
-            conn = databaseConnection.getConnection();
-            stmt = conn.prepareStatement(SQL_SELECT_BY_STATUS);
-            stmt.setString(1, status);
-            rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                // Extrair dados do ResultSet para cada pedido
-                Integer pedidoId = rs.getInt("id");
-                Integer clienteId = rs.getInt("cliente_id");
-                Integer usuarioId = rs.getInt("usuario_id");
-                Integer vendedorId = rs.getInt("vendedor_id");
-                LocalDateTime dataPedido = rs.getTimestamp("data_pedido").toLocalDateTime();
-                BigDecimal valorTotal = rs.getBigDecimal("valor_total");
-                String pedidoStatus = rs.getString("status");
-                
-                // Criar e configurar o pedido básico
-                Pedido pedido = new Pedido();
-                pedido.setId(pedidoId);
-                pedido.setDataPedido(dataPedido);
-                pedido.setValorTotal(valorTotal);
-                pedido.setStatus(pedidoStatus);
-                
-                // Salvar os IDs para carregar depois
-                pedidoToClienteId.put(pedidoId, clienteId);
-                pedidoToUsuarioId.put(pedidoId, usuarioId);
-                pedidoToVendedorId.put(pedidoId, vendedorId);
-                
-                // Adicionar à lista
-                pedidos.add(pedido);
-            }
-            
-            // Fechar ResultSet e Statement antes de fazer outras consultas
-            if (rs != null) {
-                rs.close();
-                rs = null;
-            }
-            if (stmt != null) {
-                stmt.close();
-                stmt = null;
-            }
-            
-            // Carregar entidades relacionadas
-            ClienteDAO clienteDAO = ClienteDAO.getInstance();
-            UsuarioDAO usuarioDAO = getUsuarioDAO();
-            ItemPedidoDAO itemPedidoDAO = getItemPedidoDAO();
-            
-            for (Pedido pedido : pedidos) {
-                // Buscar cliente
-                Integer clienteId = pedidoToClienteId.get(pedido.getId());
-                if (clienteId != null) {
-                    Cliente cliente = clienteDAO.findById((long) clienteId);
-                    pedido.setCliente(cliente);
-                }
-                
-                // Buscar usuário
-                Integer usuarioId = pedidoToUsuarioId.get(pedido.getId());
-                if (usuarioId != null) {
-                    Usuario usuario = usuarioDAO.findById(usuarioId);
-                    pedido.setUsuario(usuario);
-                }
-                
-                // Buscar vendedor
-                Integer vendedorId = pedidoToVendedorId.get(pedido.getId());
-                if (vendedorId != null) {
-                    if (vendedorId.equals(usuarioId)) {
-                        // Se o vendedor é o mesmo usuário
-                        pedido.setVendedor(pedido.getUsuario());
-                    } else {
-                        Usuario vendedor = usuarioDAO.findById(vendedorId);
-                        pedido.setVendedor(vendedor);
-                    }
-                }
-                
-                // Buscar itens
-                List<ItemPedido> itens = itemPedidoDAO.findByPedido(pedido);
-                pedido.setItens(itens);
-            }
-            
+            List<Pedido> pedidos = IdentityMap.emEscopo(() -> carregarAssociacoes(
+                    JdbcTemplate.getInstance().query(SQL_SELECT_BY_STATUS, this::mapearLinha, status), plano));
             logger.info("Total de pedidos encontrados com status " + status + ": " + pedidos.size());
             return pedidos;
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Erro ao listar pedidos por status: " + e.getMessage(), e);
             throw e;
-        } finally {
-            closeResources(conn, stmt, rs);
         }
     }
 }
\ No newline at end of file
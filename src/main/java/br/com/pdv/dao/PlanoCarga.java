@@ -0,0 +1,41 @@
+package br.com.pdv.dao;
+
+/**
+ * Associações carregadas junto com vendas e pedidos nas buscas de VendaDAO e PedidoDAO.
+ *
+ * Cliente, usuário, vendedor e o cabeçalho do pedido da venda sempre acompanham a entidade.
+ * Os itens do pedido e as parcelas da venda só são buscados quando incluídos no plano;
+ * fora dele ficam como associações lazy, carregadas no primeiro acesso (getItens(),
+ * getParcelas()) com uma consulta por entidade. Quem vai percorrer as associações de uma
+ * lista deve incluí-las no plano, para que sejam carregadas em lote.
+ */
+public enum PlanoCarga {
+
+    /** Apenas os campos da entidade e as referências a cliente, usuário e pedido */
+    CABECALHO(false, false),
+
+    /** Cabeçalho e itens do pedido */
+    COM_ITENS(true, false),
+
+    /** Cabeçalho e parcelas da venda */
+    COM_PARCELAS(false, true),
+
+    /** Todas as associações (comportamento das buscas sem plano) */
+    COMPLETO(true, true);
+
+    private final boolean itens;
+    private final boolean parcelas;
+
+    PlanoCarga(boolean itens, boolean parcelas) {
+        this.itens = itens;
+        this.parcelas = parcelas;
+    }
+
+    public boolean incluiItens() {
+        return itens;
+    }
+
+    public boolean incluiParcelas() {
+        return parcelas;
+    }
+}
@@ -0,0 +1,20 @@
+package br.com.pdv.dao;
+
+import java.sql.SQLException;
+
+/**
+ * Recebe, uma a uma, as linhas de uma consulta percorrida em fluxo
+ * @param <T> Tipo do objeto mapeado
+ */
+@FunctionalInterface
+public interface ProcessadorLinha<T> {
+
+    /**
+     * Processa uma linha. A conexão da consulta continua aberta durante a chamada, então o
+     * processamento deve ser rápido (ex.: escrever em um arquivo ou somar totais).
+     * @param linha Objeto mapeado da linha atual
+     * @return true para continuar, false para encerrar a consulta sem ler as linhas restantes
+     * @throws SQLException para interromper a consulta com erro
+     */
+    boolean processar(T linha) throws SQLException;
+}
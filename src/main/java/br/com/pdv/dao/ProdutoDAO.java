@@ -3,29 +3,45 @@ package br.com.pdv.dao;
 import br.com.pdv.model.Categoria;
 import br.com.pdv.model.Marca;
 import br.com.pdv.model.Produto;
+import br.com.pdv.model.ProdutoResumo;
 import br.com.pdv.model.Subcategoria;
-import br.com.pdv.util.DatabaseConnection;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Classe DAO para operações de banco de dados relacionadas a Produtos
  */
 public class ProdutoDAO  {
     private static ProdutoDAO instance;
-    private Connection connection;
+    private final JdbcTemplate jdbcTemplate;
+    
+    private static final String SQL_SELECT_BASE = "SELECT p.*, c.id as categoria_id, c.nome as categoria_nome, " +
+                    "m.id as marca_id, m.nome as marca_nome, " +
+                    "s.id as subcategoria_id, s.nome as subcategoria_nome " +
+                    "FROM produtos p " +
+                    "LEFT JOIN categorias c ON p.categoria_id = c.id " +
+                    "LEFT JOIN marcas m ON p.marca_id = m.id " +
+                    "LEFT JOIN subcategorias s ON p.subcategoria_id = s.id ";
+    private static final String SQL_SELECT_BY_ID = SQL_SELECT_BASE + "WHERE p.id = ?";
+    // Apenas as colunas das listagens, sem as junções de categoria, marca e subcategoria
+    private static final String SQL_SELECT_RESUMO = "SELECT id, codigo, nome, cor, tamanho, preco, estoque_atual, " +
+            "estoque_minimo, data_vencimento FROM produtos ";
+    private static final String SQL_UPDATE = "UPDATE produtos SET nome = ?, descricao = ?, tipo = ?, marca_id = ?, " +
+                "subcategoria_id = ?, unidade = ?, categoria_id = ?, codigo_barra = ?, codigo = ?, " +
+                "cor = ?, tamanho = ?, custo = ?, preco = ?, cfop = ?, icms = ?, icms_sub = ?, " +
+                "estoque_atual = ?, estoque_minimo = ?, ativo = ?, data_atualizacao = ?, data_vencimento = ? " +
+                "WHERE id = ?";
     
     // Construtor privado (padrão Singleton)
     private ProdutoDAO() {
-        try {
-            this.connection = DatabaseConnection.getInstance().getConnection();
-        } catch (SQLException e) {
-            throw new RuntimeException("Erro ao conectar ao banco de dados", e);
-        }
+        this.jdbcTemplate = JdbcTemplate.getInstance();
     }
     
     /**
@@ -51,47 +67,35 @@ public class ProdutoDAO  {
                 "estoque_atual, estoque_minimo, ativo, data_cadastro, data_atualizacao, data_vencimento) " +
                 "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            // Definir os parâmetros
-            stmt.setString(1, produto.getNome());
-            stmt.setString(2, produto.getDescricao());
-            stmt.setString(3, produto.getTipo());
-            stmt.setInt(4, produto.getMarca() != null ? produto.getMarca().getId() : null);
-            stmt.setInt(5, produto.getSubcategoria() != null ? produto.getSubcategoria().getId() : null);
-            stmt.setString(6, produto.getUnidade());
-            stmt.setInt(7, produto.getCategoria() != null ? produto.getCategoria().getId() : null);
-            stmt.setString(8, produto.getCodigoBarra());
-            stmt.setString(9, produto.getCodigo());
-            stmt.setString(10, produto.getCor());
-            stmt.setString(11, produto.getTamanho());
-            stmt.setBigDecimal(12, produto.getCusto());
-            stmt.setBigDecimal(13, produto.getPreco());
-            stmt.setString(14, produto.getCfop());
-            stmt.setBigDecimal(15, produto.getIcms());
-            stmt.setBigDecimal(16, produto.getIcmsSub());
-            stmt.setInt(17, produto.getEstoqueAtual());
-            stmt.setInt(18, produto.getEstoqueMinimo());
-            stmt.setBoolean(19, produto.isAtivo());
-            
-            // Converter LocalDateTime para Timestamp
-            stmt.setTimestamp(20, Timestamp.valueOf(produto.getDataCadastro()));
-            stmt.setTimestamp(21, Timestamp.valueOf(produto.getDataAtualizacao()));
-            
-            // Converter LocalDate para Date
-            stmt.setDate(22, produto.getDataVencimento() != null ? 
-                           java.sql.Date.valueOf(produto.getDataVencimento()) : null);
-            
-            // Executar a inserção
-            stmt.executeUpdate();
-            
-            // Obter o ID gerado
-            ResultSet rs = stmt.getGeneratedKeys();
-            if (rs.next()) {
-                produto.setId(rs.getInt(1));
-            }
-            
-            return produto;
+        Long id = jdbcTemplate.insert(sql,
+                produto.getNome(),
+                produto.getDescricao(),
+                produto.getTipo(),
+                produto.getMarca() != null ? produto.getMarca().getId() : null,
+                produto.getSubcategoria() != null ? produto.getSubcategoria().getId() : null,
+                produto.getUnidade(),
+                produto.getCategoria() != null ? produto.getCategoria().getId() : null,
+                produto.getCodigoBarra(),
+                produto.getCodigo(),
+                produto.getCor(),
+                produto.getTamanho(),
+                produto.getCusto(),
+                produto.getPreco(),
+                produto.getCfop(),
+                produto.getIcms(),
+                produto.getIcmsSub(),
+                produto.getEstoqueAtual(),
+                produto.getEstoqueMinimo(),
+                produto.isAtivo(),
+                produto.getDataCadastro(),
+                produto.getDataAtualizacao(),
+                produto.getDataVencimento());
+        
+        if (id != null) {
+            produto.setId(id.intValue());
         }
+        
+        return produto;
     }
     
     /**
@@ -101,26 +105,31 @@ public class ProdutoDAO  {
      * @throws SQLException Em caso de erro no banco de dados
      */
     public Produto findByCodigo(String codigo) throws SQLException {
-        String sql = "SELECT p.*, c.id as categoria_id, c.nome as categoria_nome, " +
-                    "m.id as marca_id, m.nome as marca_nome, " +
-                    "s.id as subcategoria_id, s.nome as subcategoria_nome " +
-                    "FROM produtos p " +
-                    "LEFT JOIN categorias c ON p.categoria_id = c.id " +
-                    "LEFT JOIN marcas m ON p.marca_id = m.id " +
-                    "LEFT JOIN subcategorias s ON p.subcategoria_id = s.id " +
-                    "WHERE p.codigo = ?";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, codigo);
-            
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return mapResultSetToProduto(rs);
-            }
-            
-            return null;
-        }
+        return jdbcTemplate.queryForObject(SQL_SELECT_BASE + "WHERE p.codigo = ?", this::mapResultSetToProduto, codigo);
+    }
+    
+    /**
+     * Busca um produto pelo código ou pelo código de barras, com preferência pelo código
+     * @param codigo O código ou código de barras lido
+     * @return O produto encontrado ou null
+     * @throws SQLException Em caso de erro no banco de dados
+     */
+    public Produto findByCodigoOuCodigoBarra(String codigo) throws SQLException {
+        return jdbcTemplate.queryForObject(SQL_SELECT_BASE + "WHERE p.codigo = ? OR p.codigo_barra = ? " +
+                "ORDER BY p.codigo = ? DESC LIMIT 1", this::mapResultSetToProduto, codigo, codigo, codigo);
+    }
+    
+    /**
+     * Busca os produtos alterados a partir de um momento ou criados depois de um ID, para
+     * atualizar o índice de códigos (ver IndiceProdutos)
+     * @param desde Menor data de atualização a buscar
+     * @param ultimoId Maior ID já conhecido
+     * @return Lista de produtos, ativos ou não
+     * @throws SQLException Em caso de erro no banco de dados
+     */
+    public List<Produto> findAlteradosDesde(LocalDateTime desde, int ultimoId) throws SQLException {
+        return jdbcTemplate.query(SQL_SELECT_BASE + "WHERE p.data_atualizacao >= ? OR p.id > ?",
+                this::mapResultSetToProduto, Timestamp.valueOf(desde), ultimoId);
     }
     
     /**
@@ -131,49 +140,10 @@ public class ProdutoDAO  {
      */
     
     public Produto update(Produto produto) throws SQLException {
-        String sql = "UPDATE produtos SET nome = ?, descricao = ?, tipo = ?, marca_id = ?, " +
-                "subcategoria_id = ?, unidade = ?, categoria_id = ?, codigo_barra = ?, codigo = ?, " +
-                "cor = ?, tamanho = ?, custo = ?, preco = ?, cfop = ?, icms = ?, icms_sub = ?, " +
-                "estoque_atual = ?, estoque_minimo = ?, ativo = ?, data_atualizacao = ?, data_vencimento = ? " +
-                "WHERE id = ?";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            // Definir os parâmetros
-            stmt.setString(1, produto.getNome());
-            stmt.setString(2, produto.getDescricao());
-            stmt.setString(3, produto.getTipo());
-            stmt.setInt(4, produto.getMarca() != null ? produto.getMarca().getId() : null);
-            stmt.setInt(5, produto.getSubcategoria() != null ? produto.getSubcategoria().getId() : null);
-            stmt.setString(6, produto.getUnidade());
-            stmt.setInt(7, produto.getCategoria() != null ? produto.getCategoria().getId() : null);
-            stmt.setString(8, produto.getCodigoBarra());
-            stmt.setString(9, produto.getCodigo());
-            stmt.setString(10, produto.getCor());
-            stmt.setString(11, produto.getTamanho());
-            stmt.setBigDecimal(12, produto.getCusto());
-            stmt.setBigDecimal(13, produto.getPreco());
-            stmt.setString(14, produto.getCfop());
-            stmt.setBigDecimal(15, produto.getIcms());
-            stmt.setBigDecimal(16, produto.getIcmsSub());
-            stmt.setInt(17, produto.getEstoqueAtual());
-            stmt.setInt(18, produto.getEstoqueMinimo());
-            stmt.setBoolean(19, produto.isAtivo());
-            
-            // Converter LocalDateTime para Timestamp
-            stmt.setTimestamp(20, Timestamp.valueOf(LocalDateTime.now()));
-            
-            // Converter LocalDate para Date
-            stmt.setDate(21, produto.getDataVencimento() != null ? 
-                           java.sql.Date.valueOf(produto.getDataVencimento()) : null);
-            
-            // ID do produto
-            stmt.setInt(22, produto.getId());
-            
-            // Executar a atualização
-            stmt.executeUpdate();
-            
-            return produto;
-        }
+        IdentityMap.remover(Produto.class, produto.getId());
+        IndiceProdutos.getInstance().invalidar(produto.getId());
+        jdbcTemplate.update(SQL_UPDATE, parametrosUpdate(produto));
+        return produto;
     }
     
     /**
@@ -184,22 +154,13 @@ public class ProdutoDAO  {
      * @throws SQLException Em caso de erro no banco de dados
      */
     public Produto findById(Integer id, Connection connection) throws SQLException {
-        String sql = "SELECT p.*, c.id as categoria_id, c.nome as categoria_nome, " +
-                    "m.id as marca_id, m.nome as marca_nome, " +
-                    "s.id as subcategoria_id, s.nome as subcategoria_nome " +
-                    "FROM produtos p " +
-                    "LEFT JOIN categorias c ON p.categoria_id = c.id " +
-                    "LEFT JOIN marcas m ON p.marca_id = m.id " +
-                    "LEFT JOIN subcategorias s ON p.subcategoria_id = s.id " +
-                    "WHERE p.id = ?";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (PreparedStatement stmt = connection.prepareStatement(SQL_SELECT_BY_ID)) {
             stmt.setInt(1, id);
             
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return mapResultSetToProduto(rs);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToProduto(rs);
+                }
             }
             
             return null;
@@ -213,16 +174,30 @@ public class ProdutoDAO  {
      * @throws SQLException Em caso de erro no banco de dados
      */
     public Produto findById(Integer id) throws SQLException {
-        return findById(id, this.connection);
+        return IdentityMap.buscar(Produto.class, id,
+                i -> jdbcTemplate.queryForObject(SQL_SELECT_BY_ID, this::mapResultSetToProduto, i));
     }
-    
-    
+
     /**
-     * Retorna a conexão utilizada por este DAO
-     * @return A conexão com o banco de dados
+     * Busca vários produtos de uma vez, em uma consulta IN por bloco de IDs
+     * @param ids IDs dos produtos (repetidos e nulos são ignorados)
+     * @return Mapa do ID para o produto; IDs inexistentes não aparecem no mapa
+     * @throws SQLException Em caso de erro no banco de dados
      */
-    public Connection getConnection() {
-        return this.connection;
+    public Map<Integer, Produto> findByIds(Collection<Integer> ids) throws SQLException {
+        return IdentityMap.buscarTodos(Produto.class, ids, this::carregarPorIds);
+    }
+
+    private Map<Integer, Produto> carregarPorIds(Collection<Integer> ids) throws SQLException {
+        Map<Integer, Produto> produtos = new HashMap<>();
+        if (ids.isEmpty()) {
+            return produtos;
+        }
+        for (Produto produto : jdbcTemplate.queryIn(SQL_SELECT_BASE + "WHERE p.id IN (" + JdbcTemplate.MARCADOR_IN + ")",
+                ids, this::mapResultSetToProduto)) {
+            produtos.put(produto.getId(), produto);
+        }
+        return produtos;
     }
 
     /**
@@ -233,80 +208,71 @@ public class ProdutoDAO  {
      * @throws SQLException Em caso de erro no banco de dados
      */
     public Produto update(Produto produto, Connection connection) throws SQLException {
-        String sql = "UPDATE produtos SET nome = ?, descricao = ?, tipo = ?, marca_id = ?, " +
-                "subcategoria_id = ?, unidade = ?, categoria_id = ?, codigo_barra = ?, codigo = ?, " +
-                "cor = ?, tamanho = ?, custo = ?, preco = ?, cfop = ?, icms = ?, icms_sub = ?, " +
-                "estoque_atual = ?, estoque_minimo = ?, ativo = ?, data_atualizacao = ?, data_vencimento = ? " +
-                "WHERE id = ?";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            // Definir os parâmetros
-            stmt.setString(1, produto.getNome());
-            stmt.setString(2, produto.getDescricao());
-            stmt.setString(3, produto.getTipo());
-            stmt.setObject(4, produto.getMarca() != null ? produto.getMarca().getId() : null);
-            stmt.setObject(5, produto.getSubcategoria() != null ? produto.getSubcategoria().getId() : null);
-            stmt.setString(6, produto.getUnidade());
-            stmt.setObject(7, produto.getCategoria() != null ? produto.getCategoria().getId() : null);
-            stmt.setString(8, produto.getCodigoBarra());
-            stmt.setString(9, produto.getCodigo());
-            stmt.setString(10, produto.getCor());
-            stmt.setString(11, produto.getTamanho());
-            stmt.setBigDecimal(12, produto.getCusto());
-            stmt.setBigDecimal(13, produto.getPreco());
-            stmt.setString(14, produto.getCfop());
-            stmt.setBigDecimal(15, produto.getIcms());
-            stmt.setBigDecimal(16, produto.getIcmsSub());
-            stmt.setInt(17, produto.getEstoqueAtual());
-            stmt.setInt(18, produto.getEstoqueMinimo());
-            stmt.setBoolean(19, produto.isAtivo());
-            
-            // Converter LocalDateTime para Timestamp
-            stmt.setTimestamp(20, Timestamp.valueOf(LocalDateTime.now()));
-            
-            // Converter LocalDate para Date
-            if (produto.getDataVencimento() != null) {
-                stmt.setDate(21, java.sql.Date.valueOf(produto.getDataVencimento()));
-            } else {
-                stmt.setNull(21, Types.DATE);
-            }
-            
-            // ID do produto
-            stmt.setInt(22, produto.getId());
-            
-            // Executar a atualização
+        IdentityMap.remover(Produto.class, produto.getId());
+        IndiceProdutos.getInstance().invalidar(produto.getId());
+        try (PreparedStatement stmt = connection.prepareStatement(SQL_UPDATE)) {
+            JdbcTemplate.definirParametros(stmt, parametrosUpdate(produto));
             stmt.executeUpdate();
-            
             return produto;
         }
     }
     
+    /**
+     * Parâmetros do SQL_UPDATE, na ordem das colunas
+     */
+    private Object[] parametrosUpdate(Produto produto) {
+        return new Object[] {
+            produto.getNome(),
+            produto.getDescricao(),
+            produto.getTipo(),
+            produto.getMarca() != null ? produto.getMarca().getId() : null,
+            produto.getSubcategoria() != null ? produto.getSubcategoria().getId() : null,
+            produto.getUnidade(),
+            produto.getCategoria() != null ? produto.getCategoria().getId() : null,
+            produto.getCodigoBarra(),
+            produto.getCodigo(),
+            produto.getCor(),
+            produto.getTamanho(),
+            produto.getCusto(),
+            produto.getPreco(),
+            produto.getCfop(),
+            produto.getIcms(),
+            produto.getIcmsSub(),
+            produto.getEstoqueAtual(),
+            produto.getEstoqueMinimo(),
+            produto.isAtivo(),
+            LocalDateTime.now(),
+            produto.getDataVencimento(),
+            produto.getId()
+        };
+    }
+    
+    /**
+     * Busca uma página de produtos em ordem de nome, a partir do último produto da página
+     * anterior (paginação por chave nome + id)
+     * @param ultimo Último produto da página anterior, ou null para a primeira página
+     * @param limite Quantidade máxima de produtos na página
+     * @return A página de produtos
+     * @throws SQLException Em caso de erro no banco de dados
+     */
+    public Pagina<Produto> findAfter(Produto ultimo, int limite) throws SQLException {
+        Pagina.validarLimite(limite);
+        List<Produto> linhas = ultimo == null
+                ? jdbcTemplate.query(SQL_SELECT_BASE + "ORDER BY p.nome, p.id LIMIT ?",
+                        this::mapResultSetToProduto, limite + 1)
+                : jdbcTemplate.query(SQL_SELECT_BASE + "WHERE p.nome > ? OR (p.nome = ? AND p.id > ?) "
+                        + "ORDER BY p.nome, p.id LIMIT ?",
+                        this::mapResultSetToProduto, ultimo.getNome(), ultimo.getNome(), ultimo.getId(), limite + 1);
+        return Pagina.de(linhas, limite);
+    }
+
     /**
      * Busca todos os produtos
      * @return Lista de todos os produtos
      * @throws SQLException Em caso de erro no banco de dados
      */
     public List<Produto> findAll() throws SQLException {
-        String sql = "SELECT p.*, c.id as categoria_id, c.nome as categoria_nome, " +
-                    "m.id as marca_id, m.nome as marca_nome, " +
-                    "s.id as subcategoria_id, s.nome as subcategoria_nome " +
-                    "FROM produtos p " +
-                    "LEFT JOIN categorias c ON p.categoria_id = c.id " +
-                    "LEFT JOIN marcas m ON p.marca_id = m.id " +
-                    "LEFT JOIN subcategorias s ON p.subcategoria_id = s.id " +
-                    "ORDER BY p.nome";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            ResultSet rs = stmt.executeQuery();
-            
-            List<Produto> produtos = new ArrayList<>();
-            
-            while (rs.next()) {
-                produtos.add(mapResultSetToProduto(rs));
-            }
-            
-            return produtos;
-        }
+        return jdbcTemplate.query(SQL_SELECT_BASE + "ORDER BY p.nome", this::mapResultSetToProduto);
     }
     
     /**
@@ -315,27 +281,7 @@ public class ProdutoDAO  {
      * @throws SQLException Em caso de erro no banco de dados
      */
     public List<Produto> findAllAtivos() throws SQLException {
-        String sql = "SELECT p.*, c.id as categoria_id, c.nome as categoria_nome, " +
-                    "m.id as marca_id, m.nome as marca_nome, " +
-                    "s.id as subcategoria_id, s.nome as subcategoria_nome " +
-                    "FROM produtos p " +
-                    "LEFT JOIN categorias c ON p.categoria_id = c.id " +
-                    "LEFT JOIN marcas m ON p.marca_id = m.id " +
-                    "LEFT JOIN subcategorias s ON p.subcategoria_id = s.id " +
-                    "WHERE p.ativo = true " +
-                    "ORDER BY p.nome";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            ResultSet rs = stmt.executeQuery();
-            
-            List<Produto> produtos = new ArrayList<>();
-            
-            while (rs.next()) {
-                produtos.add(mapResultSetToProduto(rs));
-            }
-            
-            return produtos;
-        }
+        return jdbcTemplate.query(SQL_SELECT_BASE + "WHERE p.ativo = true ORDER BY p.nome", this::mapResultSetToProduto);
     }
     
     /**
@@ -345,29 +291,35 @@ public class ProdutoDAO  {
      * @throws SQLException Em caso de erro no banco de dados
      */
     public List<Produto> findByNome(String nome) throws SQLException {
-        String sql = "SELECT p.*, c.id as categoria_id, c.nome as categoria_nome, " +
-                    "m.id as marca_id, m.nome as marca_nome, " +
-                    "s.id as subcategoria_id, s.nome as subcategoria_nome " +
-                    "FROM produtos p " +
-                    "LEFT JOIN categorias c ON p.categoria_id = c.id " +
-                    "LEFT JOIN marcas m ON p.marca_id = m.id " +
-                    "LEFT JOIN subcategorias s ON p.subcategoria_id = s.id " +
-                    "WHERE p.ativo = true AND p.nome LIKE ? " +
-                    "ORDER BY p.nome";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, "%" + nome + "%");
-            
-            ResultSet rs = stmt.executeQuery();
-            
-            List<Produto> produtos = new ArrayList<>();
-            
-            while (rs.next()) {
-                produtos.add(mapResultSetToProduto(rs));
-            }
-            
-            return produtos;
-        }
+        return jdbcTemplate.query(SQL_SELECT_BASE + "WHERE p.ativo = true AND p.nome LIKE ? ORDER BY p.nome",
+                this::mapResultSetToProduto, "%" + nome + "%");
+    }
+
+    /**
+     * Busca uma página de resumos de produtos em ordem de nome, para as listagens
+     * @param ultimo Último resumo da página anterior, ou null para a primeira página
+     * @param limite Quantidade máxima de produtos na página
+     * @return A página de resumos
+     * @throws SQLException Em caso de erro no banco de dados
+     */
+    public Pagina<ProdutoResumo> findResumosAfter(ProdutoResumo ultimo, int limite) throws SQLException {
+        Pagina.validarLimite(limite);
+        List<ProdutoResumo> linhas = ultimo == null
+                ? jdbcTemplate.query(SQL_SELECT_RESUMO + "ORDER BY nome, id LIMIT ?", this::mapResultSetToResumo, limite + 1)
+                : jdbcTemplate.query(SQL_SELECT_RESUMO + "WHERE nome > ? OR (nome = ? AND id > ?) ORDER BY nome, id LIMIT ?",
+                        this::mapResultSetToResumo, ultimo.nome(), ultimo.nome(), ultimo.id(), limite + 1);
+        return Pagina.de(linhas, limite);
+    }
+
+    /**
+     * Busca resumos de produtos ativos pelo nome (busca parcial)
+     * @param nome O nome ou parte do nome
+     * @return Lista de resumos encontrados
+     * @throws SQLException Em caso de erro no banco de dados
+     */
+    public List<ProdutoResumo> findResumosByNome(String nome) throws SQLException {
+        return jdbcTemplate.query(SQL_SELECT_RESUMO + "WHERE ativo = true AND nome LIKE ? ORDER BY nome",
+                this::mapResultSetToResumo, "%" + nome + "%");
     }
     
     /**
@@ -377,27 +329,9 @@ public class ProdutoDAO  {
      * @throws SQLException Em caso de erro no banco de dados
      */
     public List<Produto> findWithLowStock() throws SQLException {
-        String sql = "SELECT p.*, c.id as categoria_id, c.nome as categoria_nome, " +
-                    "m.id as marca_id, m.nome as marca_nome, " +
-                    "s.id as subcategoria_id, s.nome as subcategoria_nome " +
-                    "FROM produtos p " +
-                    "LEFT JOIN categorias c ON p.categoria_id = c.id " +
-                    "LEFT JOIN marcas m ON p.marca_id = m.id " +
-                    "LEFT JOIN subcategorias s ON p.subcategoria_id = s.id " +
-                    "WHERE p.ativo = true AND p.estoque_atual < p.estoque_minimo " +
-                    "ORDER BY p.nome";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            ResultSet rs = stmt.executeQuery();
-            
-            List<Produto> produtos = new ArrayList<>();
-            
-            while (rs.next()) {
-                produtos.add(mapResultSetToProduto(rs));
-            }
-            
-            return produtos;
-        }
+        return JdbcTemplate.getLeitura().query(
+                SQL_SELECT_BASE + "WHERE p.ativo = true AND p.estoque_atual < p.estoque_minimo ORDER BY p.nome",
+                this::mapResultSetToProduto);
     }
     
     
@@ -408,17 +342,7 @@ public class ProdutoDAO  {
      * @throws SQLException Em caso de erro no banco de dados
      */
     public int contarProdutosAtivos() throws SQLException {
-        String sql = "SELECT COUNT(*) FROM produtos WHERE ativo = true";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-            
-            return 0;
-        }
+        return (int) JdbcTemplate.getLeitura().queryForLong("SELECT COUNT(*) FROM produtos WHERE ativo = true");
     }
 
     /**
@@ -428,17 +352,7 @@ public class ProdutoDAO  {
      * @throws SQLException Em caso de erro no banco de dados
      */
     public int calcularTotalItensEstoque() throws SQLException {
-        String sql = "SELECT SUM(estoque_atual) FROM produtos WHERE ativo = true";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-            
-            return 0;
-        }
+        return (int) JdbcTemplate.getLeitura().queryForLong("SELECT SUM(estoque_atual) FROM produtos WHERE ativo = true");
     }
 
     /**
@@ -448,17 +362,8 @@ public class ProdutoDAO  {
      * @throws SQLException Em caso de erro no banco de dados
      */
     public int contarProdutosComEstoqueBaixo() throws SQLException {
-        String sql = "SELECT COUNT(*) FROM produtos WHERE ativo = true AND estoque_atual < estoque_minimo";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-            
-            return 0;
-        }
+        return (int) JdbcTemplate.getLeitura().queryForLong(
+                "SELECT COUNT(*) FROM produtos WHERE ativo = true AND estoque_atual < estoque_minimo");
     }
     
     
@@ -470,23 +375,27 @@ public class ProdutoDAO  {
      */
     
     public void  delete(Integer id) throws SQLException {
+        IdentityMap.remover(Produto.class, id);
+        IndiceProdutos.getInstance().invalidar(id);
         // Na prática, muitas vezes não excluímos realmente os registros, apenas marcamos como inativos
-        String sql = "UPDATE produtos SET ativo = false, data_atualizacao = ? WHERE id = ?";
+        int rowsAffected = jdbcTemplate.update("UPDATE produtos SET ativo = false, data_atualizacao = ? WHERE id = ?",
+                LocalDateTime.now(), id);
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            // Definir a data de atualização como agora
-            stmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
-            stmt.setInt(2, id);
-            
-            // Executar a atualização
-            int rowsAffected = stmt.executeUpdate();
-            
-            if (rowsAffected == 0) {
-                throw new SQLException("Não foi possível excluir o produto com ID " + id + ". Produto não encontrado.");
-            }
+        if (rowsAffected == 0) {
+            throw new SQLException("Não foi possível excluir o produto com ID " + id + ". Produto não encontrado.");
         }
     }
     
+    /**
+     * Mapeia uma linha de SQL_SELECT_RESUMO
+     */
+    private ProdutoResumo mapResultSetToResumo(ResultSet rs) throws SQLException {
+        Date dataVencimento = rs.getDate("data_vencimento");
+        return new ProdutoResumo(rs.getInt("id"), rs.getString("codigo"), rs.getString("nome"), rs.getString("cor"),
+                rs.getString("tamanho"), rs.getBigDecimal("preco"), rs.getInt("estoque_atual"),
+                rs.getInt("estoque_minimo"), dataVencimento != null ? dataVencimento.toLocalDate() : null);
+    }
+
     /**
      * Mapeia um ResultSet para um objeto Produto
      * @param rs O ResultSet com os dados do produto
@@ -0,0 +1,439 @@
+package br.com.pdv.dao;
+
+import br.com.pdv.exception.CpfCnpjDuplicadoException;
+import br.com.pdv.model.Cliente;
+import br.com.pdv.model.ItemPedido;
+import br.com.pdv.model.Pedido;
+import br.com.pdv.model.Produto;
+import br.com.pdv.model.Usuario;
+import br.com.pdv.util.DatabaseConnection;
+import br.com.pdv.util.LogUtil;
+import br.com.pdv.util.RetryPolicy;
+import br.com.pdv.util.TransactionManager;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLNonTransientException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Envia ao banco as vendas registradas no {@link DiarioVendas}.
+ *
+ * Uma única thread drena o diário na ordem de registro, em lotes de até
+ * {@link #TAMANHO_LOTE} vendas por transação: cliente, vendedor, baixa de estoque, pedido e itens.
+ * Cada venda aplicada é anotada na tabela diario_vendas_aplicadas, na mesma transação, com
+ * a chave do diário; se o terminal cair entre o commit e a confirmação no diário, a venda
+ * é reconhecida na próxima tentativa e não é gravada de novo.
+ *
+ * Se o banco estiver fora do ar, as vendas continuam no diário e são reenviadas a cada
+ * {@link #INTERVALO_SINCRONIZACAO_MS} ms e ao iniciar o PDV. Uma venda recusada pelo banco
+ * (estoque insuficiente, vendedor inexistente, chave estrangeira ou dado inválido, ver
+ * {@link #isFalhaDefinitiva(SQLException)}) é rejeitada no diário, registrada por
+ * completo no log e avisada aos ouvintes ({@link #adicionarOuvinteRejeicao(Consumer)}); ela
+ * fica em {@link #getRejeitadas()} até ser conferida no terminal.
+ */
+public final class ReplicadorVendas {
+
+    /** Vendas gravadas por transação */
+    public static final int TAMANHO_LOTE = 20;
+
+    /** Intervalo entre as tentativas de enviar as vendas pendentes */
+    public static final long INTERVALO_SINCRONIZACAO_MS = 30_000;
+
+    /**
+     * Uma venda registrada no diário e o envio dela ao banco
+     *
+     * @param chave Chave da venda no diário
+     * @param resultado Future concluído com o ID do pedido gravado; falha com o erro que
+     *        rejeitou a venda (IllegalStateException para estoque insuficiente,
+     *        IllegalArgumentException para vendedor inexistente, outra RuntimeException ou
+     *        uma SQLException definitiva), ou com uma SQLException transitória se ela ficou
+     *        no diário para reenvio; ver {@link #isAdiada(Throwable)}
+     */
+    public record Envio(String chave, CompletableFuture<Integer> resultado) {
+    }
+
+    private static final String SQL_CREATE_TABLE = "CREATE TABLE IF NOT EXISTS diario_vendas_aplicadas (" +
+            "chave CHAR(36) NOT NULL PRIMARY KEY, pedido_id INT NOT NULL, aplicada_em DATETIME NOT NULL)";
+    private static final String SQL_SELECT_APLICADA = "SELECT pedido_id FROM diario_vendas_aplicadas WHERE chave = ?";
+    private static final String SQL_INSERT_APLICADA = "INSERT INTO diario_vendas_aplicadas " +
+            "(chave, pedido_id, aplicada_em) VALUES (?, ?, ?)";
+
+    private static ReplicadorVendas instance;
+
+    private final DiarioVendas diario;
+    private final ScheduledExecutorService executor;
+    // Quem aguarda o resultado de cada venda enviada nesta execução, por chave
+    private final Map<String, CompletableFuture<Integer>> aguardando = new ConcurrentHashMap<>();
+    private final List<Consumer<DiarioVendas.Rejeitada>> ouvintesRejeicao = new CopyOnWriteArrayList<>();
+    private boolean tabelaCriada;
+    private boolean iniciado;
+
+    private ReplicadorVendas(DiarioVendas diario) {
+        this.diario = diario;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pdv-replicador-vendas");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Retorna a instância única do replicador (Padrão Singleton)
+     * @return A instância do replicador
+     * @throws IllegalStateException Se o diário de vendas não puder ser aberto
+     */
+    public static synchronized ReplicadorVendas getInstance() {
+        if (instance == null) {
+            instance = new ReplicadorVendas(DiarioVendas.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Envia as vendas que ficaram pendentes na execução anterior e agenda os reenvios
+     * periódicos. Chamadas repetidas são ignoradas.
+     */
+    public synchronized void iniciar() {
+        if (iniciado) {
+            return;
+        }
+        iniciado = true;
+        int pendentes = diario.contarPendentes();
+        if (pendentes > 0) {
+            LogUtil.info(ReplicadorVendas.class, pendentes + " vendas do diário local aguardando envio ao banco");
+        }
+        executor.scheduleWithFixedDelay(this::sincronizar, 0, INTERVALO_SINCRONIZACAO_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registra uma venda finalizada no diário e a envia ao banco, depois das que já estavam
+     * pendentes
+     * @param pedido O pedido finalizado, com os itens
+     * @param nomeVendedor Login ou nome do vendedor selecionado
+     * @return A chave da venda e o futuro do envio
+     * @throws IOException Se a venda não puder ser gravada no diário; nada foi registrado
+     */
+    public Envio registrar(Pedido pedido, String nomeVendedor) throws IOException {
+        CompletableFuture<Integer> futuro = new CompletableFuture<>();
+        DiarioVendas.Entrada entrada;
+        // Com o diário bloqueado, um envio em andamento não lê a venda antes de o futuro existir
+        synchronized (diario) {
+            entrada = diario.registrar(pedido, nomeVendedor);
+            aguardando.put(entrada.chave(), futuro);
+        }
+        executor.execute(this::sincronizar);
+        return new Envio(entrada.chave(), futuro);
+    }
+
+    /**
+     * Inclui um ouvinte avisado de cada venda rejeitada, inclusive das reenviadas depois de
+     * uma falha do banco. O ouvinte roda na thread do replicador.
+     * @param ouvinte Recebe a venda rejeitada
+     */
+    public void adicionarOuvinteRejeicao(Consumer<DiarioVendas.Rejeitada> ouvinte) {
+        ouvintesRejeicao.add(ouvinte);
+    }
+
+    /**
+     * Vendas rejeitadas pelo banco e ainda não conferidas no terminal
+     */
+    public List<DiarioVendas.Rejeitada> getRejeitadas() {
+        return diario.getRejeitadas();
+    }
+
+    /**
+     * Número de vendas rejeitadas ainda não conferidas
+     */
+    public int contarRejeitadas() {
+        return diario.contarRejeitadas();
+    }
+
+    /**
+     * Marca uma venda rejeitada como conferida, retirando-a do diário
+     * @param chave Chave da venda
+     * @throws IOException Se a gravação no diário falhar
+     */
+    public void marcarConferida(String chave) throws IOException {
+        diario.marcarConferida(chave);
+    }
+
+    /**
+     * Verifica se a falha de um envio deixou a venda no diário para reenvio, em vez de
+     * rejeitá-la
+     * @param causa O erro com que o envio da venda falhou
+     * @return true se a venda continua pendente no diário
+     */
+    public static boolean isAdiada(Throwable causa) {
+        return causa instanceof SQLException e && !isFalhaDefinitiva(e);
+    }
+
+    /**
+     * Verifica se um erro de banco é definitivo para a venda: repetir o envio falharia do
+     * mesmo jeito (chave estrangeira, dado truncado ou inválido, erro de SQL). Falhas
+     * transitórias e de conexão (SQLState 08) e os erros do próprio pool mantêm a venda no
+     * diário; os conflitos de bloqueio já são repetidos pelo {@link RetryPolicy}.
+     */
+    private static boolean isFalhaDefinitiva(SQLException erro) {
+        String estado = erro.getSQLState();
+        if (estado != null && estado.startsWith("08")) {
+            return false;
+        }
+        if (erro instanceof SQLNonTransientException && !(erro instanceof SQLNonTransientConnectionException)) {
+            return true;
+        }
+        // Violação de integridade (23) ou dado inválido (22), mesmo quando o driver não usa a
+        // subclasse correspondente (ex.: DataTruncation)
+        return estado != null && (estado.startsWith("22") || estado.startsWith("23"));
+    }
+
+    /**
+     * Envia as vendas pendentes, em ordem; para na primeira falha transitória do banco.
+     * Uma venda recusada por outro motivo é rejeitada e não impede o envio das seguintes.
+     */
+    private void sincronizar() {
+        try {
+            List<DiarioVendas.Entrada> pendentes = diario.getPendentes();
+            for (int i = 0; i < pendentes.size(); i += TAMANHO_LOTE) {
+                List<DiarioVendas.Entrada> lote = pendentes.subList(i, Math.min(i + TAMANHO_LOTE, pendentes.size()));
+                if (!enviarLote(lote)) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            // Não interrompe os reenvios agendados; as vendas continuam pendentes
+            LogUtil.error(ReplicadorVendas.class, "Erro inesperado ao enviar vendas do diário", e);
+            adiarAguardando(new SQLException("Erro inesperado ao enviar vendas do diário: " + e.getMessage(), e));
+        }
+    }
+
+    /**
+     * Grava um lote de vendas em uma única transação. Se uma delas falhar com um erro que
+     * não se resolve repetindo (estoque insuficiente, vendedor inexistente, chave estrangeira
+     * ou dado inválido), o lote é revertido e as vendas são gravadas uma a uma, para rejeitar
+     * só a que falhou.
+     *
+     * @return false se o banco falhou e o envio deve ser interrompido
+     */
+    private boolean enviarLote(List<DiarioVendas.Entrada> lote) {
+        Map<String, Integer> gravadas;
+        try {
+            criarTabelaSeNecessario();
+            gravadas = RetryPolicy.PADRAO.executar("ReplicadorVendas.enviarLote", () ->
+                    TransactionManager.inTransaction(() -> {
+                        Map<String, Integer> ids = new LinkedHashMap<>();
+                        for (DiarioVendas.Entrada entrada : lote) {
+                            ids.put(entrada.chave(), aplicar(entrada));
+                        }
+                        return ids;
+                    }));
+        } catch (RuntimeException e) {
+            return separarOuRejeitar(lote, e);
+        } catch (SQLException e) {
+            if (isFalhaDefinitiva(e)) {
+                return separarOuRejeitar(lote, e);
+            }
+            LogUtil.warn(ReplicadorVendas.class, String.format(
+                    "Banco indisponível, %d vendas mantidas no diário local para reenvio: %s",
+                    diario.contarPendentes(), e.getMessage()));
+            adiarAguardando(e);
+            return false;
+        }
+
+        for (Map.Entry<String, Integer> e : gravadas.entrySet()) {
+            try {
+                diario.confirmar(e.getKey(), e.getValue());
+            } catch (IOException ex) {
+                // Continua pendente; no reenvio a venda é reconhecida em diario_vendas_aplicadas
+                LogUtil.error(ReplicadorVendas.class, "Erro ao confirmar venda no diário: " + e.getKey(), ex);
+            }
+            CompletableFuture<Integer> futuro = aguardando.remove(e.getKey());
+            if (futuro != null) {
+                futuro.complete(e.getValue());
+            }
+        }
+        LogUtil.info(ReplicadorVendas.class, gravadas.size() + " vendas do diário gravadas no banco");
+        return true;
+    }
+
+    /**
+     * Reenvia as vendas de um lote recusado uma a uma; uma venda sozinha é rejeitada
+     *
+     * @return false se o banco falhou e o envio deve ser interrompido
+     */
+    private boolean separarOuRejeitar(List<DiarioVendas.Entrada> lote, Exception motivo) {
+        if (lote.size() > 1) {
+            for (DiarioVendas.Entrada entrada : lote) {
+                if (!enviarLote(List.of(entrada))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        rejeitar(lote.get(0), motivo);
+        return true;
+    }
+
+    /**
+     * Grava uma venda na transação corrente, se ainda não foi gravada
+     * @return O ID do pedido
+     * @throws IllegalArgumentException Se o vendedor não existir
+     * @throws IllegalStateException Se algum produto não tiver estoque suficiente
+     * @throws SQLException Se o banco falhar; a venda continua pendente, salvo se a falha
+     *         for definitiva
+     */
+    private Integer aplicar(DiarioVendas.Entrada entrada) throws SQLException {
+        JdbcTemplate jdbc = JdbcTemplate.getInstance();
+        Integer existente = jdbc.queryForObject(SQL_SELECT_APLICADA, rs -> rs.getInt(1), entrada.chave());
+        if (existente != null) {
+            LogUtil.info(ReplicadorVendas.class, "Venda " + entrada.chave() + " já gravada no pedido " + existente);
+            return existente;
+        }
+
+        Pedido pedido = montarPedido(entrada);
+        Connection conn = DatabaseConnection.getInstance().getConnection();
+
+        ResultadoBaixaEstoque baixa = EstoqueDAO.getInstance().darBaixa(pedido.getItens(), conn);
+        if (!baixa.isCompleta()) {
+            throw new IllegalStateException(baixa.descreverFaltas() + "\n\n" +
+                "O estoque pode ter sido alterado por outro usuário.");
+        }
+
+        PedidoDAO.getInstance().create(pedido, conn);
+        ItemPedidoDAO.getInstance().createAll(pedido.getItens(), conn);
+        jdbc.update(SQL_INSERT_APLICADA, entrada.chave(), pedido.getId(), Timestamp.valueOf(LocalDateTime.now()));
+        return pedido.getId();
+    }
+
+    /**
+     * Monta o pedido finalizado a partir da venda do diário, buscando o vendedor pelo login
+     * ou pelo nome no cadastro de vendedores e o cliente pelo nome informado no caixa
+     */
+    private Pedido montarPedido(DiarioVendas.Entrada entrada) throws SQLException {
+        Usuario vendedor = DiretorioVendedores.getInstance().buscar(entrada.nomeVendedor());
+        if (vendedor == null) {
+            throw new IllegalArgumentException("Vendedor '" + entrada.nomeVendedor() + "' não encontrado no banco de dados");
+        }
+
+        Pedido pedido = new Pedido();
+        if (entrada.clienteId() != null) {
+            Cliente cliente = new Cliente();
+            cliente.setId(entrada.clienteId().intValue());
+            pedido.setCliente(cliente);
+        } else if (entrada.nomeCliente() != null) {
+            pedido.setCliente(localizarCliente(entrada.nomeCliente()));
+        }
+        pedido.setUsuario(vendedor);
+        pedido.setVendedorId(vendedor.getId().longValue());
+        pedido.setVendedor(vendedor);
+        pedido.setDataPedido(entrada.dataVenda());
+        pedido.setValorTotal(entrada.valorTotal());
+        pedido.setStatus("FINALIZADO");
+
+        List<ItemPedido> itens = new ArrayList<>();
+        for (DiarioVendas.Entrada.Item item : entrada.itens()) {
+            Produto produto = new Produto();
+            produto.setId(item.produtoId());
+            produto.setNome(item.nomeProduto());
+            ItemPedido itemPedido = new ItemPedido();
+            itemPedido.setPedido(pedido);
+            itemPedido.setProduto(produto);
+            itemPedido.setQuantidade(item.quantidade());
+            itemPedido.setValorUnitario(item.valorUnitario());
+            itens.add(itemPedido);
+        }
+        pedido.setItens(itens);
+        return pedido;
+    }
+
+    /**
+     * Busca o cliente pelo nome e, se não existir, o cadastra na transação corrente, como o
+     * caixa fazia antes de registrar a venda
+     */
+    private Cliente localizarCliente(String nomeCliente) throws SQLException {
+        ClienteDAO clienteDAO = ClienteDAO.getInstance();
+        Cliente cliente = clienteDAO.findByNome(nomeCliente);
+        if (cliente != null) {
+            return cliente;
+        }
+        Cliente novoCliente = new Cliente();
+        novoCliente.setNome(nomeCliente);
+        novoCliente.setAtivo(true);
+        novoCliente.setData(LocalDateTime.now());
+        try {
+            cliente = clienteDAO.create(novoCliente);
+        } catch (CpfCnpjDuplicadoException e) {
+            // O cliente novo não tem CPF/CNPJ; não deveria acontecer
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        LogUtil.info(ReplicadorVendas.class, "Cliente '" + nomeCliente + "' cadastrado ao gravar venda do diário: ID "
+                + cliente.getId());
+        return cliente;
+    }
+
+    /**
+     * Cria a tabela de vendas aplicadas na primeira gravação. O DDL faz commit implícito no
+     * MySQL e por isso roda fora da transação das vendas.
+     */
+    private void criarTabelaSeNecessario() throws SQLException {
+        if (!tabelaCriada) {
+            JdbcTemplate.getInstance().update(SQL_CREATE_TABLE);
+            tabelaCriada = true;
+        }
+    }
+
+    /**
+     * Rejeita no diário uma venda recusada pelo banco, registra a venda completa no log e
+     * avisa os ouvintes
+     */
+    private void rejeitar(DiarioVendas.Entrada entrada, Exception motivo) {
+        LogUtil.error(ReplicadorVendas.class, "Venda do diário rejeitada pelo banco: " + entrada.descrever(), motivo);
+        DiarioVendas.Rejeitada rejeitada = null;
+        try {
+            rejeitada = diario.rejeitar(entrada.chave(),
+                    motivo.getMessage() != null ? motivo.getMessage() : motivo.toString());
+        } catch (IOException e) {
+            // Continua pendente e é rejeitada de novo no próximo envio
+            LogUtil.error(ReplicadorVendas.class, "Erro ao rejeitar venda no diário: " + entrada.chave(), e);
+        }
+        if (rejeitada != null) {
+            for (Consumer<DiarioVendas.Rejeitada> ouvinte : ouvintesRejeicao) {
+                try {
+                    ouvinte.accept(rejeitada);
+                } catch (RuntimeException e) {
+                    LogUtil.error(ReplicadorVendas.class, "Erro ao avisar rejeição de venda", e);
+                }
+            }
+        }
+        CompletableFuture<Integer> futuro = aguardando.remove(entrada.chave());
+        if (futuro != null) {
+            futuro.completeExceptionally(motivo);
+        }
+    }
+
+    /**
+     * Avisa quem aguarda que as vendas ficaram no diário para reenvio
+     */
+    private void adiarAguardando(Exception erro) {
+        for (String chave : new ArrayList<>(aguardando.keySet())) {
+            CompletableFuture<Integer> futuro = aguardando.remove(chave);
+            if (futuro != null) {
+                futuro.completeExceptionally(erro);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package br.com.pdv.dao;
+
+import java.util.List;
+
+/**
+ * Resultado da baixa de estoque de uma venda ({@link EstoqueDAO#darBaixa(java.util.List, java.sql.Connection)}).
+ *
+ * Produtos sem estoque suficiente não são alterados e aparecem em {@link #faltas()}; os
+ * demais já tiveram o estoque baixado na conexão informada. Com faltas, quem chamou deve
+ * reverter a transação para desfazer as baixas já feitas.
+ *
+ * @param produtosBaixados Número de produtos com estoque baixado
+ * @param faltas Produtos sem estoque suficiente, em ordem de ID
+ */
+public record ResultadoBaixaEstoque(int produtosBaixados, List<Falta> faltas) {
+
+    /**
+     * Um produto sem estoque suficiente
+     *
+     * @param produtoId ID do produto
+     * @param nome Nome do produto, ou null se ele não existir
+     * @param solicitado Quantidade pedida (soma dos itens do mesmo produto)
+     * @param disponivel Estoque atual, ou null se o produto não existir
+     */
+    public record Falta(Integer produtoId, String nome, int solicitado, Integer disponivel) {
+
+        /**
+         * Quantidade que falta para atender o pedido
+         */
+        public int quantidadeFaltante() {
+            return disponivel == null ? solicitado : solicitado - disponivel;
+        }
+    }
+
+    /**
+     * Verifica se todos os produtos tiveram o estoque baixado
+     */
+    public boolean isCompleta() {
+        return faltas.isEmpty();
+    }
+
+    /**
+     * Descrição das faltas para exibir ao usuário, uma linha por produto
+     */
+    public String descreverFaltas() {
+        StringBuilder sb = new StringBuilder();
+        for (Falta falta : faltas) {
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            if (falta.disponivel() == null) {
+                sb.append("Produto ID ").append(falta.produtoId()).append(" não encontrado no banco de dados.");
+            } else {
+                sb.append("Estoque insuficiente para o produto '").append(falta.nome()).append("': ")
+                        .append("estoque atual ").append(falta.disponivel())
+                        .append(", quantidade no pedido ").append(falta.solicitado()).append('.');
+            }
+        }
+        return sb.toString();
+    }
+}
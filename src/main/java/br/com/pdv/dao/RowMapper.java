@@ -0,0 +1,20 @@
+package br.com.pdv.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Converte a linha atual de um ResultSet em um objeto
+ * @param <T> Tipo do objeto mapeado
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Mapeia a linha atual. Não deve chamar next() no ResultSet.
+     * @param rs ResultSet posicionado na linha a ser mapeada
+     * @return Objeto mapeado
+     * @throws SQLException em caso de erro ao ler as colunas
+     */
+    T mapRow(ResultSet rs) throws SQLException;
+}
@@ -9,7 +9,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class UsuarioDAO {
     private static UsuarioDAO instance;
@@ -25,6 +28,7 @@ public class UsuarioDAO {
         
     private static final String SQL_DELETE = "DELETE FROM usuarios WHERE id = ?";
     private static final String SQL_SELECT_BY_ID = "SELECT * FROM usuarios WHERE id = ?";
+    private static final String SQL_SELECT_BY_IDS = "SELECT * FROM usuarios WHERE id IN (" + JdbcTemplate.MARCADOR_IN + ")";
     private static final String SQL_SELECT_BY_LOGIN = "SELECT * FROM usuarios WHERE login = ?";
     private static final String SQL_SELECT_ALL = "SELECT * FROM usuarios ORDER BY nome";
     private static final String SQL_EXISTS = "SELECT 1 FROM usuarios WHERE id = ?";
@@ -68,6 +72,7 @@ public class UsuarioDAO {
             try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
                     usuario.setId(generatedKeys.getInt(1));
+                    DiretorioVendedores.getInstance().invalidar();
                     LogUtil.info(UsuarioDAO.class, "Usuário criado com sucesso. ID: " + usuario.getId());
                     return usuario;
                 } else {
@@ -83,6 +88,10 @@ public class UsuarioDAO {
     }
 
     public Usuario findById(Integer id) throws SQLException {
+        return IdentityMap.buscar(Usuario.class, id, this::carregarPorId);
+    }
+
+    private Usuario carregarPorId(Integer id) throws SQLException {
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(SQL_SELECT_BY_ID)) {
             
@@ -102,7 +111,33 @@ public class UsuarioDAO {
             throw e;
         }
     }
-    
+
+    /**
+     * Busca vários usuários de uma vez, em uma consulta IN por bloco de IDs
+     *
+     * @param ids IDs dos usuários (repetidos e nulos são ignorados)
+     * @return Mapa do ID para o usuário; IDs inexistentes não aparecem no mapa
+     * @throws SQLException Se ocorrer um erro de SQL
+     */
+    public Map<Integer, Usuario> findByIds(Collection<Integer> ids) throws SQLException {
+        return IdentityMap.buscarTodos(Usuario.class, ids, this::carregarPorIds);
+    }
+
+    private Map<Integer, Usuario> carregarPorIds(Collection<Integer> ids) throws SQLException {
+        Map<Integer, Usuario> usuarios = new HashMap<>();
+        if (ids.isEmpty()) {
+            return usuarios;
+        }
+        try {
+            for (Usuario usuario : JdbcTemplate.getInstance().queryIn(SQL_SELECT_BY_IDS, ids, this::createUsuarioFromResultSet)) {
+                usuarios.put(usuario.getId(), usuario);
+            }
+            return usuarios;
+        } catch (SQLException e) {
+            LogUtil.error(UsuarioDAO.class, "Erro ao buscar usuários por IDs: " + e.getMessage(), e);
+            throw e;
+        }
+    }
     
     /**
      * Busca usuários por perfil
@@ -329,6 +364,7 @@ public class UsuarioDAO {
     }
 
     public boolean update(Usuario usuario) throws SQLException {
+        IdentityMap.remover(Usuario.class, usuario.getId());
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(SQL_UPDATE)) {
             
@@ -341,6 +377,7 @@ public class UsuarioDAO {
             stmt.setInt(7, usuario.getId());
             
             boolean updated = stmt.executeUpdate() > 0;
+            DiretorioVendedores.getInstance().invalidar();
             if (updated) {
                 LogUtil.info(UsuarioDAO.class, "Usuário atualizado com sucesso. ID: " + usuario.getId());
             } else {
@@ -354,12 +391,14 @@ public class UsuarioDAO {
     }
 
     public boolean delete(Integer id) throws SQLException {
+        IdentityMap.remover(Usuario.class, id);
         try (Connection conn = databaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(SQL_DELETE)) {
             
             stmt.setInt(1, id);
             
             boolean deleted = stmt.executeUpdate() > 0;
+            DiretorioVendedores.getInstance().invalidar();
             if (deleted) {
                 LogUtil.info(UsuarioDAO.class, "Usuário excluído com sucesso. ID: " + id);
             } else {
@@ -1,6 +1,7 @@
 package br.com.pdv.dao;
 
 import br.com.pdv.model.Venda;
+import br.com.pdv.model.VendaResumo;
 import br.com.pdv.model.Cliente;
 import br.com.pdv.model.ItemPedido;
 import br.com.pdv.model.Parcela;
@@ -8,6 +9,7 @@ import br.com.pdv.model.Pedido;
 import br.com.pdv.model.Usuario;
 import br.com.pdv.util.DatabaseConnection;
 import br.com.pdv.util.LogUtil;
+import br.com.pdv.util.TransactionManager;
 
 import java.math.BigDecimal;
 import java.sql.Connection;
@@ -19,6 +21,7 @@ import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -51,12 +54,24 @@ public class VendaDAO {
             "WHERE id = ?";
     private static final String SQL_SELECT_BY_ID = "SELECT * FROM vendas WHERE id = ?";
     private static final String SQL_SELECT_ALL = "SELECT * FROM vendas ORDER BY data_venda DESC";
+    private static final String SQL_SELECT_PRIMEIRA_PAGINA = 
+            "SELECT * FROM vendas ORDER BY data_venda DESC, id DESC LIMIT ?";
+    private static final String SQL_SELECT_PAGINA_APOS = 
+            "SELECT * FROM vendas WHERE data_venda < ? OR (data_venda = ? AND id < ?) " +
+            "ORDER BY data_venda DESC, id DESC LIMIT ?";
     private static final String SQL_SELECT_BY_PERIOD = 
             "SELECT * FROM vendas WHERE data_venda BETWEEN ? AND ? ORDER BY data_venda DESC";
     private static final String SQL_SELECT_BY_CLIENTE = 
             "SELECT * FROM vendas WHERE cliente_id = ? ORDER BY data_venda DESC";
     private static final String SQL_SELECT_BY_USUARIO = 
             "SELECT * FROM vendas WHERE usuario_id = ? ORDER BY data_venda DESC";
+    // Colunas das listagens, com os nomes de cliente e usuário em vez das entidades
+    private static final String SQL_SELECT_RESUMO = 
+            "SELECT v.id, v.data_venda, v.valor_total, v.valor_desconto, v.forma_pagamento, v.status, " +
+            "c.nome AS cliente_nome, u.nome AS usuario_nome " +
+            "FROM vendas v " +
+            "LEFT JOIN clientes c ON c.id = v.cliente_id " +
+            "LEFT JOIN usuarios u ON u.id = v.usuario_id ";
     private static final String SQL_SELECT_TOTAL_BY_PERIOD = 
             "SELECT SUM(valor_total) FROM vendas " +
             "WHERE data_venda BETWEEN ? AND ? AND status = 'FINALIZADA'";
@@ -101,13 +116,27 @@ public class VendaDAO {
             venda.setStatus("FINALIZADA");
         }
         
+        // Venda, parcelas, itens e status do pedido na mesma transação: os DAOs chamados
+        // aqui obtêm a conexão da transação em getConnection()
+        try {
+            return TransactionManager.inTransaction(() -> inserirVenda(venda, transactionId));
+        } catch (SQLException e) {
+            String errorMsg = String.format("[%s] Erro ao inserir venda: %s", transactionId, e.getMessage());
+            LogUtil.error(VendaDAO.class, errorMsg, e);
+            throw new SQLException(errorMsg, e);
+        }
+    }
+    
+    /**
+     * Insere a venda e suas dependências na transação ativa
+     */
+    private Venda inserirVenda(Venda venda, UUID transactionId) throws SQLException {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet generatedKeys = null;
         
         try {
             conn = databaseConnection.getConnection();
-            conn.setAutoCommit(false);
             
             stmt = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS);
             
@@ -126,60 +155,40 @@ public class VendaDAO {
             int affectedRows = stmt.executeUpdate();
             
             if (affectedRows == 0) {
-                conn.rollback();
-                String errorMsg = String.format("[%s] Falha ao criar venda, nenhuma linha afetada.", transactionId);
-                LogUtil.error(VendaDAO.class, errorMsg, null);
-                throw new SQLException(errorMsg);
+                throw new SQLException(String.format("[%s] Falha ao criar venda, nenhuma linha afetada.", transactionId));
             }
             
             generatedKeys = stmt.getGeneratedKeys();
-            if (generatedKeys.next()) {
-                venda.setId(generatedKeys.getInt(1));
-                
-                // Insere as parcelas, se existirem
-                ParcelaDAO parcelaDAO = ParcelaDAO.getInstance();
-                if (venda.getParcelas() != null && !venda.getParcelas().isEmpty()) {
-                    for (Parcela parcela : venda.getParcelas()) {
-                        parcela.setVenda(venda);
-                        parcelaDAO.create(parcela, conn);
-                    }
-                }
-                
-                // Insere os itens da venda, se existirem
-                if (venda.getItens() != null && !venda.getItens().isEmpty()) {
-                    saveItems(venda, conn);
-                }
-                
-                // Atualiza o status do pedido para FINALIZADO
-                String updatePedidoSQL = "UPDATE pedidos SET status = 'FINALIZADO' WHERE id = ?";
-                try (PreparedStatement pedidoStmt = conn.prepareStatement(updatePedidoSQL)) {
-                    pedidoStmt.setInt(1, venda.getPedido().getId());
-                    int pedidoUpdated = pedidoStmt.executeUpdate();
-                    LogUtil.info(VendaDAO.class, String.format("[%s] Status do pedido atualizado: %d linhas afetadas", 
-                            transactionId, pedidoUpdated));
-                }
-                
-                conn.commit();
-                LogUtil.info(VendaDAO.class, String.format("[%s] Venda criada com sucesso. ID: %d", 
-                        transactionId, venda.getId()));
-                return venda;
-            } else {
-                conn.rollback();
-                String errorMsg = String.format("[%s] Falha ao criar venda, nenhum ID obtido.", transactionId);
-                LogUtil.error(VendaDAO.class, errorMsg, null);
-                throw new SQLException(errorMsg);
+            if (!generatedKeys.next()) {
+                throw new SQLException(String.format("[%s] Falha ao criar venda, nenhum ID obtido.", transactionId));
             }
-        } catch (SQLException e) {
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException ex) {
-                    LogUtil.error(VendaDAO.class, "Erro ao fazer rollback", ex);
+            venda.setId(generatedKeys.getInt(1));
+            
+            // Insere as parcelas, se existirem, em um único lote
+            if (venda.getParcelas() != null && !venda.getParcelas().isEmpty()) {
+                for (Parcela parcela : venda.getParcelas()) {
+                    parcela.setVenda(venda);
                 }
+                ParcelaDAO.getInstance().createAll(venda.getParcelas(), conn);
             }
-            String errorMsg = String.format("[%s] Erro ao inserir venda: %s", transactionId, e.getMessage());
-            LogUtil.error(VendaDAO.class, errorMsg, e);
-            throw new SQLException(errorMsg, e);
+            
+            // Insere os itens da venda, se existirem
+            if (venda.getItens() != null && !venda.getItens().isEmpty()) {
+                saveItems(venda, conn);
+            }
+            
+            // Atualiza o status do pedido para FINALIZADO
+            String updatePedidoSQL = "UPDATE pedidos SET status = 'FINALIZADO' WHERE id = ?";
+            try (PreparedStatement pedidoStmt = conn.prepareStatement(updatePedidoSQL)) {
+                pedidoStmt.setInt(1, venda.getPedido().getId());
+                int pedidoUpdated = pedidoStmt.executeUpdate();
+                LogUtil.info(VendaDAO.class, String.format("[%s] Status do pedido atualizado: %d linhas afetadas", 
+                        transactionId, pedidoUpdated));
+            }
+            
+            LogUtil.info(VendaDAO.class, String.format("[%s] Venda criada com sucesso. ID: %d", 
+                    transactionId, venda.getId()));
+            return venda;
         } finally {
             closeResources(conn, stmt, generatedKeys);
         }
@@ -197,17 +206,11 @@ public class VendaDAO {
             return;
         }
         
-        try (PreparedStatement stmt = conn.prepareStatement(SQL_INSERT_ITEM)) {
-            for (ItemPedido item : venda.getItens()) {
-                stmt.setInt(1, venda.getId());
-                stmt.setLong(2, item.getProduto().getId());
-                stmt.setInt(3, item.getQuantidade());
-                stmt.setBigDecimal(4, item.getValorUnitario());
-                stmt.setBigDecimal(5, item.getValorTotal());
-                
-                stmt.executeUpdate();
-            }
-        }
+        // Um único lote em vez de um INSERT por item
+        JdbcTemplate.getInstance().batchUpdate(conn, SQL_INSERT_ITEM, venda.getItens(), item -> new Object[] {
+                venda.getId(), item.getProduto().getId(), item.getQuantidade(), item.getValorUnitario(),
+                item.getValorTotal()
+        });
     }
     
     /**
@@ -297,7 +300,7 @@ public class VendaDAO {
         ResultSet rs = null;
         
         try {
-            conn = DatabaseConnection.getInstance().getConnection();
+            conn = DatabaseConnection.getInstance().getReadConnection();
             
             String sql = "SELECT COUNT(*) FROM vendas WHERE status = 'FINALIZADA'";
             
@@ -327,7 +330,7 @@ public class VendaDAO {
         ResultSet rs = null;
         
         try {
-            conn = DatabaseConnection.getInstance().getConnection();
+            conn = DatabaseConnection.getInstance().getReadConnection();
             
             String sql = "SELECT SUM(valor_total) FROM vendas WHERE status = 'FINALIZADA'";
             
@@ -370,13 +373,8 @@ public class VendaDAO {
             conn = databaseConnection.getConnection();
             conn.setAutoCommit(false);
             
-            // Primeiro cancela as parcelas, se existirem
-            ParcelaDAO parcelaDAO = ParcelaDAO.getInstance();
-            if (venda.getParcelas() != null && !venda.getParcelas().isEmpty()) {
-                for (Parcela parcela : venda.getParcelas()) {
-                    parcelaDAO.cancelar(parcela.getId(), conn);
-                }
-            }
+            // Primeiro cancela as parcelas em aberto, sem precisar carregá-las
+            ParcelaDAO.getInstance().cancelarPorVenda(venda.getId(), conn);
             
             stmt = conn.prepareStatement(SQL_CANCEL);
             
@@ -402,6 +400,14 @@ public class VendaDAO {
             
             // Atualiza o objeto venda
             if (affectedRows > 0) {
+                // Reflete o cancelamento nas parcelas já carregadas, sem carregar as demais
+                if (venda.isParcelasCarregadas() && venda.getParcelas() != null) {
+                    for (Parcela parcela : venda.getParcelas()) {
+                        if ("PENDENTE".equals(parcela.getStatus()) || "ATRASADA".equals(parcela.getStatus())) {
+                            parcela.setStatus("CANCELADA");
+                        }
+                    }
+                }
                 venda.setStatus("CANCELADA");
                 venda.cancelar(motivo);
                 LogUtil.info(VendaDAO.class, String.format("[%s] Venda cancelada com sucesso. ID: %d", 
@@ -430,15 +436,31 @@ public class VendaDAO {
     }
     
     /**
-     * Busca uma venda pelo ID.
+     * Busca uma venda pelo ID, com todas as associações.
      * 
      * @param id O ID da venda
      * @return A venda encontrada ou null se não existir
      * @throws SQLException Se ocorrer algum erro de SQL
      */
     public Venda findById(Integer id) throws SQLException {
+        return findById(id, PlanoCarga.COMPLETO);
+    }
+    
+    /**
+     * Busca uma venda pelo ID, carregando itens do pedido e parcelas apenas se incluídos no
+     * plano; os demais são buscados no primeiro acesso.
+     * 
+     * @param id O ID da venda
+     * @param plano Associações a carregar
+     * @return A venda encontrada ou null se não existir
+     * @throws SQLException Se ocorrer algum erro de SQL
+     */
+    public Venda findById(Integer id, PlanoCarga plano) throws SQLException {
         Objects.requireNonNull(id, "ID não pode ser nulo");
-        
+        return IdentityMap.emEscopo(() -> carregarPorId(id, plano));
+    }
+    
+    private Venda carregarPorId(Integer id, PlanoCarga plano) throws SQLException {
         UUID transactionId = UUID.randomUUID();
         LogUtil.info(VendaDAO.class, String.format("[%s] Buscando venda por ID: %d", transactionId, id));
         
@@ -477,7 +499,7 @@ public class VendaDAO {
                 
                 // Buscamos as entidades relacionadas
                 PedidoDAO pedidoDAO = PedidoDAO.getInstance();
-                Pedido pedido = pedidoDAO.findById(pedidoId);
+                Pedido pedido = pedidoDAO.findById(pedidoId, plano);
                 
                 Cliente cliente = null;
                 if (clienteId != null) {
@@ -508,10 +530,13 @@ public class VendaDAO {
                     venda.cancelar(motivoCancelamento);
                 }
                 
-                // Buscamos as parcelas
+                // Buscamos as parcelas, agora ou no primeiro acesso
                 ParcelaDAO parcelaDAO = ParcelaDAO.getInstance();
-                List<Parcela> parcelas = parcelaDAO.findByVenda(vendaId);
-                venda.setParcelas(parcelas);
+                if (plano.incluiParcelas()) {
+                    venda.setParcelas(parcelaDAO.findByVenda(vendaId));
+                } else {
+                    venda.setParcelasLazy(() -> parcelaDAO.findByVenda(vendaId));
+                }
                 
                 LogUtil.info(VendaDAO.class, String.format("[%s] Venda encontrada - ID: %d", transactionId, id));
                 return venda;
@@ -529,51 +554,46 @@ public class VendaDAO {
     }
     
     /**
-     * Lista todas as vendas.
+     * Busca uma página de vendas, das mais recentes para as mais antigas, a partir da
+     * última venda da página anterior (paginação por chave data_venda + id).
+     * 
+     * @param ultima Última venda da página anterior, ou null para a primeira página
+     * @param limite Quantidade máxima de vendas na página
+     * @return A página de vendas, com as associações carregadas em lote
+     * @throws SQLException Se ocorrer algum erro de SQL
+     */
+    public Pagina<Venda> findAfter(Venda ultima, int limite) throws SQLException {
+        Pagina.validarLimite(limite);
+        List<Venda> linhas = ultima == null
+                ? carregarVendas(JdbcTemplate.getInstance(), PlanoCarga.COMPLETO, SQL_SELECT_PRIMEIRA_PAGINA, limite + 1)
+                : carregarVendas(JdbcTemplate.getInstance(), PlanoCarga.COMPLETO, SQL_SELECT_PAGINA_APOS,
+                        ultima.getDataVenda(), ultima.getDataVenda(), ultima.getId(), limite + 1);
+        return Pagina.de(linhas, limite);
+    }
+    
+    /**
+     * Lista todas as vendas, com todas as associações.
      * 
      * @return Uma lista com todas as vendas
      * @throws SQLException Se ocorrer algum erro de SQL
      */
     public List<Venda> findAll() throws SQLException {
+        return findAll(PlanoCarga.COMPLETO);
+    }
+    
+    /**
+     * Lista todas as vendas, carregando itens do pedido e parcelas apenas se incluídos no plano.
+     * 
+     * @param plano Associações a carregar
+     * @return Uma lista com todas as vendas
+     * @throws SQLException Se ocorrer algum erro de SQL
+     */
+    public List<Venda> findAll(PlanoCarga plano) throws SQLException {
         UUID transactionId = UUID.randomUUID();
         LogUtil.info(VendaDAO.class, String.format("[%s] Listando todas as vendas", transactionId));
         
-        List<Venda> vendas = new ArrayList<>();
-        List<Integer> vendaIds = new ArrayList<>();
-        
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        
         try {
-            conn = databaseConnection.getConnection();
-            stmt = conn.prepareStatement("SELECT id FROM vendas ORDER BY data_venda DESC");
-            rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                vendaIds.add(rs.getInt("id"));
-            }
-            
-            // Fechamos os recursos antes de fazer outras consultas
-            rs.close();
-            rs = null;
-            stmt.close();
-            stmt = null;
-            
-            // Buscamos cada venda individualmente
-            for (Integer vendaId : vendaIds) {
-                try {
-                    Venda venda = findById(vendaId);
-                    if (venda != null) {
-                        vendas.add(venda);
-                    }
-                } catch (SQLException e) {
-                    LogUtil.warn(VendaDAO.class, String.format("[%s] Erro ao buscar venda ID %d: %s", 
-                            transactionId, vendaId, e.getMessage()));
-                    // Continuamos mesmo se houver erro em uma venda específica
-                }
-            }
-            
+            List<Venda> vendas = carregarVendas(JdbcTemplate.getInstance(), plano, SQL_SELECT_ALL);
             LogUtil.info(VendaDAO.class, String.format("[%s] Total de vendas encontradas: %d", 
                     transactionId, vendas.size()));
             return vendas;
@@ -581,8 +601,6 @@ public class VendaDAO {
             String errorMsg = String.format("[%s] Erro ao listar vendas: %s", transactionId, e.getMessage());
             LogUtil.error(VendaDAO.class, errorMsg, e);
             throw new SQLException(errorMsg, e);
-        } finally {
-            closeResources(conn, stmt, rs);
         }
     }
     
@@ -658,7 +676,7 @@ public class VendaDAO {
     }*/
     
     /**
-     * Busca vendas por período
+     * Busca vendas finalizadas por período, na réplica de leitura quando configurada
      * 
      * @param dataInicio Data de início do período
      * @param dataFim Data de fim do período
@@ -666,83 +684,192 @@ public class VendaDAO {
      * @throws SQLException Em caso de erro no banco de dados
      */
     public List<Venda> findByPeriod(LocalDateTime dataInicio, LocalDateTime dataFim) throws SQLException {
-        List<Venda> vendas = new ArrayList<>();
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
+        return findByPeriod(dataInicio, dataFim, PlanoCarga.COMPLETO);
+    }
+    
+    /**
+     * Busca vendas finalizadas por período, carregando itens do pedido e parcelas apenas se
+     * incluídos no plano
+     * 
+     * @param dataInicio Data de início do período
+     * @param dataFim Data de fim do período
+     * @param plano Associações a carregar
+     * @return Lista de vendas no período
+     * @throws SQLException Em caso de erro no banco de dados
+     */
+    public List<Venda> findByPeriod(LocalDateTime dataInicio, LocalDateTime dataFim, PlanoCarga plano)
+            throws SQLException {
+        String sql = "SELECT * FROM vendas " +
+                     "WHERE data_venda BETWEEN ? AND ? " +
+                     "AND status = 'FINALIZADA' " +
+                     "ORDER BY data_venda";
+        return carregarVendas(JdbcTemplate.getLeitura(), plano, sql, dataInicio, dataFim);
+    }
+    
+    /**
+     * Busca resumos das vendas finalizadas no período, para gráficos e listagens que não
+     * precisam de pedido, itens ou parcelas. Usa a réplica de leitura quando configurada.
+     * 
+     * @param dataInicio Data de início do período
+     * @param dataFim Data de fim do período
+     * @return Resumos das vendas no período, em ordem de data
+     * @throws SQLException Em caso de erro no banco de dados
+     */
+    public List<VendaResumo> findResumosByPeriod(LocalDateTime dataInicio, LocalDateTime dataFim) throws SQLException {
+        return JdbcTemplate.getLeitura().query(SQL_SELECT_RESUMO +
+                "WHERE v.data_venda BETWEEN ? AND ? AND v.status = 'FINALIZADA' ORDER BY v.data_venda",
+                this::mapResultSetToResumo, dataInicio, dataFim);
+    }
+    
+    /**
+     * Percorre em fluxo os resumos de todas as vendas do período, de qualquer status, em
+     * ordem de data, sem manter as vendas em memória. Usa a réplica de leitura quando
+     * configurada. Para exportações e fechamentos de períodos longos.
+     * 
+     * @param dataInicio Data de início do período
+     * @param dataFim Data de fim do período
+     * @param processador Recebe cada venda; retorna false para encerrar
+     * @param cancelamento Permite cancelar a consulta (pode ser nulo)
+     * @return Número de vendas processadas
+     * @throws SQLException Em caso de erro no banco de dados ou cancelamento
+     */
+    public long percorrerResumosPorPeriodo(LocalDateTime dataInicio, LocalDateTime dataFim,
+            ProcessadorLinha<? super VendaResumo> processador, Cancelamento cancelamento) throws SQLException {
+        return JdbcTemplate.getLeitura().queryEmFluxo(SQL_SELECT_RESUMO +
+                "WHERE v.data_venda BETWEEN ? AND ? ORDER BY v.data_venda, v.id",
+                this::mapResultSetToResumo, processador, cancelamento, dataInicio, dataFim);
+    }
+    
+    /**
+     * Busca uma página de resumos de vendas, das mais recentes para as mais antigas
+     * 
+     * @param ultima Último resumo da página anterior, ou null para a primeira página
+     * @param limite Quantidade máxima de vendas na página
+     * @return A página de resumos
+     * @throws SQLException Em caso de erro no banco de dados
+     */
+    public Pagina<VendaResumo> findResumosAfter(VendaResumo ultima, int limite) throws SQLException {
+        Pagina.validarLimite(limite);
+        List<VendaResumo> linhas = ultima == null
+                ? JdbcTemplate.getInstance().query(SQL_SELECT_RESUMO + "ORDER BY v.data_venda DESC, v.id DESC LIMIT ?",
+                        this::mapResultSetToResumo, limite + 1)
+                : JdbcTemplate.getInstance().query(SQL_SELECT_RESUMO +
+                        "WHERE v.data_venda < ? OR (v.data_venda = ? AND v.id < ?) " +
+                        "ORDER BY v.data_venda DESC, v.id DESC LIMIT ?",
+                        this::mapResultSetToResumo, ultima.dataVenda(), ultima.dataVenda(), ultima.id(), limite + 1);
+        return Pagina.de(linhas, limite);
+    }
+    
+    private VendaResumo mapResultSetToResumo(ResultSet rs) throws SQLException {
+        return new VendaResumo(rs.getInt("id"), rs.getTimestamp("data_venda").toLocalDateTime(),
+                rs.getBigDecimal("valor_total"), rs.getBigDecimal("valor_desconto"), rs.getString("forma_pagamento"),
+                rs.getString("status"), rs.getString("cliente_nome"), rs.getString("usuario_nome"));
+    }
+    
+    /**
+     * Carrega as vendas da consulta com pedido, cliente e usuário, e com itens do pedido e
+     * parcelas conforme o plano (fora dele, buscados no primeiro acesso).
+     * 
+     * Em vez de um findById por venda (cinco ou mais consultas cada), lê todas as linhas
+     * em uma consulta e resolve cada associação com consultas IN em lote, de modo que o
+     * número de consultas não depende da quantidade de vendas. As associações são lidas
+     * no primário, que nunca está atrás da réplica. Usuários e clientes já carregados com
+     * os pedidos são reaproveitados pelo {@link IdentityMap}, na mesma instância.
+     * 
+     * @param template Template da consulta principal (primário ou leitura)
+     * @param plano Associações a carregar
+     * @param sql Consulta que seleciona as colunas de vendas
+     * @param params Parâmetros da consulta
+     * @return As vendas, na ordem da consulta
+     * @throws SQLException Em caso de erro no banco de dados
+     */
+    private List<Venda> carregarVendas(JdbcTemplate template, PlanoCarga plano, String sql, Object... params)
+            throws SQLException {
+        return IdentityMap.emEscopo(() -> carregarVendasNoEscopo(template, plano, sql, params));
+    }
+    
+    private List<Venda> carregarVendasNoEscopo(JdbcTemplate template, PlanoCarga plano, String sql,
+            Object... params) throws SQLException {
+        List<LinhaVenda> linhas = template.query(sql, this::mapResultSetToVenda, params);
+        List<Venda> vendas = new ArrayList<>(linhas.size());
+        if (linhas.isEmpty()) {
+            return vendas;
+        }
         
-        try {
-            conn = DatabaseConnection.getInstance().getConnection();
-            
-            String sql = "SELECT * FROM vendas " +
-                         "WHERE data_venda BETWEEN ? AND ? " +
-                         "AND status = 'FINALIZADA' " +
-                         "ORDER BY data_venda";
-            
-            stmt = conn.prepareStatement(sql);
-            stmt.setObject(1, dataInicio);
-            stmt.setObject(2, dataFim);
-            
-            rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                Venda venda = mapResultSetToVenda(rs);
-                vendas.add(venda);
+        List<Integer> pedidoIds = new ArrayList<>();
+        List<Long> clienteIds = new ArrayList<>();
+        List<Integer> usuarioIds = new ArrayList<>();
+        List<Integer> vendaIds = new ArrayList<>();
+        for (LinhaVenda linha : linhas) {
+            pedidoIds.add(linha.pedidoId());
+            clienteIds.add(linha.clienteId());
+            usuarioIds.add(linha.usuarioId());
+            vendaIds.add(linha.venda().getId());
+        }
+        
+        Map<Integer, Pedido> pedidos = PedidoDAO.getInstance().findByIds(pedidoIds, plano);
+        Map<Long, Cliente> clientes = ClienteDAO.getInstance().findByIds(clienteIds);
+        Map<Integer, Usuario> usuarios = UsuarioDAO.getInstance().findByIds(usuarioIds);
+        ParcelaDAO parcelaDAO = ParcelaDAO.getInstance();
+        Map<Integer, List<Parcela>> parcelas = plano.incluiParcelas() ? parcelaDAO.findByVendas(vendaIds) : null;
+        
+        for (LinhaVenda linha : linhas) {
+            Venda venda = linha.venda();
+            venda.setPedido(pedidos.get(linha.pedidoId()));
+            venda.setCliente(clientes.get(linha.clienteId()));
+            venda.setUsuario(usuarios.get(linha.usuarioId()));
+            if (parcelas != null) {
+                venda.setParcelas(parcelas.getOrDefault(venda.getId(), new ArrayList<>()));
+            } else {
+                Integer vendaId = venda.getId();
+                venda.setParcelasLazy(() -> parcelaDAO.findByVenda(vendaId));
             }
-            
-            return vendas;
-            
-        } finally {
-            closeResources(conn, stmt, rs);
+            vendas.add(venda);
         }
+        return vendas;
     }
     
+    /**
+     * Colunas de uma linha de vendas: a venda sem associações e as chaves para carregá-las
+     */
+    private record LinhaVenda(Venda venda, Integer pedidoId, Long clienteId, Integer usuarioId) {
+    }
     
     /**
-     * Mapeia um ResultSet para um objeto Venda
+     * Mapeia um ResultSet para uma venda, guardando as chaves das associações
      * 
      * @param rs ResultSet contendo os dados
-     * @return Objeto Venda preenchido
+     * @return A venda e as chaves de pedido, cliente e usuário
      * @throws SQLException Em caso de erro ao acessar os dados
      */
-    private Venda mapResultSetToVenda(ResultSet rs) throws SQLException {
+    private LinhaVenda mapResultSetToVenda(ResultSet rs) throws SQLException {
         Venda venda = new Venda();
         
         venda.setId(rs.getInt("id"));
         venda.setDataVenda(rs.getTimestamp("data_venda").toLocalDateTime());
         venda.setValorTotal(rs.getBigDecimal("valor_total"));
         venda.setValorDesconto(rs.getBigDecimal("valor_desconto"));
-        venda.setStatus(rs.getString("status"));
-        venda.setFormaPagamento(rs.getString("forma_pagamento"));
-        
-        // Se você tiver relacionamentos com outras entidades (ex: Cliente, Usuário),
-        // você precisa fazer joins na consulta SQL ou carregar esses dados aqui
-        // usando seus respectivos DAOs
-        
-        // Por exemplo:
-        Integer clienteId = rs.getInt("cliente_id");
-        if (!rs.wasNull()) {
-            Cliente cliente = new Cliente();
-            cliente.setId(clienteId);
-            venda.setCliente(cliente);
-            
-            // Opcionalmente, carregar o cliente completo:
-            // ClienteDAO clienteDAO = ClienteDAO.getInstance();
-            // venda.setCliente(clienteDAO.findById(clienteId));
+        BigDecimal valorPago = rs.getBigDecimal("valor_pago");
+        if (valorPago != null) {
+            venda.setValorPago(valorPago);
         }
-        
-        Integer usuarioId = rs.getInt("usuario_id");
-        if (!rs.wasNull()) {
-            Usuario usuario = new Usuario();
-            usuario.setId(usuarioId);
-            venda.setUsuario(usuario);
+        venda.setTroco(rs.getBigDecimal("troco"));
+        String formaPagamento = rs.getString("forma_pagamento");
+        if (formaPagamento != null && !formaPagamento.trim().isEmpty()) {
+            venda.setFormaPagamento(formaPagamento);
         }
+        // O status é restaurado diretamente: cancelar() é a transição de negócio, não a leitura
+        venda.setStatus(rs.getString("status"));
+        venda.setNumeroNF(rs.getString("numero_nf"));
         
-        // Se você também quiser carregar os itens do pedido associados:
-        // ItemPedidoDAO itemPedidoDAO = ItemPedidoDAO.getInstance();
-        // venda.setItens(itemPedidoDAO.findByVendaId(venda.getId()));
+        int pedidoId = rs.getInt("pedido_id");
+        Integer pedido = rs.wasNull() ? null : pedidoId;
+        long clienteId = rs.getLong("cliente_id");
+        Long cliente = rs.wasNull() ? null : clienteId;
+        int usuarioId = rs.getInt("usuario_id");
+        Integer usuario = rs.wasNull() ? null : usuarioId;
         
-        return venda;
+        return new LinhaVenda(venda, pedido, cliente, usuario);
     }
     
     
@@ -754,51 +881,27 @@ public class VendaDAO {
      * @throws SQLException Se ocorrer algum erro de SQL
      */
     public List<Venda> findByCliente(Long clienteId) throws SQLException {
+        return findByCliente(clienteId, PlanoCarga.COMPLETO);
+    }
+    
+    /**
+     * Lista as vendas de um cliente, carregando itens do pedido e parcelas apenas se
+     * incluídos no plano.
+     * 
+     * @param clienteId O ID do cliente
+     * @param plano Associações a carregar
+     * @return Uma lista com as vendas do cliente
+     * @throws SQLException Se ocorrer algum erro de SQL
+     */
+    public List<Venda> findByCliente(Long clienteId, PlanoCarga plano) throws SQLException {
         Objects.requireNonNull(clienteId, "ID do cliente não pode ser nulo");
         
         UUID transactionId = UUID.randomUUID();
         LogUtil.info(VendaDAO.class, String.format("[%s] Listando vendas do cliente ID: %d", 
                 transactionId, clienteId));
         
-        List<Venda> vendas = new ArrayList<>();
-        List<Integer> vendaIds = new ArrayList<>();
-        
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        
         try {
-            conn = databaseConnection.getConnection();
-            stmt = conn.prepareStatement(SQL_SELECT_BY_CLIENTE);
-            
-            stmt.setLong(1, clienteId);
-            
-            rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                vendaIds.add(rs.getInt("id"));
-            }
-            
-            // Fechamos os recursos antes de fazer outras consultas
-            rs.close();
-            rs = null;
-            stmt.close();
-            stmt = null;
-            
-            // Buscamos cada venda individualmente
-            for (Integer vendaId : vendaIds) {
-                try {
-                    Venda venda = findById(vendaId);
-                    if (venda != null) {
-                        vendas.add(venda);
-                    }
-                } catch (SQLException e) {
-                    LogUtil.warn(VendaDAO.class, String.format("[%s] Erro ao buscar venda ID %d: %s", 
-                            transactionId, vendaId, e.getMessage()));
-                    // Continuamos mesmo se houver erro em uma venda específica
-                }
-            }
-            
+            List<Venda> vendas = carregarVendas(JdbcTemplate.getInstance(), plano, SQL_SELECT_BY_CLIENTE, clienteId);
             LogUtil.info(VendaDAO.class, String.format("[%s] Total de vendas encontradas para o cliente: %d", 
                     transactionId, vendas.size()));
             return vendas;
@@ -807,8 +910,6 @@ public class VendaDAO {
                     transactionId, e.getMessage());
             LogUtil.error(VendaDAO.class, errorMsg, e);
             throw new SQLException(errorMsg, e);
-        } finally {
-            closeResources(conn, stmt, rs);
         }
     }
     
@@ -820,51 +921,27 @@ public class VendaDAO {
      * @throws SQLException Se ocorrer algum erro de SQL
      */
     public List<Venda> findByUsuario(Integer usuarioId) throws SQLException {
+        return findByUsuario(usuarioId, PlanoCarga.COMPLETO);
+    }
+    
+    /**
+     * Lista as vendas realizadas por um usuário, carregando itens do pedido e parcelas
+     * apenas se incluídos no plano.
+     *
+     * @param usuarioId O ID do usuário
+     * @param plano Associações a carregar
+     * @return Uma lista com as vendas do usuário
+     * @throws SQLException Se ocorrer algum erro de SQL
+     */
+    public List<Venda> findByUsuario(Integer usuarioId, PlanoCarga plano) throws SQLException {
         Objects.requireNonNull(usuarioId, "ID do usuário não pode ser nulo");
         
         UUID transactionId = UUID.randomUUID();
         LogUtil.info(VendaDAO.class, String.format("[%s] Listando vendas do usuário ID: %d", 
                 transactionId, usuarioId));
         
-        List<Venda> vendas = new ArrayList<>();
-        List<Integer> vendaIds = new ArrayList<>();
-        
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        
         try {
-            conn = databaseConnection.getConnection();
-            stmt = conn.prepareStatement(SQL_SELECT_BY_USUARIO);
-            
-            stmt.setInt(1, usuarioId);
-            
-            rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                vendaIds.add(rs.getInt("id"));
-            }
-            
-            // Fechamos os recursos antes de fazer outras consultas
-            rs.close();
-            rs = null;
-            stmt.close();
-            stmt = null;
-            
-            // Buscamos cada venda individualmente
-            for (Integer vendaId : vendaIds) {
-                try {
-                    Venda venda = findById(vendaId);
-                    if (venda != null) {
-                        vendas.add(venda);
-                    }
-                } catch (SQLException e) {
-                    LogUtil.warn(VendaDAO.class, String.format("[%s] Erro ao buscar venda ID %d: %s", 
-                            transactionId, vendaId, e.getMessage()));
-                    // Continuamos mesmo se houver erro em uma venda específica
-                }
-            }
-            
+            List<Venda> vendas = carregarVendas(JdbcTemplate.getInstance(), plano, SQL_SELECT_BY_USUARIO, usuarioId);
             LogUtil.info(VendaDAO.class, String.format("[%s] Total de vendas encontradas para o usuário: %d", 
                     transactionId, vendas.size()));
             return vendas;
@@ -873,8 +950,6 @@ public class VendaDAO {
                     transactionId, e.getMessage());
             LogUtil.error(VendaDAO.class, errorMsg, e);
             throw new SQLException(errorMsg, e);
-        } finally {
-            closeResources(conn, stmt, rs);
         }
     }
 
@@ -901,7 +976,7 @@ public class VendaDAO {
         ResultSet rs = null;
         
         try {
-            conn = databaseConnection.getConnection();
+            conn = databaseConnection.getReadConnection();
             stmt = conn.prepareStatement(SQL_SELECT_TOTAL_BY_PERIOD);
             
             stmt.setTimestamp(1, Timestamp.valueOf(dataInicio));
@@ -0,0 +1,31 @@
+package br.com.pdv.model;
+
+import java.sql.SQLException;
+
+/**
+ * Carrega uma associação de uma entidade no primeiro acesso, quando ela não foi incluída
+ * na busca (ver PlanoCarga nos DAOs)
+ * @param <T> Tipo da associação
+ */
+@FunctionalInterface
+public interface CarregadorLazy<T> {
+
+    /**
+     * Busca a associação no banco
+     * @throws SQLException em caso de erro no banco de dados
+     */
+    T carregar() throws SQLException;
+
+    /**
+     * Busca a associação a partir de um getter, que não declara SQLException
+     * @param associacao Nome da associação, para a mensagem de erro
+     * @throws IllegalStateException se a busca falhar
+     */
+    default T carregarNoAcesso(String associacao) {
+        try {
+            return carregar();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erro ao carregar " + associacao + ": " + e.getMessage(), e);
+        }
+    }
+}
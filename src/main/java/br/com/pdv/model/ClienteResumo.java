@@ -0,0 +1,16 @@
+package br.com.pdv.model;
+
+/**
+ * Resumo imutável de um cliente com apenas as colunas exibidas nas listagens.
+ * Para editar, carregue o cliente completo pelo id.
+ */
+public record ClienteResumo(Long id, String nome, String cpfCnpj, String telefone, String email) {
+
+    /**
+     * Cria o resumo de um cliente já carregado
+     */
+    public static ClienteResumo de(Cliente cliente) {
+        return new ClienteResumo(cliente.getId(), cliente.getNome(), cliente.getCpfCnpj(),
+                cliente.getTelefone(), cliente.getEmail());
+    }
+}
@@ -0,0 +1,13 @@
+package br.com.pdv.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Resumo imutável de um item vendido para exportações e relatórios: a venda, o produto e
+ * os valores do item, sem carregar pedido ou produto completos.
+ */
+public record ItemPedidoResumo(Integer id, Integer vendaId, LocalDateTime dataVenda, String statusVenda,
+                               Integer produtoId, String produtoCodigo, String produtoNome, int quantidade,
+                               BigDecimal precoUnitario, BigDecimal desconto) {
+}
@@ -18,6 +18,8 @@ public class Pedido {
     private BigDecimal valorTotal;
     private String status; // Adicionado o campo status
     private List<ItemPedido> itens;
+    // Busca os itens no primeiro acesso, quando não vieram com o pedido
+    private CarregadorLazy<List<ItemPedido>> carregadorItens;
     private Long vendedorId;
     
     // Construtores
@@ -90,11 +92,28 @@ public class Pedido {
     }
 
     public List<ItemPedido> getItens() {
+        if (carregadorItens != null) {
+            itens = carregadorItens.carregarNoAcesso("itens do pedido " + id);
+            carregadorItens = null;
+        }
         return itens;
     }
 
     public void setItens(List<ItemPedido> itens) {
         this.itens = itens;
+        this.carregadorItens = null;
+    }
+
+    /**
+     * Define os itens como não carregados: serão buscados pelo carregador no primeiro getItens()
+     */
+    public void setItensLazy(CarregadorLazy<List<ItemPedido>> carregador) {
+        this.itens = null;
+        this.carregadorItens = Objects.requireNonNull(carregador);
+    }
+
+    public boolean isItensCarregados() {
+        return carregadorItens == null;
     }
 
     // Equals e HashCode (opcional, mas recomendado)
@@ -121,7 +140,7 @@ public class Pedido {
                 ", dataPedido=" + dataPedido +
                 ", valorTotal=" + valorTotal +
                 ", status='" + status + '\'' +
-                ", itens=" + itens +
+                ", itens=" + (isItensCarregados() ? itens : "(não carregados)") +
                 '}';
     }
 
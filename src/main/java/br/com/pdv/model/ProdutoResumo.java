@@ -0,0 +1,21 @@
+package br.com.pdv.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Resumo imutável de um produto com apenas as colunas exibidas nas listagens.
+ * Para editar, carregue o produto completo pelo id.
+ */
+public record ProdutoResumo(Integer id, String codigo, String nome, String cor, String tamanho,
+                            BigDecimal preco, int estoqueAtual, int estoqueMinimo, LocalDate dataVencimento) {
+
+    /**
+     * Cria o resumo de um produto já carregado
+     */
+    public static ProdutoResumo de(Produto produto) {
+        return new ProdutoResumo(produto.getId(), produto.getCodigo(), produto.getNome(), produto.getCor(),
+                produto.getTamanho(), produto.getPreco(), produto.getEstoqueAtual(), produto.getEstoqueMinimo(),
+                produto.getDataVencimento());
+    }
+}
@@ -25,6 +25,8 @@ public class Venda {
     private LocalDateTime dataCancelamento;
     private String motivoCancelamento;
     private List<Parcela> parcelas;
+    // Busca as parcelas no primeiro acesso, quando não vieram com a venda
+    private CarregadorLazy<List<Parcela>> carregadorParcelas;
     private String observacao;
     private Usuario vendedor;
     private Usuario operador;
@@ -189,7 +191,27 @@ public class Venda {
     }
 
     public List<Parcela> getParcelas() {
-        return new ArrayList<>(parcelas); // Retorna uma cópia da lista
+        return new ArrayList<>(parcelas()); // Retorna uma cópia da lista
+    }
+    
+    private List<Parcela> parcelas() {
+        if (carregadorParcelas != null) {
+            parcelas = carregadorParcelas.carregarNoAcesso("parcelas da venda " + id);
+            carregadorParcelas = null;
+        }
+        return parcelas;
+    }
+    
+    /**
+     * Define as parcelas como não carregadas: serão buscadas pelo carregador no primeiro acesso
+     */
+    public void setParcelasLazy(CarregadorLazy<List<Parcela>> carregador) {
+        this.parcelas = null;
+        this.carregadorParcelas = Objects.requireNonNull(carregador);
+    }
+    
+    public boolean isParcelasCarregadas() {
+        return carregadorParcelas == null;
     }
 
     // Métodos de negócio
@@ -199,15 +221,16 @@ public class Venda {
         }
         
         parcela.setVenda(this);
-        parcelas.add(parcela);
+        parcelas().add(parcela);
     }
     
     public void removerParcela(Parcela parcela) {
-        parcelas.remove(parcela);
+        parcelas().remove(parcela);
     }
     
     public void setParcelas(List<Parcela> parcelas) {
 		this.parcelas = parcelas;
+		this.carregadorParcelas = null;
 		
 	}
     
@@ -245,7 +268,7 @@ public class Venda {
         
         // Verifica se tem parcelas quando necessário
         if (("CARTAO_CREDITO".equals(formaPagamento) || "BOLETO".equals(formaPagamento)) 
-                && parcelas.isEmpty()) {
+                && parcelas().isEmpty()) {
             throw new IllegalStateException("Pagamento parcelado requer parcelas");
         }
         
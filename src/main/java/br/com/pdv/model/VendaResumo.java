@@ -0,0 +1,12 @@
+package br.com.pdv.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Resumo imutável de uma venda para listagens e gráficos: os valores e os nomes do
+ * cliente e do usuário, sem pedido, itens ou parcelas.
+ */
+public record VendaResumo(Integer id, LocalDateTime dataVenda, BigDecimal valorTotal, BigDecimal valorDesconto,
+                          String formaPagamento, String status, String clienteNome, String usuarioNome) {
+}
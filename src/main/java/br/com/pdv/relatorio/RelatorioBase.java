@@ -1,5 +1,9 @@
 package br.com.pdv.relatorio;
 
+import br.com.pdv.dao.Cancelamento;
+import br.com.pdv.dao.JdbcTemplate;
+import br.com.pdv.dao.ProcessadorLinha;
+import br.com.pdv.dao.RowMapper;
 import br.com.pdv.util.DatabaseConnection;
 import br.com.pdv.util.LogUtil;
 import br.com.pdv.util.PDFUtil;
@@ -23,6 +27,8 @@ public abstract class RelatorioBase {
     protected LocalDateTime dataInicio;
     protected LocalDateTime dataFim;
     protected String titulo;
+    // Cancela as consultas em fluxo do relatório (ver cancelar())
+    protected final Cancelamento cancelamento = new Cancelamento();
     
     // Formatadores de data comuns
     protected final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
@@ -109,6 +115,31 @@ public abstract class RelatorioBase {
             throw e;
         }
     }
+    /**
+     * Cancela a geração do relatório. A consulta em fluxo em andamento, se houver, é
+     * interrompida e termina com erro; a conexão é devolvida ao pool.
+     */
+    public void cancelar() {
+        cancelamento.cancelar();
+    }
+
+    /**
+     * Percorre o resultado de uma consulta na réplica de leitura linha a linha, com memória
+     * constante, para relatórios que precisam de dados linha a linha de períodos longos.
+     * A consulta é interrompida por {@link #cancelar()}.
+     *
+     * @param sql SQL da consulta
+     * @param mapper Mapeador de linhas
+     * @param processador Recebe cada linha; retorna false para encerrar
+     * @param params Parâmetros da consulta
+     * @return Número de linhas processadas
+     * @throws SQLException Em caso de erro no banco de dados ou cancelamento
+     */
+    protected <T> long percorrer(String sql, RowMapper<T> mapper, ProcessadorLinha<? super T> processador,
+            Object... params) throws SQLException {
+        return JdbcTemplate.getLeitura().queryEmFluxo(sql, mapper, processador, cancelamento, params);
+    }
+
     /**
      * Método utilitário para fechar recursos do banco de dados de forma segura
      */
@@ -1,5 +1,6 @@
 package br.com.pdv.relatorio;
 
+import br.com.pdv.dao.DiretorioVendedores;
 import br.com.pdv.dao.UsuarioDAO;
 import br.com.pdv.dao.VendaDAO;
 import br.com.pdv.model.Usuario;
@@ -59,7 +60,7 @@ public class RelatorioComissaoVendedores extends RelatorioBase {
         ResultSet rs = null;
         
         try {
-            conn = databaseConnection.getConnection();
+            conn = databaseConnection.getReadConnection();
             
             // Parte 1: Resumo de vendas por vendedor
             relatorio.append("RESUMO DE VENDAS POR VENDEDOR\n");
@@ -145,7 +146,7 @@ public class RelatorioComissaoVendedores extends RelatorioBase {
                 BigDecimal comissaoBase = comissoesPorVendedor.get(vendedorId);
                 
                 // Buscar nome do vendedor
-                Usuario vendedor = usuarioDAO.findById(vendedorId);
+                Usuario vendedor = DiretorioVendedores.getInstance().buscarPorId(vendedorId);
                 String vendedorNome = vendedor != null ? vendedor.getNome() : "Vendedor #" + vendedorId;
                 
                 // Determinar meta atingida e bônus aplicável
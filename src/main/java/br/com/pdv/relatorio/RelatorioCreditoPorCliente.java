@@ -55,7 +55,7 @@ public class RelatorioCreditoPorCliente extends RelatorioBase {
         ResultSet rs = null;
         
         try {
-            conn = databaseConnection.getConnection();
+            conn = databaseConnection.getReadConnection();
             
             // Verificar se as tabelas necessárias existem
             boolean tabelaParcelas = verificarTabelaExiste(conn, "parcelas_crediario");
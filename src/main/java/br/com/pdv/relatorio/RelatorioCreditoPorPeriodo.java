@@ -52,7 +52,7 @@ public class RelatorioCreditoPorPeriodo extends RelatorioBase {
         ResultSet rs = null;
         
         try {
-            conn = databaseConnection.getConnection();
+            conn = databaseConnection.getReadConnection();
             
             // Verificar estrutura do banco de dados
             boolean tabelaParcelas = verificarTabelaExiste(conn, "parcelas_crediario");
@@ -43,7 +43,7 @@ public class RelatorioFinanceiroPorFormasPagamento extends RelatorioBase {
         ResultSet rs = null;
         
         try {
-            conn = databaseConnection.getConnection();
+            conn = databaseConnection.getReadConnection();
             
             // Parte 1: Resumo geral por forma de pagamento
             relatorio.append("RESUMO GERAL POR FORMA DE PAGAMENTO\n");
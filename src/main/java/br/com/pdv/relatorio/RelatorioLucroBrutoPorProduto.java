@@ -46,7 +46,7 @@ public class RelatorioLucroBrutoPorProduto extends RelatorioBase {
         ResultSet rs = null;
         
         try {
-            conn = databaseConnection.getConnection();
+            conn = databaseConnection.getReadConnection();
             
             // Parte 1: Lucro bruto por produto
             relatorio.append("LUCRO BRUTO POR PRODUTO\n");
@@ -36,7 +36,7 @@ public class RelatorioNivelEstoque extends RelatorioBase {
         ResultSet rs = null;
         
         try {
-            conn = databaseConnection.getConnection();
+            conn = databaseConnection.getReadConnection();
             
             // Consulta para obter níveis de estoque
             String sql = "SELECT p.id, p.codigo, p.nome, p.estoque_atual, p.estoque_minimo, " +
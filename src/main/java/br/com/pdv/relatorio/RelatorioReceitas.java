@@ -46,7 +46,7 @@ public class RelatorioReceitas extends RelatorioBase {
         ResultSet rs = null;
         
         try {
-            conn = databaseConnection.getConnection();
+            conn = databaseConnection.getReadConnection();
             
             // Parte 1: Receitas por dia
             relatorio.append("RECEITAS POR DIA\n");
@@ -37,7 +37,7 @@ public class RelatorioValorEstoque extends RelatorioBase {
         ResultSet rs = null;
         
         try {
-            conn = databaseConnection.getConnection();
+            conn = databaseConnection.getReadConnection();
             
             // Parte 1: Valor do estoque por produto
             relatorio.append("VALOR DO ESTOQUE POR PRODUTO\n");
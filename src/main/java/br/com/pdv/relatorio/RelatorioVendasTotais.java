@@ -39,7 +39,7 @@ public class RelatorioVendasTotais extends RelatorioBase {
         ResultSet rs = null;
         
         try {
-            conn = databaseConnection.getConnection();
+            conn = databaseConnection.getReadConnection();
             
             // Consulta para obter vendas totais por dia
             String sql = "SELECT DATE(data_venda) as data, COUNT(*) as total_vendas, " +
@@ -0,0 +1,713 @@
+package br.com.pdv.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool de conexões JDBC com tamanho máximo rígido.
+ *
+ * Os empréstimos passam por uma fila justa (FIFO) com tempo máximo de espera, de modo que
+ * uma rajada de requisições aguarda uma conexão livre em vez de abrir conexões extras no
+ * servidor. Uma thread de manutenção mantém o mínimo de conexões ociosas, valida as
+ * conexões paradas há algum tempo, descarta conexões que ultrapassaram o tempo de vida
+ * máximo e registra a pilha de chamadas de quem está segurando uma conexão por tempo
+ * demais (detecção de vazamento).
+ *
+ * Empréstimo e devolução não fazem round-trips ao servidor: a conexão só é validada no
+ * empréstimo se ficou ociosa por mais de {@link #VALIDAR_APOS_OCIOSA_MS}, o que em uso
+ * normal não acontece porque a manutenção valida antes as conexões ociosas.
+ *
+ * Tamanho e tempos podem ser alterados com o pool em uso ({@link #reconfigurar}); para
+ * trocar parâmetros de abertura das conexões, {@link #renovarConexoes()} substitui
+ * gradualmente as conexões existentes.
+ */
+public class ConnectionPool {
+
+    /**
+     * Responsável por abrir uma nova conexão física com o banco de dados
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private static final long INTERVALO_MANUTENCAO_MS = 1000;
+    // Conexão ociosa por mais tempo que isso é validada antes de ser emprestada
+    static final long VALIDAR_APOS_OCIOSA_MS = 30000;
+    // A manutenção valida antes disso, para que o empréstimo raramente precise validar
+    private static final long VALIDACAO_EM_SEGUNDO_PLANO_APOS_MS = VALIDAR_APOS_OCIOSA_MS / 2;
+    private static final int TEMPO_VALIDACAO_SEGUNDOS = 2;
+
+    private final String nome;
+    private final ConnectionFactory factory;
+    private volatile int maxPoolSize;
+    private volatile int minIdle;
+    private volatile long borrowTimeoutMs;
+    private volatile long maxLifetimeMs;
+    private volatile long leakDetectionThresholdMs;
+    private volatile int statementCacheSize;
+    // Conexões de gerações anteriores são substituídas (ver renovarConexoes())
+    private volatile int geracao = 0;
+
+    // Controla quantas conexões podem estar emprestadas ao mesmo tempo (fila justa)
+    private final PermissoesRedimensionaveis permissoes;
+    // Conexões ociosas, usadas em ordem LIFO para manter as conexões "quentes" em uso
+    private final LinkedBlockingDeque<PooledConnection> ociosas = new LinkedBlockingDeque<>();
+    private final Map<Connection, PooledConnection> emprestadas = new ConcurrentHashMap<>();
+    private final AtomicInteger totalConexoes = new AtomicInteger();
+    // Conexões sendo abertas para a fila de ociosas (aquecimento e manutenção)
+    private final AtomicInteger aberturasParaOciosas = new AtomicInteger();
+    private final ScheduledExecutorService manutencao;
+    private volatile boolean fechado = false;
+
+    // Métricas
+    private final AtomicLong totalEmprestimos = new AtomicLong();
+    private final AtomicLong totalEsperas = new AtomicLong();
+    private final AtomicLong totalTimeouts = new AtomicLong();
+    private final AtomicLong totalCriadas = new AtomicLong();
+    private final AtomicLong totalDescartadas = new AtomicLong();
+    private final AtomicLong totalVazamentos = new AtomicLong();
+    private final AtomicLong tempoTotalEsperaNanos = new AtomicLong();
+    private final StatementCache.Metricas metricasStatements = new StatementCache.Metricas();
+
+    /**
+     * Cria o pool. Nenhuma conexão é aberta até que {@link #aquecer()} ou
+     * {@link #preencherMinimoOcioso()} seja chamado, ou até o primeiro empréstimo.
+     *
+     * @param nome Nome do pool, usado nos logs e no nome da thread de manutenção
+     * @param factory Fábrica de conexões físicas
+     * @param maxPoolSize Número máximo de conexões físicas abertas
+     * @param minIdle Número mínimo de conexões ociosas mantidas pela manutenção
+     * @param borrowTimeoutMs Tempo máximo de espera por uma conexão livre
+     * @param maxLifetimeMs Tempo de vida máximo de uma conexão física (0 desativa)
+     * @param leakDetectionThresholdMs Tempo de empréstimo a partir do qual a conexão é
+     *        considerada vazada (0 desativa)
+     * @param statementCacheSize Número de PreparedStatements mantidos em cache por
+     *        conexão física (0 desativa)
+     */
+    public ConnectionPool(String nome, ConnectionFactory factory, int maxPoolSize, int minIdle,
+            long borrowTimeoutMs, long maxLifetimeMs, long leakDetectionThresholdMs, int statementCacheSize) {
+        if (maxPoolSize <= 0) {
+            throw new IllegalArgumentException("Tamanho máximo do pool deve ser maior que zero");
+        }
+        this.nome = nome;
+        this.factory = factory;
+        this.permissoes = new PermissoesRedimensionaveis(maxPoolSize);
+        aplicarConfiguracao(maxPoolSize, minIdle, borrowTimeoutMs, maxLifetimeMs, leakDetectionThresholdMs,
+                statementCacheSize);
+
+        this.manutencao = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pdv-pool-" + nome + "-manutencao");
+            t.setDaemon(true);
+            return t;
+        });
+        this.manutencao.scheduleWithFixedDelay(this::executarManutencao,
+                INTERVALO_MANUTENCAO_MS, INTERVALO_MANUTENCAO_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Obtém uma conexão do pool, aguardando na fila caso todas estejam em uso.
+     * A conexão retornada é um proxy: close() a devolve ao pool.
+     *
+     * @return Uma conexão válida
+     * @throws SQLTimeoutException Se nenhuma conexão ficar livre dentro do tempo de espera
+     * @throws SQLException Se ocorrer um erro ao abrir uma nova conexão
+     */
+    public Connection borrow() throws SQLException {
+        if (fechado) {
+            throw new SQLException("Pool de conexões '" + nome + "' foi encerrado");
+        }
+
+        long inicio = System.nanoTime();
+        boolean obtida;
+        try {
+            // A versão com tempo respeita a fila do semáforo justo: uma vaga livre não é
+            // tomada de quem já está aguardando
+            obtida = permissoes.tryAcquire(0, TimeUnit.MILLISECONDS);
+            if (!obtida) {
+                totalEsperas.incrementAndGet();
+                // Antes de esperar, recupera conexões que foram fechadas sem retornar ao pool
+                recolherConexoesFechadas();
+                obtida = permissoes.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS);
+                tempoTotalEsperaNanos.addAndGet(System.nanoTime() - inicio);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrompido enquanto aguardava conexão do pool", e);
+        }
+        if (!obtida) {
+            totalTimeouts.incrementAndGet();
+            String msg = "Tempo de espera por conexão esgotado (" + borrowTimeoutMs + " ms). " + getResumo();
+            LogUtil.error(ConnectionPool.class, msg, null);
+            throw new SQLTimeoutException(msg);
+        }
+
+        try {
+            PooledConnection pooled = obterOciosaValida();
+
+            if (pooled == null && aberturasParaOciosas.get() > 0) {
+                // Durante o aquecimento, espera a primeira conexão ficar pronta em vez de
+                // abrir mais uma em paralelo
+                pooled = aguardarAberturaEmAndamento(inicio);
+            }
+
+            if (pooled == null) {
+                if (reservarVaga()) {
+                    pooled = criarConexao();
+                } else {
+                    // A manutenção está abrindo a última vaga; aguarda ela ficar ociosa
+                    pooled = aguardarOciosa(inicio);
+                }
+            }
+
+            pooled.marcarEmprestada(leakDetectionThresholdMs > 0);
+            emprestadas.put(pooled.fisica, pooled);
+            totalEmprestimos.incrementAndGet();
+            return PooledConnectionProxy.criar(this, pooled);
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Devolve uma conexão ao pool. Equivale a chamar close() na conexão obtida em
+     * {@link #borrow()}; conexões que não pertencem ao pool são fechadas.
+     *
+     * @param connection A conexão a ser devolvida
+     */
+    public void release(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+
+        if (PooledConnectionProxy.isProxy(connection)) {
+            // O proxy restaura o estado da sessão e chama devolver()
+            fecharSilenciosamente(connection);
+            return;
+        }
+
+        PooledConnection pooled = emprestadas.get(connection);
+        if (pooled != null) {
+            // Conexão física obtida via unwrap()
+            boolean restaurada;
+            try {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                restaurada = true;
+            } catch (SQLException e) {
+                LogUtil.warn(ConnectionPool.class, "Erro ao processar conexão para retorno ao pool: " + e.getMessage());
+                restaurada = false;
+            }
+            devolver(pooled, restaurada);
+        } else if (ociosas.stream().noneMatch(p -> p.fisica == connection)) {
+            // Conexão que não pertence ao pool
+            fecharSilenciosamente(connection);
+        }
+    }
+
+    /**
+     * Recoloca a conexão física entre as ociosas, ou a descarta se não puder ser reutilizada
+     *
+     * @param pooled A conexão emprestada
+     * @param sessaoRestaurada false se o estado da sessão não pôde ser restaurado
+     */
+    void devolver(PooledConnection pooled, boolean sessaoRestaurada) {
+        if (!emprestadas.remove(pooled.fisica, pooled)) {
+            // Já devolvida ou recolhida pela manutenção
+            return;
+        }
+
+        try {
+            if (fechado || !sessaoRestaurada || expirada(pooled) || estaFechada(pooled.fisica)
+                    || totalConexoes.get() > maxPoolSize) {
+                descartar(pooled);
+                return;
+            }
+
+            pooled.marcarDevolvida();
+            ociosas.offerFirst(pooled);
+        } finally {
+            permissoes.release();
+        }
+    }
+
+    /**
+     * Altera tamanho e tempos do pool sem interromper os empréstimos em andamento.
+     * Ao reduzir o tamanho, as conexões excedentes são fechadas conforme forem devolvidas.
+     * Os parâmetros têm o mesmo significado que no construtor.
+     */
+    public synchronized void reconfigurar(int maxPoolSize, int minIdle, long borrowTimeoutMs, long maxLifetimeMs,
+            long leakDetectionThresholdMs, int statementCacheSize) {
+        if (maxPoolSize <= 0) {
+            throw new IllegalArgumentException("Tamanho máximo do pool deve ser maior que zero");
+        }
+        int diferenca = maxPoolSize - this.maxPoolSize;
+        if (diferenca > 0) {
+            permissoes.release(diferenca);
+        } else if (diferenca < 0) {
+            // Pode ficar negativo: as devoluções seguintes não liberam novas vagas
+            permissoes.reducePermits(-diferenca);
+        }
+        aplicarConfiguracao(maxPoolSize, minIdle, borrowTimeoutMs, maxLifetimeMs, leakDetectionThresholdMs,
+                statementCacheSize);
+        fecharOciosasExcedentes();
+        LogUtil.info(ConnectionPool.class, "Pool '" + nome + "' reconfigurado. " + getResumo());
+    }
+
+    private void aplicarConfiguracao(int maxPoolSize, int minIdle, long borrowTimeoutMs, long maxLifetimeMs,
+            long leakDetectionThresholdMs, int statementCacheSize) {
+        this.maxPoolSize = maxPoolSize;
+        this.minIdle = Math.max(0, Math.min(minIdle, maxPoolSize));
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.maxLifetimeMs = maxLifetimeMs;
+        this.leakDetectionThresholdMs = leakDetectionThresholdMs;
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+    }
+
+    /**
+     * Substitui as conexões existentes por novas, abertas com a configuração atual da
+     * fábrica. As ociosas são fechadas na próxima manutenção; as emprestadas, na devolução.
+     */
+    public synchronized void renovarConexoes() {
+        geracao++;
+        LogUtil.info(ConnectionPool.class, "Conexões do pool '" + nome + "' serão renovadas");
+    }
+
+    private void fecharOciosasExcedentes() {
+        PooledConnection pooled;
+        while (totalConexoes.get() > maxPoolSize && (pooled = ociosas.pollLast()) != null) {
+            descartar(pooled);
+        }
+    }
+
+    /**
+     * Abre conexões até atingir o mínimo de conexões ociosas configurado
+     */
+    public void preencherMinimoOcioso() {
+        while (!fechado && ociosas.size() < minIdle) {
+            if (!abrirConexaoOciosa()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Abre em paralelo, em segundo plano, as conexões que faltam para o mínimo de ociosas.
+     * Quem pedir uma conexão durante o aquecimento espera apenas a primeira ficar pronta.
+     *
+     * @return Futuro concluído com o número de conexões abertas
+     */
+    public CompletableFuture<Integer> aquecer() {
+        int faltam = minIdle - ociosas.size();
+        if (fechado || faltam <= 0) {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(faltam, r -> {
+            Thread t = new Thread(r, "pdv-pool-" + nome + "-aquecimento");
+            t.setDaemon(true);
+            return t;
+        });
+        CompletableFuture<?>[] aberturas = new CompletableFuture<?>[faltam];
+        AtomicInteger abertas = new AtomicInteger();
+        for (int i = 0; i < faltam; i++) {
+            aberturas[i] = CompletableFuture.runAsync(() -> {
+                if (abrirConexaoOciosa()) {
+                    abertas.incrementAndGet();
+                }
+            }, executor);
+        }
+        executor.shutdown();
+        return CompletableFuture.allOf(aberturas).thenApply(v -> abertas.get());
+    }
+
+    /**
+     * Abre uma conexão e a coloca entre as ociosas
+     *
+     * @return false se não há vaga ou se a abertura falhou
+     */
+    private boolean abrirConexaoOciosa() {
+        if (fechado || !reservarVaga()) {
+            return false;
+        }
+        aberturasParaOciosas.incrementAndGet();
+        try {
+            PooledConnection pooled = criarConexao();
+            pooled.marcarDevolvida();
+            ociosas.offerLast(pooled);
+            return true;
+        } catch (SQLException e) {
+            LogUtil.error(ConnectionPool.class, "Erro ao inicializar conexões ociosas do pool '" + nome + "'", e);
+            return false;
+        } finally {
+            aberturasParaOciosas.decrementAndGet();
+        }
+    }
+
+    /**
+     * Fecha todas as conexões ociosas. Conexões emprestadas são fechadas quando devolvidas
+     * após {@link #shutdown()}.
+     */
+    public void fecharOciosas() {
+        PooledConnection pooled;
+        while ((pooled = ociosas.pollFirst()) != null) {
+            descartar(pooled);
+        }
+    }
+
+    /**
+     * Encerra o pool e a thread de manutenção
+     */
+    public void shutdown() {
+        fechado = true;
+        manutencao.shutdownNow();
+        fecharOciosas();
+        LogUtil.info(ConnectionPool.class, "Pool '" + nome + "' encerrado. " + getResumo());
+    }
+
+    private PooledConnection obterOciosaValida() {
+        PooledConnection pooled;
+        while ((pooled = ociosas.pollFirst()) != null) {
+            if (!expirada(pooled) && (pooled.ociosaHaMenosDe(VALIDAR_APOS_OCIOSA_MS) || validar(pooled.fisica))) {
+                return pooled;
+            }
+            LogUtil.info(ConnectionPool.class, "Conexão do pool inválida ou expirada, descartando");
+            descartar(pooled);
+        }
+        return null;
+    }
+
+    private PooledConnection aguardarOciosa(long inicio) throws SQLException {
+        long restanteMs = borrowTimeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        try {
+            PooledConnection pooled = ociosas.pollFirst(Math.max(restanteMs, 0), TimeUnit.MILLISECONDS);
+            if (pooled != null) {
+                return pooled;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrompido enquanto aguardava conexão do pool", e);
+        }
+        totalTimeouts.incrementAndGet();
+        throw new SQLTimeoutException("Tempo de espera por conexão esgotado (" + borrowTimeoutMs + " ms). " + getResumo());
+    }
+
+    /**
+     * Aguarda uma das conexões em abertura para a fila de ociosas
+     *
+     * @return A conexão, ou null se as aberturas terminaram sem deixar conexão livre
+     */
+    private PooledConnection aguardarAberturaEmAndamento(long inicio) throws SQLException {
+        try {
+            while (aberturasParaOciosas.get() > 0) {
+                long restanteMs = borrowTimeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+                if (restanteMs <= 0) {
+                    totalTimeouts.incrementAndGet();
+                    throw new SQLTimeoutException("Tempo de espera por conexão esgotado (" + borrowTimeoutMs + " ms). "
+                            + getResumo());
+                }
+                PooledConnection pooled = ociosas.pollFirst(Math.min(restanteMs, 50), TimeUnit.MILLISECONDS);
+                if (pooled != null) {
+                    return pooled;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrompido enquanto aguardava conexão do pool", e);
+        }
+        return ociosas.pollFirst();
+    }
+
+    private boolean reservarVaga() {
+        while (true) {
+            int atual = totalConexoes.get();
+            if (atual >= maxPoolSize) {
+                return false;
+            }
+            if (totalConexoes.compareAndSet(atual, atual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private PooledConnection criarConexao() throws SQLException {
+        // Lida antes de abrir: uma renovação durante a abertura já invalida esta conexão
+        int geracaoAtual = geracao;
+        try {
+            Connection fisica = factory.create();
+            PooledConnection pooled = new PooledConnection(fisica, fisica.getTransactionIsolation(), geracaoAtual,
+                    new StatementCache(fisica, statementCacheSize, metricasStatements));
+            totalCriadas.incrementAndGet();
+            return pooled;
+        } catch (SQLException | RuntimeException e) {
+            totalConexoes.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void descartar(PooledConnection pooled) {
+        totalConexoes.decrementAndGet();
+        totalDescartadas.incrementAndGet();
+        pooled.statementCache.fecharTodos();
+        fecharSilenciosamente(pooled.fisica);
+    }
+
+    private boolean expirada(PooledConnection pooled) {
+        return pooled.geracao != geracao
+                || (maxLifetimeMs > 0 && System.currentTimeMillis() - pooled.criadaEm > maxLifetimeMs);
+    }
+
+    /**
+     * Verifica a conexão com um round-trip ao servidor
+     */
+    private boolean validar(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(TEMPO_VALIDACAO_SEGUNDOS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Verifica apenas o estado local da conexão, sem acessar o servidor
+     */
+    private boolean estaFechada(Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private void fecharSilenciosamente(Connection connection) {
+        try {
+            if (!connection.isClosed()) {
+                connection.close();
+            }
+        } catch (SQLException e) {
+            // Ignorar erros ao fechar conexão descartada
+        }
+    }
+
+    /**
+     * Tarefa periódica: recupera conexões fechadas pelos chamadores, detecta vazamentos,
+     * rotaciona conexões expiradas e mantém o mínimo de conexões ociosas
+     */
+    private void executarManutencao() {
+        try {
+            recolherConexoesFechadas();
+            detectarVazamentos();
+            rotacionarExpiradas();
+            validarOciosas();
+            preencherMinimoOcioso();
+        } catch (RuntimeException e) {
+            LogUtil.error(ConnectionPool.class, "Erro na manutenção do pool '" + nome + "'", e);
+        }
+    }
+
+    /**
+     * Conexões físicas fechadas enquanto emprestadas (queda do servidor ou close() na
+     * conexão obtida via unwrap()) nunca voltam ao pool; aqui liberamos a vaga e a
+     * permissão que elas ocupavam.
+     */
+    private void recolherConexoesFechadas() {
+        for (Iterator<PooledConnection> it = emprestadas.values().iterator(); it.hasNext();) {
+            PooledConnection pooled = it.next();
+            boolean fechada;
+            try {
+                fechada = pooled.fisica.isClosed();
+            } catch (SQLException e) {
+                fechada = true;
+            }
+            if (fechada && emprestadas.remove(pooled.fisica, pooled)) {
+                totalConexoes.decrementAndGet();
+                totalDescartadas.incrementAndGet();
+                permissoes.release();
+                LogUtil.debug(ConnectionPool.class, "Conexão fechada pelo chamador recolhida do pool '" + nome + "'");
+            }
+        }
+    }
+
+    private void detectarVazamentos() {
+        if (leakDetectionThresholdMs <= 0) {
+            return;
+        }
+        long agora = System.currentTimeMillis();
+        for (PooledConnection pooled : emprestadas.values()) {
+            if (!pooled.vazamentoReportado && agora - pooled.emprestadaEm > leakDetectionThresholdMs) {
+                pooled.vazamentoReportado = true;
+                totalVazamentos.incrementAndGet();
+                LogUtil.error(ConnectionPool.class, String.format(
+                        "Possível vazamento de conexão no pool '%s': emprestada há %d ms pela thread '%s'",
+                        nome, agora - pooled.emprestadaEm, pooled.threadEmprestimo), pooled.origemEmprestimo);
+            }
+        }
+    }
+
+    private void rotacionarExpiradas() {
+        for (Iterator<PooledConnection> it = ociosas.iterator(); it.hasNext();) {
+            PooledConnection pooled = it.next();
+            if (expirada(pooled) && ociosas.removeFirstOccurrence(pooled)) {
+                LogUtil.debug(ConnectionPool.class, "Conexão expirada ou de configuração anterior foi substituída");
+                descartar(pooled);
+            }
+        }
+    }
+
+    /**
+     * Valida as conexões ociosas há algum tempo. Cada conexão é retirada da fila durante
+     * a validação para não ser emprestada ao mesmo tempo; se continuar válida, volta ao
+     * fim da fila, preservando a ordem LIFO das conexões mais usadas.
+     */
+    private void validarOciosas() {
+        for (Iterator<PooledConnection> it = ociosas.iterator(); it.hasNext() && !fechado;) {
+            PooledConnection pooled = it.next();
+            if (pooled.ociosaHaMenosDe(VALIDACAO_EM_SEGUNDO_PLANO_APOS_MS) || !ociosas.removeFirstOccurrence(pooled)) {
+                continue;
+            }
+            if (validar(pooled.fisica)) {
+                pooled.marcarDevolvida();
+                ociosas.offerLast(pooled);
+            } else {
+                LogUtil.info(ConnectionPool.class, "Conexão ociosa inválida descartada do pool '" + nome + "'");
+                descartar(pooled);
+            }
+        }
+    }
+
+    // Métricas
+
+    public String getNome() {
+        return nome;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public int getTotalConexoes() {
+        return totalConexoes.get();
+    }
+
+    public int getConexoesAtivas() {
+        return emprestadas.size();
+    }
+
+    public int getConexoesOciosas() {
+        return ociosas.size();
+    }
+
+    public int getThreadsAguardando() {
+        return permissoes.getQueueLength();
+    }
+
+    public long getTotalEmprestimos() {
+        return totalEmprestimos.get();
+    }
+
+    public long getTotalTimeouts() {
+        return totalTimeouts.get();
+    }
+
+    public long getTotalVazamentos() {
+        return totalVazamentos.get();
+    }
+
+    public long getStatementCacheAcertos() {
+        return metricasStatements.acertos.get();
+    }
+
+    public long getStatementCacheFalhas() {
+        return metricasStatements.falhas.get();
+    }
+
+    public long getStatementCacheDescartes() {
+        return metricasStatements.descartes.get();
+    }
+
+    /**
+     * Retorna um resumo do estado atual do pool, para logs e diagnóstico
+     */
+    public String getResumo() {
+        long esperas = totalEsperas.get();
+        long esperaMediaMs = esperas == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(tempoTotalEsperaNanos.get() / esperas);
+        return String.format("Pool '%s': total=%d/%d, ativas=%d, ociosas=%d, aguardando=%d, "
+                + "emprestimos=%d, esperas=%d (media %d ms), timeouts=%d, criadas=%d, descartadas=%d, vazamentos=%d",
+                nome, totalConexoes.get(), maxPoolSize, emprestadas.size(), ociosas.size(),
+                permissoes.getQueueLength(), totalEmprestimos.get(), esperas, esperaMediaMs,
+                totalTimeouts.get(), totalCriadas.get(), totalDescartadas.get(), totalVazamentos.get())
+                + ", " + metricasStatements.getResumo();
+    }
+
+    /**
+     * Conexão física gerenciada pelo pool e seus metadados
+     */
+    static class PooledConnection {
+        final Connection fisica;
+        final int isolamentoPadrao;
+        final int geracao;
+        final StatementCache statementCache;
+        private final long criadaEm = System.currentTimeMillis();
+        private volatile long emprestadaEm;
+        private volatile String threadEmprestimo;
+        private volatile Throwable origemEmprestimo;
+        private volatile boolean vazamentoReportado;
+        // Última vez em que a conexão foi devolvida ou validada
+        private volatile long ultimoUso = System.currentTimeMillis();
+
+        private PooledConnection(Connection fisica, int isolamentoPadrao, int geracao, StatementCache statementCache) {
+            this.fisica = fisica;
+            this.isolamentoPadrao = isolamentoPadrao;
+            this.geracao = geracao;
+            this.statementCache = statementCache;
+        }
+
+        private void marcarEmprestada(boolean registrarOrigem) {
+            emprestadaEm = System.currentTimeMillis();
+            threadEmprestimo = Thread.currentThread().getName();
+            origemEmprestimo = registrarOrigem ? new Throwable("Conexão obtida do pool neste ponto") : null;
+            vazamentoReportado = false;
+        }
+
+        private void marcarDevolvida() {
+            origemEmprestimo = null;
+            ultimoUso = System.currentTimeMillis();
+        }
+
+        private boolean ociosaHaMenosDe(long ms) {
+            return System.currentTimeMillis() - ultimoUso < ms;
+        }
+    }
+
+    /**
+     * Semaphore que permite reduzir o número de permissões ao diminuir o pool
+     */
+    private static final class PermissoesRedimensionaveis extends Semaphore {
+        private static final long serialVersionUID = 1L;
+
+        private PermissoesRedimensionaveis(int permissoes) {
+            super(permissoes, true);
+        }
+
+        @Override
+        protected void reducePermits(int reducao) {
+            super.reducePermits(reducao);
+        }
+    }
+}
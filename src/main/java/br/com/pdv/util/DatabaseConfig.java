@@ -0,0 +1,306 @@
+package br.com.pdv.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Configuração do banco de dados e dos pools de conexões.
+ *
+ * Os valores são lidos, em ordem de prioridade crescente, de:
+ * <ol>
+ *   <li>valores padrão definidos nesta classe;</li>
+ *   <li>arquivo pdv-database.properties no diretório de trabalho (ou o arquivo indicado
+ *       por -Dpdv.db.config / PDV_DB_CONFIG), que permite ajustar cada terminal;</li>
+ *   <li>variáveis de ambiente: a chave em maiúsculas com '_' e prefixo PDV_
+ *       (db.pool.maxSize vira PDV_DB_POOL_MAX_SIZE);</li>
+ *   <li>propriedades de sistema com prefixo pdv. (-Dpdv.db.pool.maxSize=20).</li>
+ * </ol>
+ *
+ * Instâncias são imutáveis; uma recarga produz uma nova instância.
+ */
+public final class DatabaseConfig {
+
+    public static final String ARQUIVO_PADRAO = "pdv-database.properties";
+
+    static final String URL = "db.url";
+    static final String USER = "db.user";
+    static final String PASSWORD = "db.password";
+    static final String CONNECT_TIMEOUT_MS = "db.connectTimeoutMs";
+    static final String SOCKET_TIMEOUT_MS = "db.socketTimeoutMs";
+    static final String LOCK_WAIT_TIMEOUT_SECONDS = "db.lockWaitTimeoutSeconds";
+    static final String POOL_MAX_SIZE = "db.pool.maxSize";
+    static final String POOL_MIN_IDLE = "db.pool.minIdle";
+    static final String POOL_BORROW_TIMEOUT_MS = "db.pool.borrowTimeoutMs";
+    static final String POOL_MAX_LIFETIME_MS = "db.pool.maxLifetimeMs";
+    static final String POOL_LEAK_DETECTION_MS = "db.pool.leakDetectionMs";
+    static final String POOL_STATEMENT_CACHE_SIZE = "db.pool.statementCacheSize";
+    static final String REPLICA_URL = "db.replica.url";
+    static final String REPLICA_MAX_POOL_SIZE = "db.replica.maxPoolSize";
+    static final String REPLICA_BORROW_TIMEOUT_MS = "db.replica.borrowTimeoutMs";
+    static final String REPLICA_MAX_LAG_SECONDS = "db.replica.maxLagSeconds";
+    static final String RELOAD_INTERVAL_MS = "db.config.reloadIntervalMs";
+
+    private static final Map<String, String> PADROES = new LinkedHashMap<>();
+    // As demais chaves são numéricas
+    private static final Set<String> CHAVES_TEXTO = Set.of(URL, USER, PASSWORD, REPLICA_URL);
+
+    static {
+        PADROES.put(URL, "jdbc:mysql://localhost:3306/pdv_db");
+        PADROES.put(USER, "root");
+        PADROES.put(PASSWORD, "root");
+        PADROES.put(CONNECT_TIMEOUT_MS, "30000");           // 30 segundos
+        PADROES.put(SOCKET_TIMEOUT_MS, "300000");           // 5 minutos
+        PADROES.put(LOCK_WAIT_TIMEOUT_SECONDS, "50");
+        PADROES.put(POOL_MAX_SIZE, "10");
+        PADROES.put(POOL_MIN_IDLE, "");                     // vazio: metade de db.pool.maxSize
+        PADROES.put(POOL_BORROW_TIMEOUT_MS, "15000");       // espera máxima por uma conexão livre
+        PADROES.put(POOL_MAX_LIFETIME_MS, "1800000");       // rotaciona conexões a cada 30 minutos
+        PADROES.put(POOL_LEAK_DETECTION_MS, "60000");       // conexão emprestada há mais de 1 minuto
+        PADROES.put(POOL_STATEMENT_CACHE_SIZE, "64");       // PreparedStatements em cache por conexão
+        PADROES.put(REPLICA_URL, "");                       // vazio: sem réplica de leitura
+        PADROES.put(REPLICA_MAX_POOL_SIZE, "4");
+        PADROES.put(REPLICA_BORROW_TIMEOUT_MS, "2000");     // espera curta: na dúvida, usa o primário
+        PADROES.put(REPLICA_MAX_LAG_SECONDS, "30");
+        PADROES.put(RELOAD_INTERVAL_MS, "5000");
+    }
+
+    private final Map<String, String> valores;
+    private final File arquivo;
+    private final long arquivoModificadoEm;
+
+    private DatabaseConfig(Map<String, String> valores, File arquivo, long arquivoModificadoEm) {
+        this.valores = valores;
+        this.arquivo = arquivo;
+        this.arquivoModificadoEm = arquivoModificadoEm;
+    }
+
+    /**
+     * Carrega e valida a configuração
+     *
+     * @return A configuração carregada
+     * @throws IllegalArgumentException Se algum valor for inválido, com a lista de erros
+     */
+    public static DatabaseConfig carregar() {
+        Map<String, String> valores = new LinkedHashMap<>(PADROES);
+
+        File arquivo = localizarArquivo();
+        long modificadoEm = 0;
+        if (arquivo.isFile()) {
+            modificadoEm = arquivo.lastModified();
+            Properties props = new Properties();
+            try (InputStream in = new FileInputStream(arquivo)) {
+                props.load(in);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Erro ao ler " + arquivo.getAbsolutePath() + ": " + e.getMessage(), e);
+            }
+            for (String chave : props.stringPropertyNames()) {
+                if (!PADROES.containsKey(chave)) {
+                    LogUtil.warn(DatabaseConfig.class, "Chave desconhecida em " + arquivo.getName() + ": " + chave);
+                    continue;
+                }
+                valores.put(chave, props.getProperty(chave).trim());
+            }
+        }
+
+        for (String chave : PADROES.keySet()) {
+            String env = System.getenv(nomeVariavelAmbiente(chave));
+            if (env != null) {
+                valores.put(chave, env.trim());
+            }
+            String sys = System.getProperty("pdv." + chave);
+            if (sys != null) {
+                valores.put(chave, sys.trim());
+            }
+        }
+
+        DatabaseConfig config = new DatabaseConfig(valores, arquivo, modificadoEm);
+        config.validar();
+        return config;
+    }
+
+    private static File localizarArquivo() {
+        String caminho = System.getProperty("pdv.db.config");
+        if (caminho == null) {
+            caminho = System.getenv("PDV_DB_CONFIG");
+        }
+        return new File(caminho != null ? caminho : ARQUIVO_PADRAO);
+    }
+
+    /**
+     * Converte a chave no nome da variável de ambiente (db.pool.maxSize -> PDV_DB_POOL_MAX_SIZE)
+     */
+    static String nomeVariavelAmbiente(String chave) {
+        return "PDV_" + chave.replaceAll("([a-z])([A-Z])", "$1_$2").replace('.', '_').toUpperCase();
+    }
+
+    private void validar() {
+        List<String> erros = new ArrayList<>();
+
+        if (!getUrl().startsWith("jdbc:")) {
+            erros.add(URL + " deve começar com 'jdbc:'");
+        }
+        if (!getReplicaUrl().isEmpty() && !getReplicaUrl().startsWith("jdbc:")) {
+            erros.add(REPLICA_URL + " deve começar com 'jdbc:'");
+        }
+        for (String chave : PADROES.keySet()) {
+            if (!CHAVES_TEXTO.contains(chave) && !(chave.equals(POOL_MIN_IDLE) && valores.get(chave).isEmpty())) {
+                try {
+                    if (Long.parseLong(valores.get(chave)) < 0) {
+                        erros.add(chave + " não pode ser negativo");
+                    }
+                } catch (NumberFormatException e) {
+                    erros.add(chave + " deve ser um número inteiro: '" + valores.get(chave) + "'");
+                }
+            }
+        }
+        if (erros.isEmpty()) {
+            if (getMaxPoolSize() < 1) {
+                erros.add(POOL_MAX_SIZE + " deve ser maior que zero");
+            }
+            if (getMinIdle() > getMaxPoolSize()) {
+                erros.add(POOL_MIN_IDLE + " não pode ser maior que " + POOL_MAX_SIZE);
+            }
+            if (!getReplicaUrl().isEmpty() && getReplicaMaxPoolSize() < 1) {
+                erros.add(REPLICA_MAX_POOL_SIZE + " deve ser maior que zero");
+            }
+            if (getReloadIntervalMs() < 1000) {
+                erros.add(RELOAD_INTERVAL_MS + " deve ser de pelo menos 1000 ms");
+            }
+        }
+
+        if (!erros.isEmpty()) {
+            throw new IllegalArgumentException("Configuração do banco de dados inválida: " + String.join("; ", erros));
+        }
+    }
+
+    /**
+     * Verifica se o arquivo de configuração foi criado, alterado ou removido desde a carga
+     */
+    public boolean arquivoAlterado() {
+        long atual = arquivo.isFile() ? arquivo.lastModified() : 0;
+        return atual != arquivoModificadoEm;
+    }
+
+    /**
+     * Verifica se as novas configurações exigem abrir novas conexões físicas
+     * (endereço, credenciais ou parâmetros definidos na abertura da conexão)
+     */
+    public boolean exigeNovasConexoes(DatabaseConfig outra) {
+        return !Objects.equals(getUrl(), outra.getUrl())
+                || !Objects.equals(getUser(), outra.getUser())
+                || !Objects.equals(getPassword(), outra.getPassword())
+                || getConnectTimeoutMs() != outra.getConnectTimeoutMs()
+                || getSocketTimeoutMs() != outra.getSocketTimeoutMs()
+                || getLockWaitTimeoutSeconds() != outra.getLockWaitTimeoutSeconds();
+    }
+
+    /**
+     * Descreve as chaves com valores diferentes, para o log de recarga. Senhas não são exibidas.
+     */
+    public String descreverDiferencas(DatabaseConfig outra) {
+        StringBuilder sb = new StringBuilder();
+        for (String chave : PADROES.keySet()) {
+            String antes = valores.get(chave);
+            String depois = outra.valores.get(chave);
+            if (!Objects.equals(antes, depois)) {
+                if (sb.length() > 0) {
+                    sb.append(", ");
+                }
+                sb.append(chave);
+                if (!chave.equals(PASSWORD)) {
+                    sb.append(": ").append(antes).append(" -> ").append(depois);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private long longo(String chave) {
+        return Long.parseLong(valores.get(chave));
+    }
+
+    private int inteiro(String chave) {
+        return (int) Math.min(Integer.MAX_VALUE, longo(chave));
+    }
+
+    public File getArquivo() {
+        return arquivo;
+    }
+
+    public String getUrl() {
+        return valores.get(URL);
+    }
+
+    public String getUser() {
+        return valores.get(USER);
+    }
+
+    public String getPassword() {
+        return valores.get(PASSWORD);
+    }
+
+    public int getConnectTimeoutMs() {
+        return inteiro(CONNECT_TIMEOUT_MS);
+    }
+
+    public int getSocketTimeoutMs() {
+        return inteiro(SOCKET_TIMEOUT_MS);
+    }
+
+    public int getLockWaitTimeoutSeconds() {
+        return inteiro(LOCK_WAIT_TIMEOUT_SECONDS);
+    }
+
+    public int getMaxPoolSize() {
+        return inteiro(POOL_MAX_SIZE);
+    }
+
+    public int getMinIdle() {
+        return valores.get(POOL_MIN_IDLE).isEmpty() ? getMaxPoolSize() / 2 : inteiro(POOL_MIN_IDLE);
+    }
+
+    public long getBorrowTimeoutMs() {
+        return longo(POOL_BORROW_TIMEOUT_MS);
+    }
+
+    public long getMaxLifetimeMs() {
+        return longo(POOL_MAX_LIFETIME_MS);
+    }
+
+    public long getLeakDetectionMs() {
+        return longo(POOL_LEAK_DETECTION_MS);
+    }
+
+    public int getStatementCacheSize() {
+        return inteiro(POOL_STATEMENT_CACHE_SIZE);
+    }
+
+    public String getReplicaUrl() {
+        return valores.get(REPLICA_URL);
+    }
+
+    public int getReplicaMaxPoolSize() {
+        return inteiro(REPLICA_MAX_POOL_SIZE);
+    }
+
+    public long getReplicaBorrowTimeoutMs() {
+        return longo(REPLICA_BORROW_TIMEOUT_MS);
+    }
+
+    public long getReplicaMaxLagSeconds() {
+        return longo(REPLICA_MAX_LAG_SECONDS);
+    }
+
+    public long getReloadIntervalMs() {
+        return longo(RELOAD_INTERVAL_MS);
+    }
+}
@@ -7,8 +7,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -19,30 +21,24 @@ public class DatabaseConnection {
     private static volatile DatabaseConnection instance;
     private static final Logger logger = Logger.getLogger(DatabaseConnection.class.getName());
     
-    // Configurações do banco de dados
-    private static final String URL = "jdbc:mysql://localhost:3306/pdv_db";
-    private static final String USER = "root";
-    private static final String PASSWORD = "root";
-    
-    // Configurações adicionais do MySQL
-    private static final Properties properties = new Properties();
+    // Configuração do banco e dos pools (ver DatabaseConfig), recarregada quando o
+    // arquivo de configuração do terminal é alterado
+    private volatile DatabaseConfig config;
+    private final ScheduledExecutorService recargaConfiguracao;
     
     // Pool de conexões
-    private static final int MAX_POOL_SIZE = 10;
-    private final BlockingQueue<Connection> connectionPool;
+    private final ConnectionPool connectionPool;
+    
+    // Réplica de leitura (opcional, db.replica.url), usada por relatórios e dashboard
+    private static final long REPLICA_INTERVALO_VERIFICACAO_MS = 10000;
+    private static final long REPLICA_PAUSA_APOS_FALHA_MS = 30000;
+    private volatile ConnectionPool readPool;
+    private final AtomicLong proximaVerificacaoAtraso = new AtomicLong();
+    private volatile long atrasoReplicaSegundos = 0;
+    private volatile long replicaIndisponivelAte = 0;
+    private volatile boolean usandoPrimarioParaLeitura = false;
     
     static {
-        properties.setProperty("connectTimeout", "30000"); // 30 segundos
-        properties.setProperty("socketTimeout", "300000"); // 5 minutos
-        properties.setProperty("autoReconnect", "true");
-        properties.setProperty("failOverReadOnly", "false");
-        properties.setProperty("maxReconnects", "3");
-        properties.setProperty("user", USER);
-        properties.setProperty("password", PASSWORD);
-        properties.setProperty("useSSL", "false");
-        properties.setProperty("serverTimezone", "UTC");
-        properties.setProperty("allowPublicKeyRetrieval", "true");
-        
         try {
             Class.forName("com.mysql.cj.jdbc.Driver");
         } catch (ClassNotFoundException e) {
@@ -55,15 +51,73 @@ public class DatabaseConnection {
      * Construtor privado que inicializa o pool de conexões
      */
     private DatabaseConnection() {
-        connectionPool = new ArrayBlockingQueue<>(MAX_POOL_SIZE);
-        // Inicializar o pool com algumas conexões
-        for (int i = 0; i < MAX_POOL_SIZE / 2; i++) {
-            try {
-                connectionPool.offer(createConnection());
-            } catch (SQLException e) {
-                LogUtil.error(DatabaseConnection.class, "Erro ao inicializar pool de conexões", e);
-            }
+        try {
+            config = DatabaseConfig.carregar();
+        } catch (IllegalArgumentException e) {
+            LogUtil.error(DatabaseConnection.class, e.getMessage(), e);
+            throw e;
+        }
+        LogUtil.info(DatabaseConnection.class, "Configuração do banco de dados carregada"
+                + (config.getArquivo().isFile() ? " de " + config.getArquivo().getAbsolutePath() : " (valores padrão)"));
+        
+        connectionPool = new ConnectionPool("primario", this::createConnection, config.getMaxPoolSize(),
+                config.getMinIdle(), config.getBorrowTimeoutMs(), config.getMaxLifetimeMs(),
+                config.getLeakDetectionMs(), config.getStatementCacheSize());
+        // Abre as conexões iniciais em segundo plano, sem bloquear quem chamou getInstance()
+        // (normalmente a thread JavaFX); o primeiro empréstimo espera só a primeira conexão
+        StartupTimeline.marcar("aquecimento do pool de conexões iniciado");
+        connectionPool.aquecer().thenAccept(abertas -> StartupTimeline.marcar(
+                "aquecimento do pool de conexões concluído (" + abertas + " conexões)"));
+        
+        readPool = criarPoolLeitura(config);
+        
+        recargaConfiguracao = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pdv-config-recarga");
+            t.setDaemon(true);
+            return t;
+        });
+        recargaConfiguracao.scheduleWithFixedDelay(this::verificarArquivoConfiguracao,
+                config.getReloadIntervalMs(), config.getReloadIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+    
+    private ConnectionPool criarPoolLeitura(DatabaseConfig config) {
+        if (config.getReplicaUrl().isEmpty()) {
+            return null;
         }
+        LogUtil.info(DatabaseConnection.class, "Réplica de leitura configurada: " + config.getReplicaUrl());
+        return new ConnectionPool("leitura", this::createReadConnection, config.getReplicaMaxPoolSize(), 0,
+                config.getReplicaBorrowTimeoutMs(), config.getMaxLifetimeMs(), config.getLeakDetectionMs(),
+                config.getStatementCacheSize());
+    }
+    
+    /**
+     * Monta as propriedades do driver MySQL
+     */
+    private static Properties criarPropriedades(DatabaseConfig config) {
+        Properties properties = new Properties();
+        properties.setProperty("connectTimeout", String.valueOf(config.getConnectTimeoutMs()));
+        properties.setProperty("socketTimeout", String.valueOf(config.getSocketTimeoutMs()));
+        properties.setProperty("autoReconnect", "true");
+        properties.setProperty("failOverReadOnly", "false");
+        properties.setProperty("maxReconnects", "3");
+        properties.setProperty("user", config.getUser());
+        properties.setProperty("password", config.getPassword());
+        properties.setProperty("useSSL", "false");
+        properties.setProperty("serverTimezone", "UTC");
+        properties.setProperty("allowPublicKeyRetrieval", "true");
+        // Mantém autocommit/isolamento/somente leitura em memória, evitando round-trips
+        // ao restaurar o estado da sessão na devolução ao pool
+        properties.setProperty("useLocalSessionState", "true");
+        // Prepared statements no servidor: o parse do SQL é feito uma vez por conexão e
+        // reaproveitado pelo cache de statements do pool (o cache do driver fica desligado)
+        properties.setProperty("useServerPrepStmts", "true");
+        properties.setProperty("cachePrepStmts", "false");
+        // Respeita setFetchSize(): consultas grandes são lidas do servidor em blocos
+        properties.setProperty("useCursorFetch", "true");
+        // executeBatch() de INSERT vira um único INSERT com várias linhas (VALUES (...), (...)),
+        // com as chaves geradas de todas as linhas
+        properties.setProperty("rewriteBatchedStatements", "true");
+        return properties;
     }
     
     /**
@@ -87,16 +141,19 @@ public class DatabaseConnection {
      * @throws SQLException Se ocorrer um erro ao criar a conexão
      */
     private Connection createConnection() throws SQLException {
+        DatabaseConfig atual = config;
         try {
-            Connection newConnection = DriverManager.getConnection(URL, properties);
-            // Configurar timeout para um valor razoável
+            Connection newConnection = DriverManager.getConnection(atual.getUrl(), criarPropriedades(atual));
+            // Configurar timeout de bloqueio (padrão de 50 segundos)
             try (Statement stmt = newConnection.createStatement()) {
-                // 50 segundos é um valor mais razoável para timeout de bloqueio
-                stmt.execute("SET innodb_lock_wait_timeout = 50");
-                // Transações com nível de isolamento menor para reduzir bloqueios
-                stmt.execute("SET TRANSACTION ISOLATION LEVEL READ COMMITTED");
+                stmt.execute("SET innodb_lock_wait_timeout = " + atual.getLockWaitTimeoutSeconds());
             }
+            // Transações com nível de isolamento menor para reduzir bloqueios.
+            // Definido na sessão (e não só na próxima transação) para ser o padrão
+            // restaurado quando a conexão volta ao pool
+            newConnection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
             LogUtil.info(DatabaseConnection.class, "Nova conexão com banco de dados criada");
+            StartupTimeline.marcar("primeira conexão com o banco de dados aberta");
             return newConnection;
         } catch (SQLException e) {
             LogUtil.error(DatabaseConnection.class, "Erro ao criar conexão com banco de dados", e);
@@ -105,92 +162,228 @@ public class DatabaseConnection {
     }
     
     /**
-     * Obtém uma conexão do pool ou cria uma nova se necessário
-     * @return Uma conexão com o banco de dados
-     * @throws SQLException Se ocorrer um erro ao obter a conexão
+     * Cria uma conexão somente leitura com a réplica
      */
-    public Connection getConnection() throws SQLException {
-        Connection connection = connectionPool.poll();
+    private Connection createReadConnection() throws SQLException {
+        DatabaseConfig atual = config;
+        Connection newConnection = DriverManager.getConnection(atual.getReplicaUrl(), criarPropriedades(atual));
+        newConnection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        newConnection.setReadOnly(true);
+        LogUtil.info(DatabaseConnection.class, "Nova conexão com a réplica de leitura criada");
+        return newConnection;
+    }
+    
+    /**
+     * Relê a configuração e aplica as alterações sem reiniciar a aplicação: tamanho e
+     * tempos do pool mudam imediatamente; mudanças de URL, credenciais ou timeouts de
+     * conexão fazem o pool substituir gradualmente as conexões abertas. O intervalo de
+     * verificação do arquivo só muda ao reiniciar.
+     * @return true se a configuração foi aplicada, false se é inválida (a atual é mantida)
+     */
+    public synchronized boolean recarregarConfiguracao() {
+        DatabaseConfig nova;
+        try {
+            nova = DatabaseConfig.carregar();
+        } catch (IllegalArgumentException e) {
+            LogUtil.error(DatabaseConnection.class, e.getMessage() + ". A configuração atual foi mantida", e);
+            return false;
+        }
         
-        if (connection == null) {
-            // Pool vazio, criar nova conexão
-            connection = createConnection();
-            LogUtil.info(DatabaseConnection.class, "Criada nova conexão fora do pool");
+        DatabaseConfig anterior = config;
+        String diferencas = anterior.descreverDiferencas(nova);
+        config = nova;
+        if (diferencas.isEmpty()) {
+            return true;
+        }
+        LogUtil.info(DatabaseConnection.class, "Configuração do banco de dados recarregada: " + diferencas);
+        
+        boolean novasConexoes = anterior.exigeNovasConexoes(nova);
+        if (novasConexoes) {
+            connectionPool.renovarConexoes();
+        }
+        connectionPool.reconfigurar(nova.getMaxPoolSize(), nova.getMinIdle(), nova.getBorrowTimeoutMs(),
+                nova.getMaxLifetimeMs(), nova.getLeakDetectionMs(), nova.getStatementCacheSize());
+        
+        ConnectionPool poolLeitura = readPool;
+        if (novasConexoes || poolLeitura == null || !anterior.getReplicaUrl().equals(nova.getReplicaUrl())) {
+            readPool = criarPoolLeitura(nova);
+            replicaIndisponivelAte = 0;
+            proximaVerificacaoAtraso.set(0);
+            if (poolLeitura != null) {
+                // Conexões emprestadas do pool antigo são fechadas ao serem devolvidas
+                poolLeitura.shutdown();
+            }
         } else {
-            // Verificar se a conexão do pool ainda é válida
+            poolLeitura.reconfigurar(nova.getReplicaMaxPoolSize(), 0, nova.getReplicaBorrowTimeoutMs(),
+                    nova.getMaxLifetimeMs(), nova.getLeakDetectionMs(), nova.getStatementCacheSize());
+        }
+        return true;
+    }
+    
+    private void verificarArquivoConfiguracao() {
+        try {
+            if (config.arquivoAlterado()) {
+                recarregarConfiguracao();
+            }
+        } catch (RuntimeException e) {
+            LogUtil.error(DatabaseConnection.class, "Erro ao recarregar a configuração do banco de dados", e);
+        }
+    }
+    
+    /**
+     * Obtém uma conexão do pool, aguardando na fila caso todas estejam em uso.
+     * A conexão retornada pode ser fechada normalmente (close() ou try-with-resources):
+     * ela volta ao pool com autocommit, isolamento e transação pendente restaurados.
+     * Dentro de {@link TransactionManager#inTransaction(TransactionManager.TransactionWork)},
+     * retorna a conexão da transação ativa na thread.
+     * @return Uma conexão com o banco de dados
+     * @throws SQLException Se ocorrer um erro ao obter a conexão ou se o tempo de espera se esgotar
+     */
+    public Connection getConnection() throws SQLException {
+        Connection participante = TransactionManager.conexaoParticipante();
+        if (participante != null) {
+            return participante;
+        }
+        return connectionPool.borrow();
+    }
+    
+    /**
+     * Empresta uma conexão do pool primário, ignorando a transação ativa na thread
+     */
+    Connection emprestarConexao() throws SQLException {
+        return connectionPool.borrow();
+    }
+    
+    /**
+     * Obtém uma conexão para consultas pesadas somente leitura (relatórios, dashboard).
+     * Usa a réplica de leitura quando configurada e com atraso de replicação dentro do
+     * tolerado; caso contrário, ou se a réplica falhar, usa o banco primário.
+     * A conexão deve ser fechada normalmente, como as de {@link #getConnection()}.
+     * Dentro de uma transação, retorna a conexão da transação, para que a consulta veja
+     * as alterações ainda não confirmadas.
+     * @return Uma conexão para leitura
+     * @throws SQLException Se não for possível obter conexão nem da réplica nem do primário
+     */
+    public Connection getReadConnection() throws SQLException {
+        Connection participante = TransactionManager.conexaoParticipante();
+        if (participante != null) {
+            return participante;
+        }
+        ConnectionPool poolLeitura = readPool;
+        if (poolLeitura != null && System.currentTimeMillis() >= replicaIndisponivelAte) {
+            Connection conn = null;
             try {
-                if (connection.isClosed() || !connection.isValid(2)) {
-                    LogUtil.info(DatabaseConnection.class, "Conexão do pool inválida, criando nova");
-                    connection.close();
-                    connection = createConnection();
+                conn = poolLeitura.borrow();
+                if (replicaAtualizada(conn)) {
+                    registrarRotaLeitura(false, null);
+                    return conn;
                 }
+                conn.close();
+                registrarRotaLeitura(true, "atraso de replicação de " + descreverAtraso()
+                        + " excede o tolerado (" + config.getReplicaMaxLagSeconds() + " s)");
             } catch (SQLException e) {
-                // Se houver erro ao validar, criar nova
-                try {
-                    connection.close();
-                } catch (Exception ex) {
-                    // Ignorar erros ao fechar conexão inválida
+                if (conn != null) {
+                    releaseConnection(conn);
                 }
-                connection = createConnection();
+                replicaIndisponivelAte = System.currentTimeMillis() + REPLICA_PAUSA_APOS_FALHA_MS;
+                registrarRotaLeitura(true, "réplica indisponível: " + e.getMessage());
             }
         }
-        
-        return connection;
+        return getConnection();
     }
     
     /**
-     * Retorna uma conexão para o pool após o uso
-     * @param connection A conexão a ser retornada
+     * Verifica o atraso da réplica, no máximo uma vez a cada intervalo
      */
-    public void releaseConnection(Connection connection) {
-        if (connection != null) {
-            try {
-                if (!connection.isClosed() && connection.isValid(2)) {
-                    // Remover autocommit para impedir transações abertas
-                    if (connection.getAutoCommit() == false) {
-                        connection.setAutoCommit(true);
-                    }
-                    
-                    // Tentar adicionar ao pool, se estiver cheio, fecha a conexão
-                    boolean returned = connectionPool.offer(connection);
-                    if (!returned) {
-                        connection.close();
-                        LogUtil.info(DatabaseConnection.class, "Pool cheio, conexão fechada");
-                    } else {
-                        LogUtil.info(DatabaseConnection.class, "Conexão retornada ao pool");
-                    }
-                } else {
-                    connection.close();
-                    LogUtil.info(DatabaseConnection.class, "Conexão inválida fechada");
+    private boolean replicaAtualizada(Connection conn) throws SQLException {
+        long agora = System.currentTimeMillis();
+        long proxima = proximaVerificacaoAtraso.get();
+        if (agora >= proxima && proximaVerificacaoAtraso.compareAndSet(proxima, agora + REPLICA_INTERVALO_VERIFICACAO_MS)) {
+            atrasoReplicaSegundos = medirAtrasoReplica(conn);
+        }
+        long atraso = atrasoReplicaSegundos;
+        return atraso >= 0 && atraso <= config.getReplicaMaxLagSeconds();
+    }
+    
+    /**
+     * Mede o atraso de replicação em segundos
+     * @return O atraso, 0 se o servidor não é uma réplica ou -1 se a replicação está parada
+     */
+    private long medirAtrasoReplica(Connection conn) throws SQLException {
+        // MySQL 8.0.22+ usa REPLICA/Source; versões anteriores, SLAVE/Master
+        String[][] consultas = {
+            { "SHOW REPLICA STATUS", "Seconds_Behind_Source" },
+            { "SHOW SLAVE STATUS", "Seconds_Behind_Master" }
+        };
+        for (String[] consulta : consultas) {
+            try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(consulta[0])) {
+                if (!rs.next()) {
+                    return 0;
                 }
+                long atraso = rs.getLong(consulta[1]);
+                return rs.wasNull() ? -1 : atraso;
             } catch (SQLException e) {
-                try {
-                    connection.close();
-                } catch (SQLException ex) {
-                    // Ignorar erros ao fechar
+                if (conn.isClosed()) {
+                    throw e;
                 }
-                LogUtil.warn(DatabaseConnection.class, "Erro ao processar conexão para retorno ao pool: " + e.getMessage());
+                // Sintaxe não suportada por esta versão: tenta a próxima
             }
         }
+        // Servidor sem informação de replicação (ex.: segunda instância local para testes)
+        return 0;
+    }
+    
+    private String descreverAtraso() {
+        return atrasoReplicaSegundos < 0 ? "desconhecido (replicação parada)" : atrasoReplicaSegundos + " s";
     }
     
     /**
-     * Fecha todas as conexões e limpa o pool
+     * Registra no log apenas as mudanças entre réplica e primário, para não poluir o log
      */
-    public void closeAllConnections() {
-        synchronized (connectionPool) {
-            Connection conn;
-            while ((conn = connectionPool.poll()) != null) {
-                try {
-                    conn.close();
-                } catch (SQLException e) {
-                    LogUtil.warn(DatabaseConnection.class, "Erro ao fechar conexão: " + e.getMessage());
-                }
+    private void registrarRotaLeitura(boolean usarPrimario, String motivo) {
+        if (usarPrimario != usandoPrimarioParaLeitura) {
+            usandoPrimarioParaLeitura = usarPrimario;
+            if (usarPrimario) {
+                LogUtil.warn(DatabaseConnection.class, "Consultas de leitura redirecionadas ao primário: " + motivo);
+            } else {
+                LogUtil.info(DatabaseConnection.class, "Consultas de leitura voltaram para a réplica");
             }
-            LogUtil.info(DatabaseConnection.class, "Todas as conexões foram fechadas");
         }
     }
     
+    /**
+     * Retorna uma conexão para o pool após o uso.
+     * Equivale a chamar close() na conexão obtida em {@link #getConnection()}.
+     * @param connection A conexão a ser retornada
+     */
+    public void releaseConnection(Connection connection) {
+        connectionPool.release(connection);
+    }
+    
+    /**
+     * Fecha todas as conexões ociosas do pool
+     */
+    public void closeAllConnections() {
+        connectionPool.fecharOciosas();
+        ConnectionPool poolLeitura = readPool;
+        if (poolLeitura != null) {
+            poolLeitura.fecharOciosas();
+        }
+        LogUtil.info(DatabaseConnection.class, "Todas as conexões foram fechadas");
+    }
+    
+    /**
+     * Retorna um resumo do estado do pool de conexões (conexões ativas, ociosas, esperas, timeouts)
+     * @return Resumo do pool para logs e diagnóstico
+     */
+    public String getPoolStatus() {
+        ConnectionPool poolLeitura = readPool;
+        if (poolLeitura == null) {
+            return connectionPool.getResumo();
+        }
+        return connectionPool.getResumo() + "; " + poolLeitura.getResumo() + ", atraso da réplica=" + descreverAtraso();
+    }
+    
     /**
      * Método utilitário para fechar recursos JDBC
      * @param connection Conexão a ser fechada
@@ -0,0 +1,205 @@
+package br.com.pdv.util;
+
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import br.com.pdv.util.TransactionManager.TransactionWork;
+import javafx.application.Platform;
+
+/**
+ * Executa acessos ao banco fora da thread do JavaFX, para que os controladores não travem
+ * a interface enquanto uma consulta está em andamento.
+ *
+ * O trabalho roda em um executor próprio e limitado: no máximo {@link #MAX_THREADS}
+ * consultas simultâneas (abaixo do tamanho do pool de conexões, deixando conexões para
+ * o fechamento de vendas) e uma fila de {@link #CAPACIDADE_FILA} tarefas; com a fila
+ * cheia, o futuro falha em vez de bloquear quem chamou. Em Java 21 ou superior as threads
+ * do executor são virtuais.
+ *
+ * Cada operação tem um tempo limite: ao esgotá-lo, o futuro falha com TimeoutException
+ * e a thread da consulta é interrompida (as consultas em fluxo do JdbcTemplate param na
+ * próxima linha). O resultado é entregue na thread do JavaFX por
+ * {@link #naInterface(CompletableFuture, Consumer, Consumer)}.
+ */
+public final class ExecutorDAO {
+
+    /** Número máximo de acessos simultâneos ao banco feitos pelo executor */
+    public static final int MAX_THREADS = 4;
+
+    /** Tarefas aguardando uma thread livre antes de recusar novas */
+    public static final int CAPACIDADE_FILA = 100;
+
+    /** Tempo limite padrão de uma operação */
+    public static final long TIMEOUT_PADRAO_MS = 30_000;
+
+    private static final ThreadPoolExecutor EXECUTOR = criarExecutor();
+
+    private ExecutorDAO() {
+    }
+
+    private static ThreadPoolExecutor criarExecutor() {
+        ThreadFactory fabrica = fabricaVirtual();
+        if (fabrica == null) {
+            AtomicInteger contador = new AtomicInteger();
+            fabrica = r -> {
+                Thread t = new Thread(r, "pdv-dao-" + contador.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(CAPACIDADE_FILA), fabrica);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Fábrica de threads virtuais (Thread.ofVirtual()), obtida por reflexão porque o
+     * projeto compila para Java 17
+     *
+     * @return A fábrica ou null se a JVM não tiver threads virtuais
+     */
+    private static ThreadFactory fabricaVirtual() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> tipo = Class.forName("java.lang.Thread$Builder");
+            builder = tipo.getMethod("name", String.class, long.class).invoke(builder, "pdv-dao-", 1L);
+            ThreadFactory fabrica = (ThreadFactory) tipo.getMethod("factory").invoke(builder);
+            LogUtil.info(ExecutorDAO.class, "Acessos assíncronos ao banco usarão threads virtuais");
+            return fabrica;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Executa o trabalho no executor com o tempo limite padrão
+     *
+     * @param operacao Nome da operação no log (ex.: "ProdutoDAO.findByCodigo")
+     * @param trabalho O trabalho a executar
+     * @return Future concluído com o resultado ou com o erro do trabalho
+     */
+    public static <T> CompletableFuture<T> executar(String operacao, TransactionWork<T> trabalho) {
+        return executar(operacao, TIMEOUT_PADRAO_MS, trabalho);
+    }
+
+    /**
+     * Executa o trabalho no executor
+     *
+     * @param operacao Nome da operação no log
+     * @param timeoutMs Tempo limite da operação, incluindo a espera na fila
+     * @param trabalho O trabalho a executar
+     * @return Future concluído com o resultado, com o erro do trabalho ou com TimeoutException
+     */
+    public static <T> CompletableFuture<T> executar(String operacao, long timeoutMs, TransactionWork<T> trabalho) {
+        CompletableFuture<T> futuro = new CompletableFuture<>();
+        Future<?> tarefa;
+        try {
+            tarefa = EXECUTOR.submit(() -> {
+                if (futuro.isDone()) {
+                    // Cancelado ou expirado ainda na fila
+                    return;
+                }
+                try {
+                    futuro.complete(trabalho.executar());
+                } catch (Throwable e) {
+                    futuro.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LogUtil.warn(ExecutorDAO.class, "Fila de acesso ao banco cheia, operação recusada: " + operacao);
+            futuro.completeExceptionally(new SQLException("Muitas operações em andamento, tente novamente", e));
+            return futuro;
+        }
+
+        futuro.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).whenComplete((resultado, erro) -> {
+            if (erro instanceof TimeoutException || erro instanceof CancellationException) {
+                tarefa.cancel(true);
+                if (erro instanceof TimeoutException) {
+                    LogUtil.warn(ExecutorDAO.class, String.format("%s: tempo limite de %d ms esgotado [%s]",
+                            operacao, timeoutMs, getResumo()));
+                }
+            }
+        });
+        return futuro;
+    }
+
+    /**
+     * Entrega o resultado do futuro na thread do JavaFX
+     *
+     * @param futuro O futuro da operação
+     * @param aoConcluir Recebe o resultado, na thread do JavaFX
+     * @param aoFalhar Recebe o erro (já sem CompletionException), na thread do JavaFX
+     * @return Future concluído depois que o resultado ou o erro foi entregue
+     */
+    public static <T> CompletableFuture<Void> naInterface(CompletableFuture<T> futuro, Consumer<? super T> aoConcluir,
+            Consumer<? super Throwable> aoFalhar) {
+        return futuro.handleAsync((resultado, erro) -> {
+            if (erro == null) {
+                aoConcluir.accept(resultado);
+            } else {
+                aoFalhar.accept(causa(erro));
+            }
+            return null;
+        }, Platform::runLater);
+    }
+
+    /**
+     * Executa o trabalho e entrega o resultado na thread do JavaFX; em caso de erro,
+     * registra no log e exibe um alerta com o título informado
+     *
+     * @param operacao Nome da operação no log
+     * @param trabalho O trabalho a executar
+     * @param aoConcluir Recebe o resultado, na thread do JavaFX
+     * @param tituloErro Título do alerta de erro
+     * @return Future concluído depois que o resultado ou o erro foi entregue
+     */
+    public static <T> CompletableFuture<Void> executarNaInterface(String operacao, TransactionWork<T> trabalho,
+            Consumer<? super T> aoConcluir, String tituloErro) {
+        return naInterface(executar(operacao, trabalho), aoConcluir, erro -> {
+            LogUtil.error(ExecutorDAO.class, operacao + ": " + mensagem(erro), erro);
+            AlertUtil.showError(tituloErro, mensagem(erro));
+        });
+    }
+
+    /**
+     * Mensagem do erro para exibir ao usuário
+     */
+    public static String mensagem(Throwable erro) {
+        if (erro instanceof TimeoutException) {
+            return "O banco de dados demorou para responder. Tente novamente.";
+        }
+        return erro.getMessage() != null ? erro.getMessage() : erro.getClass().getSimpleName();
+    }
+
+    /**
+     * Remove os invólucros de CompletableFuture do erro
+     */
+    private static Throwable causa(Throwable erro) {
+        Throwable t = erro;
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    /**
+     * Situação do executor, para o log e diagnóstico
+     */
+    public static String getResumo() {
+        return String.format("ativas=%d, na fila=%d, concluídas=%d",
+                EXECUTOR.getActiveCount(), EXECUTOR.getQueue().size(), EXECUTOR.getCompletedTaskCount());
+    }
+}
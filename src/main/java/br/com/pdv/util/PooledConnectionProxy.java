@@ -0,0 +1,223 @@
+package br.com.pdv.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Proxy entregue pelo {@link ConnectionPool} no lugar da conexão física.
+ *
+ * Chamar close() no proxy não fecha a conexão física: os statements abertos por este
+ * empréstimo são fechados, o estado da sessão alterado pelo chamador (autocommit,
+ * isolamento, somente leitura e transação pendente) é restaurado e a conexão volta ao
+ * pool. Assim, try-with-resources e os closeResources() existentes devolvem a conexão
+ * em vez de destruí-la. Cada empréstimo recebe um proxy novo; depois de fechado, o
+ * proxy não pode mais ser usado.
+ *
+ * prepareStatement() é atendido pelo {@link StatementCache} da conexão física; fechar
+ * esses statements os devolve ao cache.
+ */
+final class PooledConnectionProxy implements InvocationHandler {
+
+    private static final int LIMITE_STATEMENTS_REGISTRADOS = 32;
+
+    private final ConnectionPool pool;
+    private final ConnectionPool.PooledConnection pooled;
+    private final Connection fisica;
+    private final List<Statement> statementsAbertos = new ArrayList<>();
+    private Connection proxy;
+    private volatile boolean fechado = false;
+
+    // Estado da sessão alterado durante o empréstimo
+    private boolean autoCommitAlterado = false;
+    private boolean isolamentoAlterado = false;
+    private boolean somenteLeituraAlterado = false;
+
+    private PooledConnectionProxy(ConnectionPool pool, ConnectionPool.PooledConnection pooled) {
+        this.pool = pool;
+        this.pooled = pooled;
+        this.fisica = pooled.fisica;
+    }
+
+    /**
+     * Cria o proxy para um empréstimo da conexão
+     */
+    static Connection criar(ConnectionPool pool, ConnectionPool.PooledConnection pooled) {
+        PooledConnectionProxy handler = new PooledConnectionProxy(pool, pooled);
+        handler.proxy = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, handler);
+        return handler.proxy;
+    }
+
+    /**
+     * Verifica se a conexão é um proxy criado pelo pool
+     */
+    static boolean isProxy(Connection connection) {
+        return connection != null && Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof PooledConnectionProxy;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close":
+                fechar();
+                return null;
+            case "isClosed":
+                return fechado || fisica.isClosed();
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "PooledConnectionProxy[" + fisica + (fechado ? ", devolvida" : "") + "]";
+            case "unwrap":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return proxy;
+                }
+                break;
+            case "isWrapperFor":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return true;
+                }
+                break;
+            default:
+                break;
+        }
+
+        if (fechado) {
+            throw new SQLException("Conexão já foi devolvida ao pool");
+        }
+
+        registrarAlteracaoDeSessao(method.getName(), args);
+
+        if (isPreparacaoCacheavel(method, args)) {
+            PreparedStatement stmt = pooled.statementCache.preparar((String) args[0],
+                    args.length == 2 ? (Integer) args[1] : null, this.proxy);
+            registrarStatement(stmt);
+            return stmt;
+        }
+
+        Object resultado;
+        try {
+            resultado = method.invoke(fisica, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+
+        if (resultado instanceof Statement) {
+            registrarStatement((Statement) resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Somente prepareStatement(sql) e prepareStatement(sql, autoGeneratedKeys) passam
+     * pelo cache; as variantes com tipo de ResultSet ou colunas são raras nos DAOs.
+     */
+    private static boolean isPreparacaoCacheavel(Method method, Object[] args) {
+        if (!"prepareStatement".equals(method.getName())) {
+            return false;
+        }
+        Class<?>[] tipos = method.getParameterTypes();
+        return tipos.length == 1 || (tipos.length == 2 && tipos[1] == int.class);
+    }
+
+    private void registrarStatement(Statement stmt) {
+        synchronized (statementsAbertos) {
+            // Empréstimos longos não devem acumular referências a statements já fechados
+            if (statementsAbertos.size() >= LIMITE_STATEMENTS_REGISTRADOS) {
+                statementsAbertos.removeIf(PooledConnectionProxy::estaFechado);
+            }
+            statementsAbertos.add(stmt);
+        }
+    }
+
+    private static boolean estaFechado(Statement stmt) {
+        try {
+            return stmt.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private void registrarAlteracaoDeSessao(String metodo, Object[] args) {
+        switch (metodo) {
+            case "setAutoCommit":
+                autoCommitAlterado = autoCommitAlterado || !((Boolean) args[0]);
+                break;
+            case "setTransactionIsolation":
+                isolamentoAlterado = true;
+                break;
+            case "setReadOnly":
+                somenteLeituraAlterado = somenteLeituraAlterado || (Boolean) args[0];
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Fecha os statements do empréstimo, restaura o estado da sessão e devolve a conexão
+     */
+    private void fechar() {
+        if (fechado) {
+            return;
+        }
+        fechado = true;
+
+        fecharStatements();
+        pool.devolver(pooled, restaurarSessao());
+    }
+
+    private void fecharStatements() {
+        synchronized (statementsAbertos) {
+            for (Statement stmt : statementsAbertos) {
+                try {
+                    if (!estaFechado(stmt)) {
+                        stmt.close();
+                    }
+                } catch (SQLException e) {
+                    LogUtil.warn(PooledConnectionProxy.class, "Erro ao fechar Statement: " + e.getMessage());
+                }
+            }
+            statementsAbertos.clear();
+        }
+    }
+
+    /**
+     * Restaura o estado padrão da sessão. Transações pendentes são revertidas.
+     *
+     * @return true se a sessão foi restaurada e a conexão pode voltar ao pool
+     */
+    private boolean restaurarSessao() {
+        try {
+            if (fisica.isClosed()) {
+                return false;
+            }
+            if (autoCommitAlterado && !fisica.getAutoCommit()) {
+                fisica.rollback();
+                fisica.setAutoCommit(true);
+            }
+            if (isolamentoAlterado) {
+                fisica.setTransactionIsolation(pooled.isolamentoPadrao);
+            }
+            if (somenteLeituraAlterado) {
+                fisica.setReadOnly(false);
+            }
+            fisica.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            LogUtil.warn(PooledConnectionProxy.class,
+                    "Erro ao restaurar estado da conexão, ela será descartada: " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package br.com.pdv.util;
+
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import br.com.pdv.util.TransactionManager.TransactionWork;
+import javafx.application.Platform;
+
+/**
+ * Política de novas tentativas para erros transitórios de concorrência do MySQL:
+ * tempo de espera por bloqueio esgotado (1205) e deadlock (1213, SQLState 40001).
+ *
+ * O trabalho deve ser a transação inteira: o MySQL reverte a transação no deadlock, então
+ * só quem a iniciou pode repeti-la. Por isso, chamadas feitas dentro de uma transação já
+ * ativa na thread executam uma única vez e deixam a nova tentativa para o nível externo.
+ *
+ * Entre as tentativas, a espera cresce exponencialmente até um limite, com variação
+ * aleatória para que terminais em conflito não tentem de novo ao mesmo tempo. A espera
+ * nunca ocorre na thread do JavaFX: lá, use {@link #executarAsync(String, TransactionWork)}.
+ *
+ * Contagens de tentativas e tempos são registrados por operação ({@link #getResumo()}).
+ */
+public final class RetryPolicy {
+
+    /** Política usada pelos DAOs e controladores */
+    public static final RetryPolicy PADRAO = new RetryPolicy(4, 100, 2000);
+
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int ER_LOCK_DEADLOCK = 1213;
+    private static final String SQLSTATE_SERIALIZACAO = "40001";
+
+    private static final Map<String, Metricas> METRICAS = new ConcurrentHashMap<>();
+
+    // Executa as tentativas de executarAsync() e agenda as esperas sem bloquear threads
+    private static final ScheduledThreadPoolExecutor AGENDADOR = criarAgendador();
+
+    private final int maxTentativas;
+    private final long esperaInicialMs;
+    private final long esperaMaximaMs;
+
+    /**
+     * @param maxTentativas Número máximo de execuções, incluindo a primeira
+     * @param esperaInicialMs Espera antes da segunda tentativa
+     * @param esperaMaximaMs Limite da espera entre tentativas
+     */
+    public RetryPolicy(int maxTentativas, long esperaInicialMs, long esperaMaximaMs) {
+        if (maxTentativas < 1) {
+            throw new IllegalArgumentException("maxTentativas deve ser maior que zero");
+        }
+        this.maxTentativas = maxTentativas;
+        this.esperaInicialMs = esperaInicialMs;
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    private static ScheduledThreadPoolExecutor criarAgendador() {
+        AtomicInteger contador = new AtomicInteger();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(2, r -> {
+            Thread t = new Thread(r, "pdv-retry-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * Verifica se o erro (ou alguma de suas causas) é um conflito de bloqueio que pode ser
+     * resolvido repetindo a transação
+     */
+    public static boolean isErroTransitorio(Throwable erro) {
+        return tipoDeConflito(erro) != null;
+    }
+
+    /**
+     * @return "bloqueio", "deadlock" ou null se o erro não for um conflito de bloqueio
+     */
+    private static String tipoDeConflito(Throwable erro) {
+        for (Throwable t = erro; t != null; t = t.getCause() != t ? t.getCause() : null) {
+            if (t instanceof SQLException) {
+                for (SQLException e = (SQLException) t; e != null; e = e.getNextException()) {
+                    if (e.getErrorCode() == ER_LOCK_WAIT_TIMEOUT) {
+                        return "bloqueio";
+                    }
+                    if (e.getErrorCode() == ER_LOCK_DEADLOCK || SQLSTATE_SERIALIZACAO.equals(e.getSQLState())
+                            || e instanceof SQLTransactionRollbackException) {
+                        return "deadlock";
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Executa o trabalho na thread atual, repetindo-o em caso de conflito de bloqueio.
+     * Na thread do JavaFX ou dentro de uma transação já ativa, executa uma única vez.
+     *
+     * @param operacao Nome da operação nas métricas e no log (ex.: "CaixaDAO.update")
+     * @param trabalho O trabalho a executar, normalmente uma transação completa
+     * @return O resultado do trabalho
+     * @throws SQLException O erro da última tentativa
+     */
+    public <T> T executar(String operacao, TransactionWork<T> trabalho) throws SQLException {
+        boolean podeRepetir = !TransactionManager.isTransacaoAtiva();
+        if (podeRepetir && Platform.isFxApplicationThread()) {
+            LogUtil.warn(RetryPolicy.class, "Operação " + operacao
+                    + " executada na thread do JavaFX; conflitos de bloqueio não serão repetidos");
+            podeRepetir = false;
+        }
+
+        Metricas metricas = metricas(operacao);
+        long inicio = System.nanoTime();
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                T resultado = trabalho.executar();
+                metricas.registrarConclusao(inicio, true);
+                return resultado;
+            } catch (SQLException e) {
+                String conflito = tipoDeConflito(e);
+                if (conflito == null || !podeRepetir || tentativa >= maxTentativas) {
+                    metricas.registrarFalha(conflito);
+                    metricas.registrarConclusao(inicio, false);
+                    throw e;
+                }
+                long espera = calcularEspera(tentativa);
+                metricas.registrarNovaTentativa(conflito);
+                registrarNovaTentativa(operacao, metricas, conflito, tentativa, espera);
+                try {
+                    Thread.sleep(espera);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    metricas.registrarConclusao(inicio, false);
+                    throw new SQLException("Operação interrompida durante nova tentativa", ie);
+                }
+            } catch (RuntimeException | Error e) {
+                metricas.registrarConclusao(inicio, false);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Executa o trabalho em uma thread de fundo, repetindo-o em caso de conflito de
+     * bloqueio. As esperas são agendadas, sem manter nenhuma thread parada.
+     * O resultado é entregue fora da thread do JavaFX; use Platform.runLater() para
+     * atualizar a interface.
+     *
+     * @param operacao Nome da operação nas métricas e no log
+     * @param trabalho O trabalho a executar, normalmente uma transação completa
+     * @return Future concluído com o resultado ou com o erro da última tentativa
+     */
+    public <T> CompletableFuture<T> executarAsync(String operacao, TransactionWork<T> trabalho) {
+        CompletableFuture<T> futuro = new CompletableFuture<>();
+        Metricas metricas = metricas(operacao);
+        long inicio = System.nanoTime();
+        AGENDADOR.execute(() -> tentarAsync(operacao, trabalho, futuro, metricas, inicio, 1));
+        return futuro;
+    }
+
+    private <T> void tentarAsync(String operacao, TransactionWork<T> trabalho, CompletableFuture<T> futuro,
+            Metricas metricas, long inicio, int tentativa) {
+        if (futuro.isDone()) {
+            // Cancelado pelo chamador
+            return;
+        }
+        try {
+            T resultado = trabalho.executar();
+            metricas.registrarConclusao(inicio, true);
+            futuro.complete(resultado);
+        } catch (SQLException e) {
+            String conflito = tipoDeConflito(e);
+            if (conflito == null || tentativa >= maxTentativas) {
+                metricas.registrarFalha(conflito);
+                metricas.registrarConclusao(inicio, false);
+                futuro.completeExceptionally(e);
+                return;
+            }
+            long espera = calcularEspera(tentativa);
+            metricas.registrarNovaTentativa(conflito);
+            registrarNovaTentativa(operacao, metricas, conflito, tentativa, espera);
+            AGENDADOR.schedule(() -> tentarAsync(operacao, trabalho, futuro, metricas, inicio, tentativa + 1),
+                    espera, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException | Error e) {
+            metricas.registrarConclusao(inicio, false);
+            futuro.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Espera exponencial limitada, com variação aleatória na metade superior do intervalo
+     */
+    long calcularEspera(int tentativa) {
+        long teto = Math.min(esperaMaximaMs, esperaInicialMs << Math.min(tentativa - 1, 20));
+        long metade = teto / 2;
+        return metade + ThreadLocalRandom.current().nextLong(teto - metade + 1);
+    }
+
+    private void registrarNovaTentativa(String operacao, Metricas metricas, String conflito, int tentativa, long espera) {
+        LogUtil.warn(RetryPolicy.class, String.format("%s: %s na tentativa %d de %d, repetindo em %d ms [%s]",
+                operacao, conflito, tentativa, maxTentativas, espera, metricas.getResumo()));
+    }
+
+    private static Metricas metricas(String operacao) {
+        return METRICAS.computeIfAbsent(operacao, k -> new Metricas());
+    }
+
+    /**
+     * Resumo das métricas de cada operação, para o log e diagnóstico de contenção
+     */
+    public static String getResumo() {
+        StringBuilder sb = new StringBuilder("Novas tentativas por operação:");
+        if (METRICAS.isEmpty()) {
+            sb.append(" nenhuma operação registrada");
+        }
+        METRICAS.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> sb.append("\n  ").append(e.getKey()).append(": ").append(e.getValue().getResumo()));
+        return sb.toString();
+    }
+
+    /**
+     * Contadores de uma operação
+     */
+    private static final class Metricas {
+        private final AtomicLong execucoes = new AtomicLong();
+        private final AtomicLong falhas = new AtomicLong();
+        private final AtomicLong novasTentativas = new AtomicLong();
+        private final AtomicLong bloqueios = new AtomicLong();
+        private final AtomicLong deadlocks = new AtomicLong();
+        private final AtomicLong esgotadas = new AtomicLong();
+        private final AtomicLong tempoTotalMs = new AtomicLong();
+        private final AtomicLong tempoMaximoMs = new AtomicLong();
+
+        private void registrarNovaTentativa(String conflito) {
+            novasTentativas.incrementAndGet();
+            contarConflito(conflito);
+        }
+
+        private void registrarFalha(String conflito) {
+            if (conflito != null) {
+                // Conflito sem nova tentativa possível
+                esgotadas.incrementAndGet();
+                contarConflito(conflito);
+            }
+        }
+
+        private void contarConflito(String conflito) {
+            if ("deadlock".equals(conflito)) {
+                deadlocks.incrementAndGet();
+            } else {
+                bloqueios.incrementAndGet();
+            }
+        }
+
+        private void registrarConclusao(long inicioNanos, boolean sucesso) {
+            long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicioNanos);
+            execucoes.incrementAndGet();
+            if (!sucesso) {
+                falhas.incrementAndGet();
+            }
+            tempoTotalMs.addAndGet(ms);
+            tempoMaximoMs.accumulateAndGet(ms, Math::max);
+        }
+
+        private String getResumo() {
+            long n = execucoes.get();
+            return String.format("execuções=%d, falhas=%d, novas tentativas=%d (bloqueios=%d, deadlocks=%d), "
+                    + "esgotadas=%d, tempo médio=%d ms, máximo=%d ms",
+                    n, falhas.get(), novasTentativas.get(), bloqueios.get(), deadlocks.get(),
+                    esgotadas.get(), n == 0 ? 0 : tempoTotalMs.get() / n, tempoMaximoMs.get());
+        }
+    }
+}
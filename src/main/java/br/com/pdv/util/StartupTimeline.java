@@ -0,0 +1,36 @@
+package br.com.pdv.util;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Linha do tempo da inicialização da aplicação.
+ *
+ * Cada etapa é registrada no log uma única vez, com o tempo decorrido desde o início do
+ * processo (e não desde o carregamento desta classe), permitindo medir quanto tempo o
+ * terminal leva até a primeira venda.
+ */
+public final class StartupTimeline {
+
+    private static final long INICIO_PROCESSO_MS = ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli)
+            .orElse(System.currentTimeMillis());
+
+    private static final Set<String> etapasRegistradas = ConcurrentHashMap.newKeySet();
+
+    private StartupTimeline() {
+    }
+
+    /**
+     * Registra uma etapa da inicialização. Chamadas repetidas para a mesma etapa são ignoradas.
+     *
+     * @param etapa Descrição da etapa
+     */
+    public static void marcar(String etapa) {
+        if (etapasRegistradas.add(etapa)) {
+            LogUtil.info(StartupTimeline.class, String.format("[inicialização] +%d ms: %s",
+                    System.currentTimeMillis() - INICIO_PROCESSO_MS, etapa));
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package br.com.pdv.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache LRU de PreparedStatements de uma conexão física.
+ *
+ * Os DAOs preparam o mesmo SQL (as constantes SQL_*) a cada chamada. Com o cache, o
+ * prepareStatement() de um SQL já visto nesta conexão devolve o statement preparado
+ * anteriormente, e o close() do chamador apenas limpa os parâmetros e o devolve ao
+ * cache. Combinado com useServerPrepStmts, o servidor faz o parse do SQL uma única vez
+ * por conexão.
+ */
+final class StatementCache {
+
+    /**
+     * Contadores compartilhados pelos caches de todas as conexões de um pool
+     */
+    static final class Metricas {
+        final AtomicLong acertos = new AtomicLong();
+        final AtomicLong falhas = new AtomicLong();
+        final AtomicLong descartes = new AtomicLong();
+
+        String getResumo() {
+            long a = acertos.get();
+            long total = a + falhas.get();
+            long taxa = total == 0 ? 0 : a * 100 / total;
+            return String.format("cache de statements: acertos=%d, falhas=%d (%d%% de acerto), descartes=%d",
+                    a, falhas.get(), taxa, descartes.get());
+        }
+    }
+
+    private final Connection fisica;
+    private final int tamanhoMaximo;
+    private final Metricas metricas;
+    private final LinkedHashMap<String, Entrada> entradas;
+
+    StatementCache(Connection fisica, int tamanhoMaximo, Metricas metricas) {
+        this.fisica = fisica;
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.metricas = metricas;
+        // accessOrder = true: iteração do menos para o mais recentemente usado
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Prepara o SQL, reutilizando o statement em cache quando disponível
+     *
+     * @param sql O SQL a ser preparado
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS, NO_GENERATED_KEYS ou null
+     * @param conexao A conexão (proxy) retornada por getConnection() do statement
+     * @return Um PreparedStatement cujo close() o devolve ao cache
+     */
+    synchronized PreparedStatement preparar(String sql, Integer autoGeneratedKeys, Connection conexao)
+            throws SQLException {
+        if (tamanhoMaximo <= 0) {
+            metricas.falhas.incrementAndGet();
+            return prepararFisico(sql, autoGeneratedKeys);
+        }
+
+        String chave = (autoGeneratedKeys != null ? autoGeneratedKeys : "") + "|" + sql;
+        Entrada entrada = entradas.get(chave);
+
+        if (entrada != null && entrada.emUso) {
+            // O mesmo SQL já está aberto nesta conexão (ex.: consultas aninhadas)
+            metricas.falhas.incrementAndGet();
+            return prepararFisico(sql, autoGeneratedKeys);
+        }
+
+        if (entrada != null && estaFechado(entrada.statement)) {
+            entradas.remove(chave);
+            entrada = null;
+        }
+
+        if (entrada != null) {
+            metricas.acertos.incrementAndGet();
+        } else {
+            metricas.falhas.incrementAndGet();
+            entrada = new Entrada(chave, prepararFisico(sql, autoGeneratedKeys));
+            entradas.put(chave, entrada);
+            removerExcedentes();
+        }
+
+        entrada.emUso = true;
+        return entrada.criarProxy(conexao);
+    }
+
+    /**
+     * Fecha todos os statements em cache. Usado quando a conexão física é descartada.
+     */
+    synchronized void fecharTodos() {
+        for (Entrada entrada : entradas.values()) {
+            fecharSilenciosamente(entrada.statement);
+        }
+        entradas.clear();
+    }
+
+    synchronized int getTamanho() {
+        return entradas.size();
+    }
+
+    private PreparedStatement prepararFisico(String sql, Integer autoGeneratedKeys) throws SQLException {
+        return autoGeneratedKeys != null
+                ? fisica.prepareStatement(sql, autoGeneratedKeys)
+                : fisica.prepareStatement(sql);
+    }
+
+    private void removerExcedentes() {
+        Iterator<Entrada> it = entradas.values().iterator();
+        while (entradas.size() > tamanhoMaximo && it.hasNext()) {
+            Entrada menosUsada = it.next();
+            it.remove();
+            metricas.descartes.incrementAndGet();
+            if (menosUsada.emUso) {
+                // Fechado de verdade quando o chamador terminar de usá-lo
+                menosUsada.descartarAoDevolver = true;
+            } else {
+                fecharSilenciosamente(menosUsada.statement);
+            }
+        }
+    }
+
+    private synchronized void devolver(Entrada entrada) {
+        entrada.emUso = false;
+        if (entrada.descartarAoDevolver) {
+            fecharSilenciosamente(entrada.statement);
+        }
+    }
+
+    private static boolean estaFechado(PreparedStatement stmt) {
+        try {
+            return stmt.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static void fecharSilenciosamente(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            // Ignorar erros ao fechar statement descartado
+        }
+    }
+
+    /**
+     * Statement em cache e o estado compartilhado entre os empréstimos
+     */
+    private final class Entrada {
+        private final String chave;
+        private final PreparedStatement statement;
+        private boolean emUso;
+        private boolean descartarAoDevolver;
+
+        private Entrada(String chave, PreparedStatement statement) {
+            this.chave = chave;
+            this.statement = statement;
+        }
+
+        /**
+         * Cria o proxy de um novo empréstimo; cada proxy tem o próprio estado, para que
+         * um proxy já fechado continue fechado quando o statement for emprestado de novo
+         */
+        private PreparedStatement criarProxy(Connection conexao) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class }, new Emprestimo(this, conexao));
+        }
+    }
+
+    /**
+     * Um empréstimo do statement em cache: o proxy entregue ao chamador
+     */
+    private final class Emprestimo implements InvocationHandler {
+        private final Entrada entrada;
+        private final Connection conexao;
+        private final List<ResultSet> resultSetsAbertos = new ArrayList<>();
+        private boolean fechadoPeloChamador;
+        private boolean configuracaoAlterada;
+
+        private Emprestimo(Entrada entrada, Connection conexao) {
+            this.entrada = entrada;
+            this.conexao = conexao;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    fechar();
+                    return null;
+                case "isClosed":
+                    return fechadoPeloChamador || entrada.statement.isClosed();
+                case "getConnection":
+                    return conexao;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + entrada.chave + "]";
+                case "setFetchSize":
+                case "setMaxRows":
+                case "setQueryTimeout":
+                    configuracaoAlterada = true;
+                    break;
+                default:
+                    break;
+            }
+
+            if (fechadoPeloChamador) {
+                throw new SQLException("Statement já foi fechado");
+            }
+
+            Object resultado;
+            try {
+                resultado = method.invoke(entrada.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            if (resultado instanceof ResultSet) {
+                resultSetsAbertos.add((ResultSet) resultado);
+            }
+            return resultado;
+        }
+
+        private void fechar() throws SQLException {
+            if (fechadoPeloChamador) {
+                return;
+            }
+            fechadoPeloChamador = true;
+
+            PreparedStatement statement = entrada.statement;
+            try {
+                for (ResultSet rs : resultSetsAbertos) {
+                    rs.close();
+                }
+                resultSetsAbertos.clear();
+                // Linhas de um addBatch() sem executeBatch() iriam junto no próximo empréstimo
+                statement.clearBatch();
+                statement.clearParameters();
+                statement.clearWarnings();
+                if (configuracaoAlterada) {
+                    statement.setFetchSize(0);
+                    statement.setMaxRows(0);
+                    statement.setQueryTimeout(0);
+                    configuracaoAlterada = false;
+                }
+            } catch (SQLException | RuntimeException e) {
+                // Statement em estado desconhecido: remove do cache
+                synchronized (StatementCache.this) {
+                    entradas.remove(entrada.chave, entrada);
+                }
+                entrada.descartarAoDevolver = true;
+            } finally {
+                devolver(entrada);
+            }
+        }
+    }
+}
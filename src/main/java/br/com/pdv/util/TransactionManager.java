@@ -0,0 +1,259 @@
+package br.com.pdv.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Gerencia transações vinculadas à thread atual.
+ *
+ * Dentro de {@link #inTransaction(TransactionWork)}, {@link DatabaseConnection#getConnection()}
+ * e {@link DatabaseConnection#getReadConnection()} devolvem a conexão da transação em vez de
+ * emprestar outra do pool. Assim, qualquer chamada de DAO feita pelo trabalho participa da
+ * mesma transação, sem precisar receber a Connection por parâmetro.
+ *
+ * A conexão entregue aos DAOs participantes ignora close(), commit() e setAutoCommit(), de
+ * modo que o código existente (closeResources, try-with-resources, commit ao final do
+ * método) continua funcionando. rollback() em um participante marca a transação para ser
+ * revertida ao final; o commit é feito uma única vez, por quem iniciou a transação.
+ */
+public final class TransactionManager {
+
+    /**
+     * Como o trabalho se relaciona com uma transação já ativa na thread
+     */
+    public enum Propagacao {
+        /** Participa da transação ativa ou inicia uma nova */
+        REQUIRED,
+        /** Suspende a transação ativa, se houver, e inicia uma nova */
+        REQUIRES_NEW,
+        /** Exige uma transação ativa */
+        MANDATORY
+    }
+
+    /**
+     * Trabalho executado dentro de uma transação
+     * @param <T> Tipo do resultado
+     */
+    @FunctionalInterface
+    public interface TransactionWork<T> {
+        T executar() throws SQLException;
+    }
+
+    private static final ThreadLocal<Transacao> TRANSACAO_ATUAL = new ThreadLocal<>();
+
+    private TransactionManager() {
+    }
+
+    /**
+     * Executa o trabalho na transação ativa ou em uma nova (REQUIRED, leitura e escrita)
+     *
+     * @param trabalho O trabalho a executar
+     * @return O resultado do trabalho
+     * @throws SQLException Se o trabalho falhar (a transação é revertida) ou o commit falhar
+     */
+    public static <T> T inTransaction(TransactionWork<T> trabalho) throws SQLException {
+        return inTransaction(Propagacao.REQUIRED, false, trabalho);
+    }
+
+    /**
+     * Executa o trabalho em uma transação
+     *
+     * @param propagacao Como tratar uma transação já ativa na thread
+     * @param somenteLeitura true se o trabalho apenas consulta. Uma transação nova é aberta
+     *        como somente leitura; um trabalho de escrita não pode participar de uma
+     *        transação somente leitura.
+     * @param trabalho O trabalho a executar
+     * @return O resultado do trabalho
+     * @throws SQLException Se o trabalho falhar (a transação é revertida) ou o commit falhar
+     */
+    public static <T> T inTransaction(Propagacao propagacao, boolean somenteLeitura, TransactionWork<T> trabalho)
+            throws SQLException {
+        Transacao atual = TRANSACAO_ATUAL.get();
+
+        if (atual != null && propagacao != Propagacao.REQUIRES_NEW) {
+            if (atual.somenteLeitura && !somenteLeitura) {
+                throw new SQLException("Operação de escrita não pode participar de uma transação somente leitura");
+            }
+            return participar(atual, trabalho);
+        }
+        if (atual == null && propagacao == Propagacao.MANDATORY) {
+            throw new SQLException("Operação exige uma transação ativa");
+        }
+
+        return executarEmNovaTransacao(atual, somenteLeitura, trabalho);
+    }
+
+    /**
+     * Verifica se há uma transação ativa na thread atual
+     */
+    public static boolean isTransacaoAtiva() {
+        return TRANSACAO_ATUAL.get() != null;
+    }
+
+    /**
+     * Marca a transação ativa para ser revertida ao final, sem lançar exceção.
+     * Usado quando o trabalho decide desistir da operação (ex.: estoque insuficiente).
+     *
+     * @throws IllegalStateException Se não houver transação ativa
+     */
+    public static void marcarParaRollback() {
+        Transacao atual = TRANSACAO_ATUAL.get();
+        if (atual == null) {
+            throw new IllegalStateException("Nenhuma transação ativa");
+        }
+        atual.somenteRollback = true;
+    }
+
+    /**
+     * Conexão da transação ativa na thread, ou null se não houver
+     */
+    static Connection conexaoParticipante() {
+        Transacao atual = TRANSACAO_ATUAL.get();
+        return atual != null ? atual.participante : null;
+    }
+
+    private static <T> T participar(Transacao atual, TransactionWork<T> trabalho) throws SQLException {
+        try {
+            return trabalho.executar();
+        } catch (SQLException | RuntimeException | Error e) {
+            atual.marcarRevertidaPorParticipante(e.getMessage());
+            throw e;
+        }
+    }
+
+    private static <T> T executarEmNovaTransacao(Transacao suspensa, boolean somenteLeitura,
+            TransactionWork<T> trabalho) throws SQLException {
+        // A conexão da nova transação não pode ser a da transação suspensa
+        TRANSACAO_ATUAL.remove();
+        Transacao transacao = null;
+        try {
+            Connection conexao = DatabaseConnection.getInstance().emprestarConexao();
+            transacao = new Transacao(conexao, somenteLeitura);
+            conexao.setAutoCommit(false);
+            if (somenteLeitura) {
+                conexao.setReadOnly(true);
+            }
+            TRANSACAO_ATUAL.set(transacao);
+
+            T resultado;
+            try {
+                resultado = trabalho.executar();
+            } catch (SQLException | RuntimeException | Error e) {
+                reverter(transacao, e);
+                throw e;
+            }
+
+            if (transacao.somenteRollback) {
+                transacao.conexao.rollback();
+                if (transacao.motivoRollback != null) {
+                    throw new SQLException("Transação revertida porque uma operação participante falhou: "
+                            + transacao.motivoRollback);
+                }
+                return resultado;
+            }
+            transacao.conexao.commit();
+            return resultado;
+        } finally {
+            if (transacao != null) {
+                transacao.encerrada = true;
+                try {
+                    // O proxy do pool restaura autocommit e somente leitura
+                    transacao.conexao.close();
+                } catch (SQLException e) {
+                    LogUtil.warn(TransactionManager.class, "Erro ao devolver conexão da transação: " + e.getMessage());
+                }
+            }
+            if (suspensa != null) {
+                TRANSACAO_ATUAL.set(suspensa);
+            } else {
+                TRANSACAO_ATUAL.remove();
+            }
+        }
+    }
+
+    private static void reverter(Transacao transacao, Throwable causa) {
+        try {
+            transacao.conexao.rollback();
+        } catch (SQLException e) {
+            causa.addSuppressed(e);
+            LogUtil.error(TransactionManager.class, "Erro ao reverter transação", e);
+        }
+    }
+
+    /**
+     * Transação ativa em uma thread e a conexão entregue aos participantes
+     */
+    private static final class Transacao implements InvocationHandler {
+        private final Connection conexao;
+        private final Connection participante;
+        private final boolean somenteLeitura;
+        private volatile boolean somenteRollback;
+        private volatile String motivoRollback;
+        private volatile boolean encerrada;
+
+        private Transacao(Connection conexao, boolean somenteLeitura) {
+            this.conexao = conexao;
+            this.somenteLeitura = somenteLeitura;
+            this.participante = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, this);
+        }
+
+        private void marcarRevertidaPorParticipante(String motivo) {
+            somenteRollback = true;
+            if (motivoRollback == null) {
+                motivoRollback = motivo != null ? motivo : "rollback solicitado";
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    return null;
+                case "isClosed":
+                    return encerrada || conexao.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "TransactionManager.Participante[" + conexao + "]";
+                default:
+                    break;
+            }
+
+            if (encerrada) {
+                throw new SQLException("Transação já foi encerrada");
+            }
+
+            switch (method.getName()) {
+                case "getAutoCommit":
+                    return false;
+                case "setAutoCommit":
+                case "commit":
+                case "setReadOnly":
+                case "setTransactionIsolation":
+                    // Controlados por quem iniciou a transação
+                    return null;
+                case "rollback":
+                    if (args == null) {
+                        marcarRevertidaPorParticipante("rollback solicitado por um participante");
+                        return null;
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            try {
+                return method.invoke(conexao, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}